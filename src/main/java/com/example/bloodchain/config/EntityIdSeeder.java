@@ -0,0 +1,63 @@
+package com.example.bloodchain.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Starts the pooled primary key generators above the rows already in their tables.
+ *
+ * Blood units, components, usages, blood requests and donation requests take their
+ * IDs from rows of id_sequences (@TableGenerator, 50 per round trip) instead of
+ * AUTO_INCREMENT, so Hibernate knows the ID before the insert and can batch the
+ * inserts. Those tables were filled by AUTO_INCREMENT before, so each generator row
+ * is created here just above the current MAX(id) before anything is persisted
+ * (with the pooled-lo optimizer set in application.properties, a block starts at
+ * or after the stored value). Existing generator rows are left alone: nodes may
+ * already be handing out blocks from them.
+ *
+ * Tables that are also inserted into with plain JDBC (blood_tracking_log,
+ * blood_request_components, audit_outbox, inventory_counters) keep IDENTITY; those
+ * inserts are batched by JdbcTemplate already.
+ */
+@Component
+public class EntityIdSeeder {
+
+    // Generator row (pkColumnValue) -> table whose IDs it issues
+    private static final Map<String, String> GENERATORS = Map.of(
+        "blood_units.id", "blood_units",
+        "blood_components.id", "blood_components",
+        "blood_usage.id", "blood_usage",
+        "blood_requests.id", "blood_requests",
+        "donation_requests.id", "donation_requests"
+    );
+
+    private static final Map<String, String> ID_COLUMNS = Map.of(
+        "donation_requests", "request_id"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Schema update (ddl-auto) runs when the factory is built, so the tables exist by now
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        GENERATORS.forEach((generator, table) -> {
+            String idColumn = ID_COLUMNS.getOrDefault(table, "id");
+            int created = jdbcTemplate.update(
+                "INSERT IGNORE INTO id_sequences (sequence_name, next_value) " +
+                "SELECT ?, COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table,
+                generator);
+            if (created > 0) {
+                System.out.println("🌱 ID generator " + generator + " started above existing " + table + " rows");
+            }
+        });
+    }
+}
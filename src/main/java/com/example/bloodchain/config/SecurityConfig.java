@@ -1,5 +1,6 @@
 package com.example.bloodchain.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,16 +18,23 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
+    // Audit archive import rewrites the chain table; closed unless explicitly enabled
+    @Value("${bloodchain.audit.import-enabled:false}")
+    private boolean auditImportEnabled;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(Customizer.withDefaults())
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .requestMatchers("/api/auth/**").permitAll()
-                        .anyRequest().permitAll()
-                )
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .requestMatchers("/api/auth/**").permitAll();
+                    if (!auditImportEnabled) {
+                        auth.requestMatchers("/api/blockchain/import").denyAll();
+                    }
+                    auth.anyRequest().permitAll();
+                })
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable());
         return http.build();
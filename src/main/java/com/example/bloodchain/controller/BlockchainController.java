@@ -1,6 +1,22 @@
 package com.example.bloodchain.controller;
 
+import com.example.bloodchain.dto.ChainVerificationResult;
+import com.example.bloodchain.dto.InclusionProof;
+import com.example.bloodchain.service.BloodTrackingService;
+import com.example.bloodchain.service.ChainArchiveService;
+import com.example.bloodchain.service.ChainVerificationService;
+import com.example.bloodchain.service.MerkleBlockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
@@ -8,11 +24,125 @@ import java.util.*;
 @CrossOrigin(origins = {"http://localhost:63342", "http://127.0.0.1:63342"})
 public class BlockchainController {
 
+    @Autowired
+    private ChainVerificationService verificationService;
+
+    @Autowired
+    private MerkleBlockService merkleBlockService;
+
+    @Autowired
+    private ChainArchiveService archiveService;
+
+    @Autowired
+    private BloodTrackingService trackingService;
+
+    // 🔗 Chain status (result of the latest scheduled verification)
     @GetMapping("/status")
     public Map<String, Object> getBlockchainStatus() {
+        ChainVerificationResult result = verificationService.latest();
         Map<String, Object> response = new HashMap<>();
-        response.put("valid", true);
-        response.put("message", "✅ Blockchain is valid and up-to-date.");
+        response.put("valid", result.isValid());
+        response.put("message", result.getMessage());
+        response.put("verifiedEntries", result.getEntriesVerified());
+        response.put("checkedEntries", result.getEntriesChecked());
+        response.put("firstInvalidLogId", result.getFirstInvalidLogId());
+        response.put("verifiedAt", result.getVerifiedAt());
         return response;
     }
+
+    // 🔍 Latest verification result (full=true queues a re-verification from genesis for the next scheduled run)
+    @GetMapping("/verify")
+    public ChainVerificationResult verifyBlockchain(@RequestParam(defaultValue = "false") boolean full) {
+        if (full) {
+            verificationService.requestFullVerification();
+        }
+        return verificationService.latest();
+    }
+
+    // 🌳 Merkle inclusion proof for one audit log entry
+    @GetMapping("/proof/{logId}")
+    public ResponseEntity<?> getInclusionProof(@PathVariable Long logId) {
+        try {
+            return ResponseEntity.ok(merkleBlockService.proveLogEntry(logId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 🌳 Merkle inclusion proofs for every sealed entry of a blood unit
+    @GetMapping("/proof/unit/{bloodUnitId}")
+    public List<InclusionProof> getBloodUnitProofs(@PathVariable String bloodUnitId) {
+        return merkleBlockService.proveBloodUnit(bloodUnitId);
+    }
+
+    // 📦 Stream the audit chain as a binary archive (from = chain position to resume at)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportChain(@RequestParam(defaultValue = "0") long from,
+                                                            @RequestParam(defaultValue = "true") boolean compress) {
+        StreamingResponseBody body = out -> archiveService.export(Channels.newChannel(out), from, compress);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-chain-" + from + ".bcha\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    // 📥 Load an exported archive (entries are verified while reading; skip = chain position to resume at)
+    @PostMapping("/import")
+    public ResponseEntity<?> importChain(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(defaultValue = "0") long skip) {
+        try (ReadableByteChannel channel = Channels.newChannel(file.getInputStream())) {
+            return ResponseEntity.ok(archiveService.importArchive(channel, skip));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 📜 Audit trail of a blood unit, paged (pass nextCursor back as cursor)
+    @GetMapping("/logs/unit/{bloodUnitId}")
+    public ResponseEntity<?> getUnitLogs(@PathVariable String bloodUnitId,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(trackingService.getBloodHistoryPage(bloodUnitId, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 👤 Actions performed by a user, newest first
+    @GetMapping("/logs/user/{email}")
+    public ResponseEntity<?> getUserLogs(@PathVariable String email,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(trackingService.getUserActivity(email, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 🏷️ Entries for one action type, newest first
+    @GetMapping("/logs/action/{action}")
+    public ResponseEntity<?> getActionLogs(@PathVariable String action,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(trackingService.getActionLogs(action, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // 📅 Entries within a time range, newest first
+    @GetMapping("/logs/range")
+    public ResponseEntity<?> getLogsInRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(trackingService.getLogsByDateRange(start, end, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 }
@@ -1,18 +1,26 @@
 package com.example.bloodchain.controller;
 
+import com.example.bloodchain.dto.DonationListItem;
+import com.example.bloodchain.dto.DonationPage;
 import com.example.bloodchain.model.*;
 import com.example.bloodchain.repository.*;
+import com.example.bloodchain.service.AuditLogStore;
+import com.example.bloodchain.service.ChainVerificationService;
+import com.example.bloodchain.service.DashboardSnapshot;
+import com.example.bloodchain.service.DonationRequestService;
+import com.example.bloodchain.service.InventoryCounters;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bloodbank")
-@CrossOrigin(origins = {"http://localhost:63342", "http://127.0.0.1:63342"})
+@CrossOrigin(origins = {"http://localhost:63342", "http://127.0.0.1:63342"}, exposedHeaders = "X-Next-Cursor")
 public class BloodBankController {
 
     @Autowired
@@ -22,19 +30,25 @@ public class BloodBankController {
     private BloodUnitRepository bloodUnitRepo;
 
     @Autowired
-    private DonationRequestRepository donationRequestRepo;
+    private AuditLogStore trackingLogStore;
 
     @Autowired
-    private BloodTrackingLogRepository trackingLogRepo;
+    private BloodRequestRepository bloodRequestRepo;
 
     @Autowired
-    private BloodRequestRepository bloodRequestRepo;
+    private BloodComponentRepository componentRepository;
 
     @Autowired
-    private DonorRepository donorRepo;
+    private ChainVerificationService verificationService;
 
     @Autowired
-    private BloodComponentRepository componentRepository;
+    private InventoryCounters inventoryCounters;
+
+    @Autowired
+    private DashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private DonationRequestService donationRequestService;
 
     // ➕ Add blood bank
     @PostMapping("/add")
@@ -103,65 +117,33 @@ public class BloodBankController {
         return "✅ Blood Bank deleted successfully.";
     }
 
-    // 📊 Dashboard Overview Statistics
+    // 📊 Dashboard Overview Statistics (kept in memory; 304 when the client's copy is current)
     @GetMapping("/dashboard/overview")
-    public ResponseEntity<Map<String, Object>> getDashboardOverview() {
-        Map<String, Object> overview = new HashMap<>();
-        
-        // Total units collected (all blood units)
-        long totalCollected = bloodUnitRepo.count();
-        
-        // Units dispatched (DISPATCHED status)
-        long dispatched = bloodUnitRepo.countByStatus(BloodUnitStatus.DISPATCHED);
-        
-        // Available stock (STORED status)
-        long availableStock = bloodUnitRepo.countByStatus(BloodUnitStatus.STORED);
-        
-        // Blockchain status
-        long totalBlocks = trackingLogRepo.count();
-        boolean blockchainValid = totalBlocks > 0;
-        
-        // Total Donors
-        long totalDonors = donorRepo.count();
-
-        // Expiring Soon (next 7 days)
-        LocalDate sevenDaysFromNow = LocalDate.now().plusDays(7);
-        List<BloodUnit> expiringUnits = bloodUnitRepo.findByExpiryDateBeforeAndStatusNot(sevenDaysFromNow, BloodUnitStatus.EXPIRED);
-        // Filter those that are technically not expired yet but will expire soon, and are available
-        long expiringSoon = expiringUnits.stream()
-                .filter(u -> u.getStatus() == BloodUnitStatus.STORED && u.getExpiryDate().isAfter(LocalDate.now()))
-                .count();
-
-        // Emergency Requests
-        // Assuming RequestUrgency.EMERGENCY exists, otherwise we'll fetch all REQUESTED and filter client side or similar
-        // For now, let's count all REQUESTED status requests as "Active Requests" if we can't be sure about Emergency enum
-        // But better to check. I'll count all pending requests for now.
-        long activeRequests = bloodRequestRepo.countByStatus(BloodRequestStatus.REQUESTED);
-
-        overview.put("totalCollected", totalCollected);
-        overview.put("dispatched", dispatched);
-        overview.put("availableStock", availableStock);
-        overview.put("blockchainValid", blockchainValid);
-        overview.put("totalBlocks", totalBlocks);
-        overview.put("totalDonors", totalDonors);
-        overview.put("expiringSoon", expiringSoon);
-        overview.put("activeRequests", activeRequests);
-        
-        return ResponseEntity.ok(overview);
+    public ResponseEntity<Map<String, Object>> getDashboardOverview(WebRequest request) {
+        DashboardSnapshot.Overview overview = dashboardSnapshot.current();
+        if (request.checkNotModified(overview.etag())) {
+            return null;  // 304 Not Modified already written
+        }
+        return ResponseEntity.ok()
+                .eTag(overview.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(overview.toMap());
     }
 
     // 🩸 Blood Inventory by Blood Group
     @GetMapping("/dashboard/inventory")
-    public ResponseEntity<List<Map<String, Object>>> getBloodInventory() {
+    public ResponseEntity<List<Map<String, Object>>> getBloodInventory(@RequestParam(required = false) Integer bankId) {
         String[] bloodGroups = {"A+", "B+", "O+", "AB+", "A-", "B-", "O-", "AB-"};
         List<Map<String, Object>> inventory = new ArrayList<>();
+
+        // Stored units per blood group, one read of the inventory counters
+        Map<String, Long> storedUnits = inventoryCounters.unitsByBloodGroup(BloodUnitStatus.STORED, bankId);
         
         for (String bloodGroup : bloodGroups) {
             Map<String, Object> groupData = new HashMap<>();
             
             // Count available units for this blood group
-            List<BloodUnit> units = bloodUnitRepo.findByBloodGroupAndStatus(bloodGroup, BloodUnitStatus.STORED);
-            int unitCount = units.size();
+            int unitCount = storedUnits.getOrDefault(bloodGroup, 0L).intValue();
             
             // Determine status based on count
             String status;
@@ -205,15 +187,21 @@ public class BloodBankController {
      * Returns a list of maps, each containing: componentType, bloodGroup, and count.
      */
     @GetMapping("/dashboard/components/inventory")
-    public ResponseEntity<List<Map<String, Object>>> getComponentInventory() {
+    public ResponseEntity<List<Map<String, Object>>> getComponentInventory(@RequestParam(required = false) Integer bankId) {
         String[] bloodGroups = {"A+", "B+", "O+", "AB+", "A-", "B-", "O-", "AB-"};
         ComponentType[] types = ComponentType.values();
         List<Map<String, Object>> inventory = new ArrayList<>();
-        LocalDate today = LocalDate.now();
+
+        // One read of the inventory counters, laid out in the usual type / group order
+        Map<String, Long> counts = new HashMap<>();
+        for (InventoryCounters.GroupCount groupCount :
+                inventoryCounters.componentsByTypeAndGroup(ComponentStatus.AVAILABLE, bankId)) {
+            counts.put(groupCount.componentType() + " " + groupCount.bloodGroup(), groupCount.count());
+        }
 
         for (ComponentType type : types) {
             for (String group : bloodGroups) {
-                long count = componentRepository.countAvailableComponents(type, group, today);
+                long count = counts.getOrDefault(type + " " + group, 0L);
                 
                 if (count > 0) {
                     Map<String, Object> entry = new HashMap<>();
@@ -227,77 +215,78 @@ public class BloodBankController {
         return ResponseEntity.ok(inventory);
     }
 
-    // 📥 Pending Donation Requests
+    // 📥 Pending Donation Requests (oldest first; whole list unless size or cursor is given, next page cursor in X-Next-Cursor)
     @GetMapping("/dashboard/pending-donations")
-    public ResponseEntity<List<Map<String, Object>>> getPendingDonations() {
-        // Fetch PENDING requests
-        List<DonationRequest> pendingRequests = donationRequestRepo.findByStatusOrderByRequestDateAsc(DonationRequestStatus.PENDING);
-        return ResponseEntity.ok(mapDonationsToResponse(pendingRequests));
+    public ResponseEntity<?> getPendingDonations(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return donationList(List.of(DonationRequestStatus.PENDING), false, cursor, pageSize(cursor, size));
     }
 
-    // ✅ Approved/Scheduled Donations (Ready for Completion)
+    // ✅ Approved/Scheduled Donations (Ready for Completion; whole list unless size or cursor is given)
     @GetMapping("/dashboard/approved-donations")
-    public ResponseEntity<List<Map<String, Object>>> getApprovedDonations() {
-        // Fetch APPROVED and SCHEDULED requests
-        List<DonationRequest> approved = donationRequestRepo.findByStatusOrderByRequestDateAsc(DonationRequestStatus.APPROVED);
-        List<DonationRequest> scheduled = donationRequestRepo.findByStatusOrderByRequestDateAsc(DonationRequestStatus.SCHEDULED);
-        
-        List<DonationRequest> combined = new ArrayList<>();
-        combined.addAll(approved);
-        combined.addAll(scheduled);
-        
-        // Sort by date/time if needed (already sorted individually, merging them simply might misorder slightly but acceptable)
-        return ResponseEntity.ok(mapDonationsToResponse(combined));
+    public ResponseEntity<?> getApprovedDonations(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size) {
+        return donationList(List.of(DonationRequestStatus.APPROVED, DonationRequestStatus.SCHEDULED), false,
+                            cursor, pageSize(cursor, size));
     }
 
-    // 🎉 Completed Donations (History)
+    // 🎉 Completed Donations (History, newest first)
     @GetMapping("/dashboard/completed-donations")
-    public ResponseEntity<List<Map<String, Object>>> getCompletedDonations() {
-        List<DonationRequest> completed = donationRequestRepo.findByStatusOrderByRequestDateAsc(DonationRequestStatus.COMPLETED);
-        // Maybe limit to last 50?
-        if (completed.size() > 50) {
-            completed = completed.subList(completed.size() - 50, completed.size());
+    public ResponseEntity<?> getCompletedDonations(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return donationList(List.of(DonationRequestStatus.COMPLETED), true, cursor, size);
+    }
+
+    // Helper for the work lists: unpaged by default, 50 per page once a client pages
+    private static Integer pageSize(String cursor, Integer size) {
+        if (size == null && cursor != null && !cursor.isBlank()) {
+            return 50;
         }
-        Collections.reverse(completed); // Show newest first
-        return ResponseEntity.ok(mapDonationsToResponse(completed));
+        return size;
     }
 
-    // Helper to map donations
-    private List<Map<String, Object>> mapDonationsToResponse(List<DonationRequest> requests) {
-        return requests.stream()
-            .map(request -> {
-                Map<String, Object> donation = new HashMap<>();
-                donation.put("requestId", request.getRequestId());
-                donation.put("donorEmail", request.getDonorEmail());
-                donation.put("bloodBankId", request.getBloodBankId()); // Added
-                
-                // Try to fetch donor name if possible
-                String donorName = "Unknown";
-                Donor donor = donorRepo.findByEmail(request.getDonorEmail());
-                if (donor != null) {
-                    donorName = donor.getName();
-                }
-                donation.put("donorName", donorName);
-                
-                donation.put("bloodGroup", request.getBloodGroup());
-                donation.put("requestDate", request.getRequestDate().toString());
-                donation.put("status", request.getStatus().toString());
-
-                // Fetch volume for completed donations
-                if (request.getStatus() == DonationRequestStatus.COMPLETED) {
-                     bloodUnitRepo.findByDonationRequestId(request.getRequestId())
-                         .ifPresent(unit -> donation.put("volumeMl", unit.getVolumeMl()));
-                }
-                
-                // Extra fields for approved/scheduled
-                if (request.getAppointmentDate() != null) {
-                    donation.put("appointmentDate", request.getAppointmentDate().toString());
-                    donation.put("appointmentTime", request.getAppointmentTime() != null ? request.getAppointmentTime().toString() : "");
-                }
-                
-                return donation;
-            })
-            .collect(Collectors.toList());
+    // Helper to load one page of a donation list (one query per status, no per-row lookups)
+    private ResponseEntity<?> donationList(List<DonationRequestStatus> statuses, boolean newestFirst,
+                                           String cursor, Integer size) {
+        try {
+            DonationPage page = donationRequestService.getDonationList(statuses, newestFirst, cursor, size);
+            List<Map<String, Object>> donations = page.getItems().stream()
+                .map(this::toDonationResponse)
+                .collect(Collectors.toList());
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+            return response.body(donations);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Helper to map a donation row
+    private Map<String, Object> toDonationResponse(DonationListItem item) {
+        Map<String, Object> donation = new HashMap<>();
+        donation.put("requestId", item.getRequestId());
+        donation.put("donorEmail", item.getDonorEmail());
+        donation.put("bloodBankId", item.getBloodBankId());
+        donation.put("donorName", item.getDonorName() != null ? item.getDonorName() : "Unknown");
+        donation.put("bloodGroup", item.getBloodGroup());
+        donation.put("requestDate", item.getRequestDate().toString());
+        donation.put("status", item.getStatus().toString());
+
+        // Volume for completed donations
+        if (item.getStatus() == DonationRequestStatus.COMPLETED && item.getVolumeMl() != null) {
+            donation.put("volumeMl", item.getVolumeMl());
+        }
+
+        // Extra fields for approved/scheduled
+        if (item.getAppointmentDate() != null) {
+            donation.put("appointmentDate", item.getAppointmentDate().toString());
+            donation.put("appointmentTime", item.getAppointmentTime() != null ? item.getAppointmentTime().toString() : "");
+        }
+
+        return donation;
     }
     
     // 🏥 Hospital Blood Requests
@@ -327,12 +316,9 @@ public class BloodBankController {
     public ResponseEntity<Map<String, Object>> getBlockchainStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        long totalBlocks = trackingLogRepo.count();
-        List<BloodTrackingLog> recentLogs = trackingLogRepo.findAll(); // Should be paginated ideally
-        // Sort by timestamp desc and take top 5
-        List<Map<String, Object>> recentTransactions = recentLogs.stream()
-            .sorted(Comparator.comparing(BloodTrackingLog::getTimestamp).reversed())
-            .limit(5)
+        long totalBlocks = trackingLogStore.count();
+        // Latest 5 entries straight from the primary key index
+        List<Map<String, Object>> recentTransactions = trackingLogStore.findTop5ByOrderByIdDesc().stream()
             .map(log -> {
                 Map<String, Object> map = new HashMap<>();
                 map.put("unitId", log.getBloodUnitId());
@@ -344,7 +330,7 @@ public class BloodBankController {
             .collect(Collectors.toList());
         
         stats.put("verifiedBlocks", totalBlocks);
-        stats.put("isValid", totalBlocks > 0);
+        stats.put("isValid", totalBlocks > 0 && verificationService.latest().isValid());
         stats.put("recentTransactions", recentTransactions);
         
         return ResponseEntity.ok(stats);
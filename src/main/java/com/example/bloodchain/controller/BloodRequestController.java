@@ -58,6 +58,29 @@ public class BloodRequestController {
         }
     }
 
+    // 🔍 Preview Matching (dry run, nothing reserved)
+    @GetMapping("/{id}/match-preview")
+    public ResponseEntity<?> previewMatch(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(bloodRequestService.previewMatch(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @Autowired
+    private com.example.bloodchain.service.AllocationPlanner allocationPlanner;
+
+    // 🧮 Allocation Plan for all pending requests (proposal only, nothing reserved)
+    @GetMapping("/allocation-plan")
+    public ResponseEntity<?> allocationPlan() {
+        try {
+            return ResponseEntity.ok(allocationPlanner.plan());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     // ❌ Reject Request
     @PutMapping("/{id}/reject")
     public ResponseEntity<String> rejectRequest(@PathVariable Long id, @RequestBody(required = false) Map<String, String> payload) {
@@ -1,11 +1,18 @@
 package com.example.bloodchain.controller;
 
+import com.example.bloodchain.dto.DonationDTO;
 import com.example.bloodchain.model.Donation;
 import com.example.bloodchain.service.DonationService;
 import com.example.bloodchain.repository.DonationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,9 +22,15 @@ import java.util.UUID;
 @CrossOrigin(origins = {"http://localhost:63342", "http://127.0.0.1:63342"})
 public class DonationController {
 
+    // Donations fetched per query while streaming the full list
+    private static final int STREAM_PAGE_SIZE = 1000;
+
     @Autowired
     private DonationService donationService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private com.example.bloodchain.service.CertificateService certificateService;
 
@@ -35,10 +48,44 @@ public class DonationController {
         return ResponseEntity.ok("✅ Donation request submitted successfully! Waiting for approval.");
     }
 
-    // 📄 All donations (for admin/hospital)
+    // 📄 All donations (for admin/hospital), streamed as one JSON array page by page
+    // (bounded by spring.mvc.async.request-timeout)
     @GetMapping("/all")
-    public List<com.example.bloodchain.dto.DonationDTO> getAll() {
-        return donationService.getAllDTO();
+    public ResponseEntity<StreamingResponseBody> getAll() {
+        ObjectWriter writer = objectMapper.writerFor(DonationDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartArray();
+            long afterId = 0;
+            while (true) {
+                List<DonationDTO> page = donationService.getDTOPage(afterId, STREAM_PAGE_SIZE);
+                for (DonationDTO dto : page) {
+                    writer.writeValue(json, dto);
+                }
+                json.flush();
+                if (page.size() < STREAM_PAGE_SIZE) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            json.writeEndArray();
+            json.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // 📄 One page of all donations in id order (pass the last id back as afterId; a short page is the last)
+    @GetMapping("/all/page")
+    public ResponseEntity<?> getAllPage(@RequestParam(defaultValue = "0") long afterId,
+                                        @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(donationService.getDTOPage(afterId, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     // 🕓 Pending donations (for hospital approval)
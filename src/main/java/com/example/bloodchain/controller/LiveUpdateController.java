@@ -0,0 +1,38 @@
+package com.example.bloodchain.controller;
+
+import com.example.bloodchain.service.LiveUpdateHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/live")
+@CrossOrigin(origins = {"http://localhost:63342", "http://127.0.0.1:63342"})
+public class LiveUpdateController {
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    // 📡 Live dashboard stream: one bank, one hospital, or everything
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Integer bankId,
+                             @RequestParam(required = false) String hospitalEmail) {
+        if (hospitalEmail != null && !hospitalEmail.isBlank()) {
+            return liveUpdateHub.subscribe(LiveUpdateHub.hospitalTopic(hospitalEmail));
+        }
+        if (bankId != null) {
+            return liveUpdateHub.subscribe(LiveUpdateHub.bankTopic(bankId));
+        }
+        return liveUpdateHub.subscribe(LiveUpdateHub.ALL);
+    }
+
+    // 📶 Open streams per topic
+    @GetMapping("/connections")
+    public ResponseEntity<Map<String, Integer>> connections() {
+        return ResponseEntity.ok(liveUpdateHub.connections());
+    }
+}
@@ -3,22 +3,17 @@ package com.example.bloodchain.controller;
 import com.example.bloodchain.model.Donation;
 import com.example.bloodchain.model.User;
 import com.example.bloodchain.repository.UserRepository;
+import com.example.bloodchain.service.DonationHistoryService;
 import com.example.bloodchain.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import com.example.bloodchain.model.BloodUnit;
-import com.example.bloodchain.model.BloodTrackingLog;
 import com.example.bloodchain.model.Donor;
-import com.example.bloodchain.repository.BloodUnitRepository;
-import com.example.bloodchain.repository.BloodTrackingLogRepository;
 import com.example.bloodchain.repository.DonorRepository;
 
 @RestController
@@ -36,10 +31,7 @@ public class UserController {
     private DonorRepository donorRepo;
 
     @Autowired
-    private BloodUnitRepository bloodUnitRepo;
-
-    @Autowired
-    private BloodTrackingLogRepository logRepo;
+    private DonationHistoryService donationHistoryService;
 
     // ✅ Common Signup API
     @PostMapping("/signup")
@@ -87,23 +79,8 @@ public class UserController {
         Donor donor = donorRepo.findByEmail(email);
         if (donor == null) return ResponseEntity.ok(Collections.emptyList());
         
-        List<BloodUnit> units = bloodUnitRepo.findByDonorId(donor.getDonorId());
-        
-        List<Map<String, Object>> records = units.stream().map(unit -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", unit.getBloodUnitId());
-            map.put("bloodUnitId", unit.getBloodUnitId());
-            map.put("units", unit.getVolumeMl());
-            map.put("donationDate", unit.getCollectionDate().toString());
-            map.put("location", unit.getStorageLocation() != null ? unit.getStorageLocation() : "Blood Bank");
-            map.put("status", unit.getStatus().toString());
-            
-            // Fetch blockchain hash
-            BloodTrackingLog log = logRepo.findTopByBloodUnitIdOrderByTimestampDesc(unit.getBloodUnitId());
-            map.put("blockHash", log != null && log.getHash() != null ? log.getHash() : "Pending Verification");
-            
-            return map;
-        }).collect(Collectors.toList());
+        // Units plus their latest audit hashes in a fixed number of queries, cached per donor
+        List<Map<String, Object>> records = donationHistoryService.getDonations(donor.getDonorId());
         
         return ResponseEntity.ok(records);
     }
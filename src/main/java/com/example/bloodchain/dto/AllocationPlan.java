@@ -0,0 +1,96 @@
+package com.example.bloodchain.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a proposed allocation of current stock across all pending requests.
+ * A proposal only: nothing is reserved until each request is approved.
+ */
+public class AllocationPlan {
+    private LocalDateTime generatedAt;
+    private long elapsedMs;
+    private int requestCount;
+    private int componentCount;
+    private int allocatedUnits;
+    private int shortfallUnits;
+    private int substitutions;
+    private int expiringUnallocated;  // Components left over that expire within 2 days
+    private List<PlannedAllocation> allocations;
+
+    // Constructors
+    public AllocationPlan() {}
+
+    // Getters and Setters
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(int requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    public void setComponentCount(int componentCount) {
+        this.componentCount = componentCount;
+    }
+
+    public int getAllocatedUnits() {
+        return allocatedUnits;
+    }
+
+    public void setAllocatedUnits(int allocatedUnits) {
+        this.allocatedUnits = allocatedUnits;
+    }
+
+    public int getShortfallUnits() {
+        return shortfallUnits;
+    }
+
+    public void setShortfallUnits(int shortfallUnits) {
+        this.shortfallUnits = shortfallUnits;
+    }
+
+    public int getSubstitutions() {
+        return substitutions;
+    }
+
+    public void setSubstitutions(int substitutions) {
+        this.substitutions = substitutions;
+    }
+
+    public int getExpiringUnallocated() {
+        return expiringUnallocated;
+    }
+
+    public void setExpiringUnallocated(int expiringUnallocated) {
+        this.expiringUnallocated = expiringUnallocated;
+    }
+
+    public List<PlannedAllocation> getAllocations() {
+        return allocations;
+    }
+
+    public void setAllocations(List<PlannedAllocation> allocations) {
+        this.allocations = allocations;
+    }
+}
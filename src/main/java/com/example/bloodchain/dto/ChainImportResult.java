@@ -0,0 +1,56 @@
+package com.example.bloodchain.dto;
+
+/**
+ * DTO for the outcome of an audit chain archive import.
+ */
+public class ChainImportResult {
+    private long entriesRead;         // Records read and verified from the archive
+    private long entriesImported;     // Records inserted into the audit store
+    private long entriesSkipped;      // Records before the resume offset (verified only)
+    private long nextEntry;           // Chain position to resume from
+    private long durationMs;
+
+    // Constructors
+    public ChainImportResult() {}
+
+    // Getters and Setters
+    public long getEntriesRead() {
+        return entriesRead;
+    }
+
+    public void setEntriesRead(long entriesRead) {
+        this.entriesRead = entriesRead;
+    }
+
+    public long getEntriesImported() {
+        return entriesImported;
+    }
+
+    public void setEntriesImported(long entriesImported) {
+        this.entriesImported = entriesImported;
+    }
+
+    public long getEntriesSkipped() {
+        return entriesSkipped;
+    }
+
+    public void setEntriesSkipped(long entriesSkipped) {
+        this.entriesSkipped = entriesSkipped;
+    }
+
+    public long getNextEntry() {
+        return nextEntry;
+    }
+
+    public void setNextEntry(long nextEntry) {
+        this.nextEntry = nextEntry;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bloodchain.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for audit chain verification results.
+ */
+public class ChainVerificationResult {
+    private boolean valid;
+    private String message;
+    private long entriesChecked;      // Entries checked in this run
+    private long entriesVerified;     // Entries covered from genesis
+    private Long lastVerifiedLogId;
+    private Long lastVerifiedSeq;
+    private Long firstInvalidLogId;
+    private boolean incremental;
+    private long durationMs;
+    private LocalDateTime verifiedAt;  // Null until a verification has run
+
+    // Constructors
+    public ChainVerificationResult() {}
+
+    // Getters and Setters
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getEntriesChecked() {
+        return entriesChecked;
+    }
+
+    public void setEntriesChecked(long entriesChecked) {
+        this.entriesChecked = entriesChecked;
+    }
+
+    public long getEntriesVerified() {
+        return entriesVerified;
+    }
+
+    public void setEntriesVerified(long entriesVerified) {
+        this.entriesVerified = entriesVerified;
+    }
+
+    public Long getLastVerifiedLogId() {
+        return lastVerifiedLogId;
+    }
+
+    public void setLastVerifiedLogId(Long lastVerifiedLogId) {
+        this.lastVerifiedLogId = lastVerifiedLogId;
+    }
+
+    public Long getLastVerifiedSeq() {
+        return lastVerifiedSeq;
+    }
+
+    public void setLastVerifiedSeq(Long lastVerifiedSeq) {
+        this.lastVerifiedSeq = lastVerifiedSeq;
+    }
+
+    public Long getFirstInvalidLogId() {
+        return firstInvalidLogId;
+    }
+
+    public void setFirstInvalidLogId(Long firstInvalidLogId) {
+        this.firstInvalidLogId = firstInvalidLogId;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public LocalDateTime getVerifiedAt() {
+        return verifiedAt;
+    }
+
+    public void setVerifiedAt(LocalDateTime verifiedAt) {
+        this.verifiedAt = verifiedAt;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bloodchain.dto;
+
+import com.example.bloodchain.model.DonationRequestStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for one row of the blood bank's donation lists.
+ * Built directly by a JPQL constructor query, with the donor name and the
+ * collected unit's volume filled in by scalar subqueries.
+ */
+public class DonationListItem {
+    private Long requestId;
+    private String donorEmail;
+    private Integer bloodBankId;
+    private String donorName;
+    private String bloodGroup;
+    private LocalDate requestDate;
+    private DonationRequestStatus status;
+    private Integer volumeMl;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+
+    // Constructors
+    public DonationListItem() {}
+
+    public DonationListItem(Long requestId, String donorEmail, Integer bloodBankId, String donorName,
+                            String bloodGroup, LocalDate requestDate, DonationRequestStatus status,
+                            Integer volumeMl, LocalDate appointmentDate, LocalTime appointmentTime) {
+        this.requestId = requestId;
+        this.donorEmail = donorEmail;
+        this.bloodBankId = bloodBankId;
+        this.donorName = donorName;
+        this.bloodGroup = bloodGroup;
+        this.requestDate = requestDate;
+        this.status = status;
+        this.volumeMl = volumeMl;
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+    }
+
+    // Getters and Setters
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(Long requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getDonorEmail() {
+        return donorEmail;
+    }
+
+    public void setDonorEmail(String donorEmail) {
+        this.donorEmail = donorEmail;
+    }
+
+    public Integer getBloodBankId() {
+        return bloodBankId;
+    }
+
+    public void setBloodBankId(Integer bloodBankId) {
+        this.bloodBankId = bloodBankId;
+    }
+
+    public String getDonorName() {
+        return donorName;
+    }
+
+    public void setDonorName(String donorName) {
+        this.donorName = donorName;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = bloodGroup;
+    }
+
+    public LocalDate getRequestDate() {
+        return requestDate;
+    }
+
+    public void setRequestDate(LocalDate requestDate) {
+        this.requestDate = requestDate;
+    }
+
+    public DonationRequestStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DonationRequestStatus status) {
+        this.status = status;
+    }
+
+    public Integer getVolumeMl() {
+        return volumeMl;
+    }
+
+    public void setVolumeMl(Integer volumeMl) {
+        this.volumeMl = volumeMl;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public void setAppointmentDate(LocalDate appointmentDate) {
+        this.appointmentDate = appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public void setAppointmentTime(LocalTime appointmentTime) {
+        this.appointmentTime = appointmentTime;
+    }
+}
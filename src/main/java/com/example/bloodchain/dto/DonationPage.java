@@ -0,0 +1,47 @@
+package com.example.bloodchain.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a donation list.
+ * Pass nextCursor back to get the following page; it is null on the last page.
+ */
+public class DonationPage {
+    private List<DonationListItem> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public DonationPage() {}
+
+    public DonationPage(List<DonationListItem> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<DonationListItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DonationListItem> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bloodchain.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a Merkle inclusion proof of one audit log entry.
+ * Folding the entry hash with the path hashes must reproduce merkleRoot,
+ * and blockHash commits to merkleRoot and the previous block.
+ */
+public class InclusionProof {
+    private Long logId;
+    private String bloodUnitId;
+    private String action;
+    private Long chainSeq;
+    private String entryHash;
+    private int leafIndex;
+    private Long blockNumber;
+    private int blockSize;
+    private String merkleRoot;
+    private String previousBlockHash;
+    private String blockHash;
+    private List<Step> path = new ArrayList<>();
+    private boolean verified;
+
+    // Constructors
+    public InclusionProof() {}
+
+    // Getters and Setters
+    public Long getLogId() { return logId; }
+    public void setLogId(Long logId) { this.logId = logId; }
+
+    public String getBloodUnitId() { return bloodUnitId; }
+    public void setBloodUnitId(String bloodUnitId) { this.bloodUnitId = bloodUnitId; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public Long getChainSeq() { return chainSeq; }
+    public void setChainSeq(Long chainSeq) { this.chainSeq = chainSeq; }
+
+    public String getEntryHash() { return entryHash; }
+    public void setEntryHash(String entryHash) { this.entryHash = entryHash; }
+
+    public int getLeafIndex() { return leafIndex; }
+    public void setLeafIndex(int leafIndex) { this.leafIndex = leafIndex; }
+
+    public Long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(Long blockNumber) { this.blockNumber = blockNumber; }
+
+    public int getBlockSize() { return blockSize; }
+    public void setBlockSize(int blockSize) { this.blockSize = blockSize; }
+
+    public String getMerkleRoot() { return merkleRoot; }
+    public void setMerkleRoot(String merkleRoot) { this.merkleRoot = merkleRoot; }
+
+    public String getPreviousBlockHash() { return previousBlockHash; }
+    public void setPreviousBlockHash(String previousBlockHash) { this.previousBlockHash = previousBlockHash; }
+
+    public String getBlockHash() { return blockHash; }
+    public void setBlockHash(String blockHash) { this.blockHash = blockHash; }
+
+    public List<Step> getPath() { return path; }
+    public void setPath(List<Step> path) { this.path = path; }
+
+    public boolean isVerified() { return verified; }
+    public void setVerified(boolean verified) { this.verified = verified; }
+
+    /**
+     * One sibling hash on the way to the root; position says which side it sits on.
+     */
+    public static class Step {
+        private String hash;
+        private String position;  // LEFT or RIGHT
+
+        public Step() {}
+
+        public Step(String hash, String position) {
+            this.hash = hash;
+            this.position = position;
+        }
+
+        public String getHash() { return hash; }
+        public void setHash(String hash) { this.hash = hash; }
+
+        public String getPosition() { return position; }
+        public void setPosition(String position) { this.position = position; }
+    }
+}
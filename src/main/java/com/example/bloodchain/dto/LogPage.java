@@ -0,0 +1,49 @@
+package com.example.bloodchain.dto;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+
+import java.util.List;
+
+/**
+ * DTO for one page of audit log entries.
+ * Pass nextCursor back to get the following page; it is null on the last page.
+ */
+public class LogPage {
+    private List<BloodTrackingLog> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public LogPage() {}
+
+    public LogPage(List<BloodTrackingLog> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<BloodTrackingLog> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BloodTrackingLog> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
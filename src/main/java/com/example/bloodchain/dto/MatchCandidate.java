@@ -0,0 +1,78 @@
+package com.example.bloodchain.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for one component proposed by the compatibility matcher.
+ * Lower score is a better match.
+ */
+public class MatchCandidate {
+    private Long id;
+    private String componentId;
+    private String bloodGroup;
+    private LocalDate expiryDate;
+    private double score;
+    private boolean substitute;
+
+    // Constructors
+    public MatchCandidate() {}
+
+    public MatchCandidate(Long id, String componentId, String bloodGroup, LocalDate expiryDate,
+                          double score, boolean substitute) {
+        this.id = id;
+        this.componentId = componentId;
+        this.bloodGroup = bloodGroup;
+        this.expiryDate = expiryDate;
+        this.score = score;
+        this.substitute = substitute;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getComponentId() {
+        return componentId;
+    }
+
+    public void setComponentId(String componentId) {
+        this.componentId = componentId;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = bloodGroup;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public boolean isSubstitute() {
+        return substitute;
+    }
+
+    public void setSubstitute(boolean substitute) {
+        this.substitute = substitute;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bloodchain.dto;
+
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+import com.example.bloodchain.model.SubstitutionPolicy;
+
+import java.util.List;
+
+/**
+ * DTO for a dry run of request matching: what approval would reserve right now.
+ * Nothing is reserved; stock may change before the request is approved.
+ */
+public class MatchPreview {
+    private Long requestId;
+    private ComponentType componentType;
+    private String bloodGroup;
+    private int quantity;
+    private RequestUrgency urgency;
+    private SubstitutionPolicy policy;
+    private List<MatchCandidate> candidates;
+    private int shortfall;
+
+    // Constructors
+    public MatchPreview() {}
+
+    // Getters and Setters
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(Long requestId) {
+        this.requestId = requestId;
+    }
+
+    public ComponentType getComponentType() {
+        return componentType;
+    }
+
+    public void setComponentType(ComponentType componentType) {
+        this.componentType = componentType;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = bloodGroup;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public RequestUrgency getUrgency() {
+        return urgency;
+    }
+
+    public void setUrgency(RequestUrgency urgency) {
+        this.urgency = urgency;
+    }
+
+    public SubstitutionPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(SubstitutionPolicy policy) {
+        this.policy = policy;
+    }
+
+    public List<MatchCandidate> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<MatchCandidate> candidates) {
+        this.candidates = candidates;
+    }
+
+    public int getShortfall() {
+        return shortfall;
+    }
+
+    public void setShortfall(int shortfall) {
+        this.shortfall = shortfall;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bloodchain.dto;
+
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the components proposed for one pending request in an allocation plan.
+ */
+public class PlannedAllocation {
+    private Long requestId;
+    private String requestNumber;
+    private ComponentType componentType;
+    private String bloodGroup;
+    private RequestUrgency urgency;
+    private LocalDate requiredByDate;
+    private int quantity;
+    private List<MatchCandidate> components;
+    private int shortfall;
+
+    // Constructors
+    public PlannedAllocation() {}
+
+    // Getters and Setters
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(Long requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getRequestNumber() {
+        return requestNumber;
+    }
+
+    public void setRequestNumber(String requestNumber) {
+        this.requestNumber = requestNumber;
+    }
+
+    public ComponentType getComponentType() {
+        return componentType;
+    }
+
+    public void setComponentType(ComponentType componentType) {
+        this.componentType = componentType;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = bloodGroup;
+    }
+
+    public RequestUrgency getUrgency() {
+        return urgency;
+    }
+
+    public void setUrgency(RequestUrgency urgency) {
+        this.urgency = urgency;
+    }
+
+    public LocalDate getRequiredByDate() {
+        return requiredByDate;
+    }
+
+    public void setRequiredByDate(LocalDate requiredByDate) {
+        this.requiredByDate = requiredByDate;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public List<MatchCandidate> getComponents() {
+        return components;
+    }
+
+    public void setComponents(List<MatchCandidate> components) {
+        this.components = components;
+    }
+
+    public int getShortfall() {
+        return shortfall;
+    }
+
+    public void setShortfall(int shortfall) {
+        this.shortfall = shortfall;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A sealed block of consecutive audit log entries.
+ * Stores the Merkle root over the entry hashes and links to the previous
+ * block, so a single entry can be proven with O(log n) hashes instead of
+ * replaying the whole global chain.
+ */
+@Entity
+@Table(name = "audit_blocks")
+public class AuditBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "block_number", unique = true, nullable = false)
+    private Long blockNumber;
+
+    @Column(name = "first_seq", nullable = false)
+    private Long firstSeq;  // First blood_tracking_log.chain_seq covered
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;  // Last blood_tracking_log.chain_seq covered
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "merkle_root", nullable = false, length = 64)
+    private String merkleRoot;
+
+    @Column(name = "previous_block_hash", nullable = false, length = 64)
+    private String previousBlockHash;
+
+    @Column(name = "block_hash", nullable = false, length = 64)
+    private String blockHash;
+
+    @Column(name = "sealed_at", nullable = false)
+    private LocalDateTime sealedAt = LocalDateTime.now();
+
+    // Constructors
+    public AuditBlock() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public void setBlockNumber(Long blockNumber) {
+        this.blockNumber = blockNumber;
+    }
+
+    public Long getFirstSeq() {
+        return firstSeq;
+    }
+
+    public void setFirstSeq(Long firstSeq) {
+        this.firstSeq = firstSeq;
+    }
+
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(Long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public Integer getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(Integer entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public String getMerkleRoot() {
+        return merkleRoot;
+    }
+
+    public void setMerkleRoot(String merkleRoot) {
+        this.merkleRoot = merkleRoot;
+    }
+
+    public String getPreviousBlockHash() {
+        return previousBlockHash;
+    }
+
+    public void setPreviousBlockHash(String previousBlockHash) {
+        this.previousBlockHash = previousBlockHash;
+    }
+
+    public String getBlockHash() {
+        return blockHash;
+    }
+
+    public void setBlockHash(String blockHash) {
+        this.blockHash = blockHash;
+    }
+
+    public LocalDateTime getSealedAt() {
+        return sealedAt;
+    }
+
+    public void setSealedAt(LocalDateTime sealedAt) {
+        this.sealedAt = sealedAt;
+    }
+}
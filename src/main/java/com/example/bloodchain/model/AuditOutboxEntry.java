@@ -0,0 +1,126 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Audit event waiting to be hashed and appended to the chain.
+ * Written inside the business transaction when audit logging runs in outbox mode;
+ * the sequencer turns rows into blood_tracking_log entries in id order and deletes
+ * them in the same transaction.
+ */
+@Entity
+@Table(name = "audit_outbox")
+public class AuditOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "blood_unit_id", nullable = false, length = 50)
+    private String bloodUnitId;
+
+    @Column(nullable = false, length = 100)
+    private String action;
+
+    @Column(name = "performed_by", nullable = false)
+    private String performedBy;
+
+    @Column(name = "performed_by_role", nullable = false, length = 20)
+    private String performedByRole;
+
+    @Column(name = "previous_status", length = 50)
+    private String previousStatus;
+
+    @Column(name = "new_status", length = 50)
+    private String newStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String details;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;  // Event time, becomes the log entry timestamp
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    // Constructors
+    public AuditOutboxEntry() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public String getBloodUnitId() {
+        return bloodUnitId;
+    }
+
+    public void setBloodUnitId(String bloodUnitId) {
+        this.bloodUnitId = bloodUnitId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getPerformedBy() {
+        return performedBy;
+    }
+
+    public void setPerformedBy(String performedBy) {
+        this.performedBy = performedBy;
+    }
+
+    public String getPerformedByRole() {
+        return performedByRole;
+    }
+
+    public void setPerformedByRole(String performedByRole) {
+        this.performedByRole = performedByRole;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getNewStatus() {
+        return newStatus;
+    }
+
+    public void setNewStatus(String newStatus) {
+        this.newStatus = newStatus;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+}
@@ -10,11 +10,15 @@ import java.time.LocalDateTime;
  * Each component has its own expiry date and storage requirements.
  */
 @Entity
-@Table(name = "blood_components")
+@Table(name = "blood_components", indexes = {
+    @Index(name = "idx_component_expiry", columnList = "expiry_date, status")
+})
 public class BloodComponent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "blood_components_id")
+    @TableGenerator(name = "blood_components_id", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "blood_components.id", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 public class BloodRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "blood_requests_id")
+    @TableGenerator(name = "blood_requests_id", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "blood_requests.id", allocationSize = 50)
     private Long id;
 
     @Column(name = "request_number", unique = true, nullable = false, length = 50)
@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
  * Database triggers should prevent modification and deletion.
  */
 @Entity
-@Table(name = "blood_tracking_log")
+@Table(name = "blood_tracking_log", indexes = {
+    @Index(name = "idx_log_unit_time", columnList = "blood_unit_id, timestamp"),
+    @Index(name = "idx_log_user_time", columnList = "performed_by, timestamp"),
+    @Index(name = "idx_log_action_time", columnList = "action, timestamp"),
+    @Index(name = "idx_log_time", columnList = "timestamp")
+})
 public class BloodTrackingLog {
 
     @Id
@@ -50,6 +55,15 @@ public class BloodTrackingLog {
     @Column(name = "ip_address", length = 45)
     private String ipAddress;  // Optional: track IP for security
 
+    @Column(name = "chain_seq", unique = true)
+    private Long chainSeq;  // Position in the global chain (null for entries written before sequencing)
+
+    @Column(name = "link_scope", length = 10)
+    private String linkScope;  // null = linked on the global chain, "UNIT" = linked on its blood unit's sub-chain
+
+    @Column(name = "sequenced_at")
+    private LocalDateTime sequencedAt;  // When chainSeq was handed out (null for entries stored before this was recorded)
+
     // Constructors
     public BloodTrackingLog() {}
 
@@ -68,6 +82,11 @@ public class BloodTrackingLog {
         return id;
     }
 
+    // Only for restoring archived entries with their original id
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getBloodUnitId() {
         return bloodUnitId;
     }
@@ -155,4 +174,28 @@ public class BloodTrackingLog {
     public void setPreviousHash(String previousHash) {
         this.previousHash = previousHash;
     }
+
+    public Long getChainSeq() {
+        return chainSeq;
+    }
+
+    public void setChainSeq(Long chainSeq) {
+        this.chainSeq = chainSeq;
+    }
+
+    public String getLinkScope() {
+        return linkScope;
+    }
+
+    public void setLinkScope(String linkScope) {
+        this.linkScope = linkScope;
+    }
+
+    public LocalDateTime getSequencedAt() {
+        return sequencedAt;
+    }
+
+    public void setSequencedAt(LocalDateTime sequencedAt) {
+        this.sequencedAt = sequencedAt;
+    }
 }
@@ -10,11 +10,16 @@ import java.time.LocalDateTime;
  * Each blood unit has a unique ID that tracks it from donor to patient.
  */
 @Entity
-@Table(name = "blood_units")
+@Table(name = "blood_units", indexes = {
+    @Index(name = "idx_unit_expiry", columnList = "expiry_date, status"),
+    @Index(name = "idx_unit_donation_request", columnList = "donation_request_id")
+})
 public class BloodUnit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "blood_units_id")
+    @TableGenerator(name = "blood_units_id", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "blood_units.id", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -26,6 +31,9 @@ public class BloodUnit {
     @Column(name = "donation_request_id")
     private Long donationRequestId;  // Optional link to donation request
 
+    @Column(name = "blood_bank_id")
+    private Integer bloodBankId;  // Collecting blood bank (null for units created before banks were recorded)
+
     @Column(nullable = false, length = 5)
     private String bloodGroup;  // A+, B+, O+, AB+, A-, B-, O-, AB-
 
@@ -132,6 +140,14 @@ public class BloodUnit {
         this.donationRequestId = donationRequestId;
     }
 
+    public Integer getBloodBankId() {
+        return bloodBankId;
+    }
+
+    public void setBloodBankId(Integer bloodBankId) {
+        this.bloodBankId = bloodBankId;
+    }
+
     public String getBloodGroup() {
         return bloodGroup;
     }
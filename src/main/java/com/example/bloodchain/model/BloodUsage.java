@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 public class BloodUsage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "blood_usage_id")
+    @TableGenerator(name = "blood_usage_id", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "blood_usage.id", allocationSize = 50)
     private Long id;
 
     @Column(name = "blood_component_id", nullable = false)
@@ -0,0 +1,104 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic global commitment to the per-unit audit sub-chains.
+ * Each anchor hashes the latest head of every unit sub-chain that moved in its
+ * sequence window and links to the previous anchor, so rewriting any unit's
+ * history also means rewriting every anchor after it.
+ */
+@Entity
+@Table(name = "chain_anchors")
+public class ChainAnchor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "first_chain_seq", nullable = false)
+    private Long firstChainSeq;
+
+    @Column(name = "last_chain_seq", nullable = false, unique = true)
+    private Long lastChainSeq;  // Window covered by this anchor (inclusive)
+
+    @Column(name = "unit_count", nullable = false)
+    private Integer unitCount;  // Number of unit sub-chains whose head moved in the window
+
+    @Column(name = "heads_hash", nullable = false, length = 64)
+    private String headsHash;  // SHA-256 over the sorted unitId:headHash pairs
+
+    @Column(name = "previous_anchor_hash", nullable = false, length = 64)
+    private String previousAnchorHash;
+
+    @Column(name = "anchor_hash", nullable = false, length = 64)
+    private String anchorHash;
+
+    @Column(name = "anchored_at", nullable = false)
+    private LocalDateTime anchoredAt = LocalDateTime.now();
+
+    // Constructors
+    public ChainAnchor() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFirstChainSeq() {
+        return firstChainSeq;
+    }
+
+    public void setFirstChainSeq(Long firstChainSeq) {
+        this.firstChainSeq = firstChainSeq;
+    }
+
+    public Long getLastChainSeq() {
+        return lastChainSeq;
+    }
+
+    public void setLastChainSeq(Long lastChainSeq) {
+        this.lastChainSeq = lastChainSeq;
+    }
+
+    public Integer getUnitCount() {
+        return unitCount;
+    }
+
+    public void setUnitCount(Integer unitCount) {
+        this.unitCount = unitCount;
+    }
+
+    public String getHeadsHash() {
+        return headsHash;
+    }
+
+    public void setHeadsHash(String headsHash) {
+        this.headsHash = headsHash;
+    }
+
+    public String getPreviousAnchorHash() {
+        return previousAnchorHash;
+    }
+
+    public void setPreviousAnchorHash(String previousAnchorHash) {
+        this.previousAnchorHash = previousAnchorHash;
+    }
+
+    public String getAnchorHash() {
+        return anchorHash;
+    }
+
+    public void setAnchorHash(String anchorHash) {
+        this.anchorHash = anchorHash;
+    }
+
+    public LocalDateTime getAnchoredAt() {
+        return anchoredAt;
+    }
+
+    public void setAnchoredAt(LocalDateTime anchoredAt) {
+        this.anchoredAt = anchoredAt;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Signed record of how far the audit chain has been verified.
+ * Later verification runs start after the last checkpoint instead of
+ * replaying the whole blood_tracking_log table.
+ */
+@Entity
+@Table(name = "chain_checkpoints")
+public class ChainCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "last_log_id", nullable = false)
+    private Long lastLogId;  // Last verified blood_tracking_log.id
+
+    @Column(name = "last_chain_seq")
+    private Long lastChainSeq;  // Null while only pre-sequencing entries have been verified
+
+    @Column(name = "last_hash", nullable = false, length = 64)
+    private String lastHash;
+
+    @Column(name = "entries_verified", nullable = false)
+    private Long entriesVerified;  // Total entries covered from genesis up to this checkpoint
+
+    @Column(name = "verified_at", nullable = false)
+    private LocalDateTime verifiedAt = LocalDateTime.now();
+
+    @Column(nullable = false, length = 64)
+    private String signature;  // HMAC-SHA256 over the fields above
+
+    // Constructors
+    public ChainCheckpoint() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getLastLogId() {
+        return lastLogId;
+    }
+
+    public void setLastLogId(Long lastLogId) {
+        this.lastLogId = lastLogId;
+    }
+
+    public Long getLastChainSeq() {
+        return lastChainSeq;
+    }
+
+    public void setLastChainSeq(Long lastChainSeq) {
+        this.lastChainSeq = lastChainSeq;
+    }
+
+    public String getLastHash() {
+        return lastHash;
+    }
+
+    public void setLastHash(String lastHash) {
+        this.lastHash = lastHash;
+    }
+
+    public Long getEntriesVerified() {
+        return entriesVerified;
+    }
+
+    public void setEntriesVerified(Long entriesVerified) {
+        this.entriesVerified = entriesVerified;
+    }
+
+    public LocalDateTime getVerifiedAt() {
+        return verifiedAt;
+    }
+
+    public void setVerifiedAt(LocalDateTime verifiedAt) {
+        this.verifiedAt = verifiedAt;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "donations")
+@Table(name = "donations", indexes = {
+    @Index(name = "idx_donation_status", columnList = "status")
+})
 public class Donation {
 
     @Id
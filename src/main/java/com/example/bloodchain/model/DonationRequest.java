@@ -9,11 +9,15 @@ import java.time.LocalDateTime;
  * Implements the CollectWholeBloodUnit initiation from IEEE paper.
  */
 @Entity
-@Table(name = "donation_requests")
+@Table(name = "donation_requests", indexes = {
+    @Index(name = "idx_donation_request_list", columnList = "status, request_date, request_id")
+})
 public class DonationRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "donation_requests_id")
+    @TableGenerator(name = "donation_requests_id", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_value", pkColumnValue = "donation_requests.id", allocationSize = 50)
     @Column(name = "request_id")
     private Long requestId;
 
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "donors")
+@Table(name = "donors", indexes = {
+    @Index(name = "idx_donor_email", columnList = "email")
+})
 public class Donor {
 
     @Id
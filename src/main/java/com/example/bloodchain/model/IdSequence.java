@@ -0,0 +1,44 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Persistent high-water mark of one business ID sequence (e.g. "BU-2026").
+ * Nodes lease blocks of values from it and hand out IDs from memory.
+ */
+@Entity
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    @Column(name = "sequence_name", length = 50)
+    private String sequenceName;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;  // First value not yet leased to any node
+
+    // Constructors
+    public IdSequence() {}
+
+    public IdSequence(String sequenceName, Long nextValue) {
+        this.sequenceName = sequenceName;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public String getSequenceName() {
+        return sequenceName;
+    }
+
+    public void setSequenceName(String sequenceName) {
+        this.sequenceName = sequenceName;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bloodchain.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Materialized stock count: how many blood units or components of one
+ * (bank, component type, blood group, status) exist right now.
+ * Maintained in the same transaction as every status change by InventoryCounters,
+ * so dashboards read counts instead of counting rows.
+ */
+@Entity
+@Table(name = "inventory_counters", uniqueConstraints = {
+    // Leading columns match the dashboard reads (item + status, optionally one bank)
+    @UniqueConstraint(name = "uk_inventory_counter",
+        columnNames = {"item", "status", "bank_id", "component_type", "blood_group"})
+})
+public class InventoryCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String item;  // UNIT or COMPONENT
+
+    @Column(nullable = false, length = 20)
+    private String status;  // BloodUnitStatus or ComponentStatus name
+
+    @Column(name = "bank_id", nullable = false)
+    private Integer bankId;  // 0 when the unit has no recorded blood bank
+
+    @Column(name = "component_type", nullable = false, length = 20)
+    private String componentType;  // Component type, or the donation type for units
+
+    @Column(name = "blood_group", nullable = false, length = 5)
+    private String bloodGroup;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    // Constructors
+    public InventoryCounter() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getItem() {
+        return item;
+    }
+
+    public void setItem(String item) {
+        this.item = item;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getBankId() {
+        return bankId;
+    }
+
+    public void setBankId(Integer bankId) {
+        this.bankId = bankId;
+    }
+
+    public String getComponentType() {
+        return componentType;
+    }
+
+    public void setComponentType(String componentType) {
+        this.componentType = componentType;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+
+    public void setBloodGroup(String bloodGroup) {
+        this.bloodGroup = bloodGroup;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bloodchain.model;
+
+/**
+ * Enum representing how far request matching may deviate from the requested blood group.
+ * Configured per RequestUrgency (bloodchain.matching.policy.*).
+ */
+public enum SubstitutionPolicy {
+    EXACT_ONLY,             // Only the requested blood group
+    COMPATIBLE_IF_SHORT,    // Requested group first, compatible groups only to cover a shortfall
+    COMPATIBLE              // Best scored compatible component, whatever its group
+}
@@ -0,0 +1,24 @@
+package com.example.bloodchain.repository;
+
+import com.example.bloodchain.model.AuditBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for AuditBlock entity.
+ */
+@Repository
+public interface AuditBlockRepository extends JpaRepository<AuditBlock, Long> {
+
+    /**
+     * Find the most recently sealed block.
+     */
+    AuditBlock findTopByOrderByBlockNumberDesc();
+
+    /**
+     * Find the block covering a chain sequence number.
+     */
+    Optional<AuditBlock> findByFirstSeqLessThanEqualAndLastSeqGreaterThanEqual(Long seq, Long sameSeq);
+}
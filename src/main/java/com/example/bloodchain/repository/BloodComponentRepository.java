@@ -76,6 +76,19 @@ public interface BloodComponentRepository extends JpaRepository<BloodComponent,
         @Param("today") LocalDate today
     );
 
+    /**
+     * Count components in a status per type and blood group, for one bank or all (bankId null).
+     * Each row is [componentType, bloodGroup, count].
+     */
+    @Query("SELECT bc.componentType, bu.bloodGroup, COUNT(bc) FROM BloodComponent bc, BloodUnit bu " +
+           "WHERE bc.bloodUnitId = bu.id " +
+           "AND bc.status = :status " +
+           "AND (:bankId IS NULL OR bu.bloodBankId = :bankId) " +
+           "GROUP BY bc.componentType, bu.bloodGroup")
+    List<Object[]> countByTypeAndBloodGroup(
+        @Param("status") ComponentStatus status,
+        @Param("bankId") Integer bankId
+    );
 
     /**
      * Count components received by a specific hospital, grouped by blood group.
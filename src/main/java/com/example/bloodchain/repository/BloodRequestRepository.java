@@ -2,7 +2,11 @@ package com.example.bloodchain.repository;
 
 import com.example.bloodchain.model.BloodRequest;
 import com.example.bloodchain.model.BloodRequestStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +18,13 @@ import java.util.Optional;
 @Repository
 public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long> {
 
+    /**
+     * Load a request with a write lock, so one request is approved only once.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM BloodRequest r WHERE r.id = :id")
+    Optional<BloodRequest> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Find blood request by unique request number.
      */
@@ -1,7 +1,10 @@
 package com.example.bloodchain.repository;
 
 import com.example.bloodchain.model.BloodTrackingLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,6 +14,10 @@ import java.util.List;
  * Repository for BloodTrackingLog entity.
  * CRITICAL: This repository should ONLY support INSERT operations.
  * No UPDATE or DELETE operations should be performed on audit logs.
+ *
+ * Paged finders use keyset pagination on (timestamp, id): the first page has no
+ * cursor, later pages continue strictly after the last row of the previous page.
+ * The redundant timestamp bound lets MySQL use the (column, timestamp) index as a range.
  */
 @Repository
 public interface BloodTrackingLogRepository extends JpaRepository<BloodTrackingLog, Long> {
@@ -22,26 +29,75 @@ public interface BloodTrackingLogRepository extends JpaRepository<BloodTrackingL
     List<BloodTrackingLog> findByBloodUnitIdOrderByTimestampAsc(String bloodUnitId);
 
     /**
-     * Find all actions performed by a specific user.
+     * Page through a blood unit's audit trail (oldest first).
      */
-    List<BloodTrackingLog> findByPerformedByOrderByTimestampDesc(String performedBy);
+    List<BloodTrackingLog> findByBloodUnitIdOrderByTimestampAscIdAsc(String bloodUnitId, Limit limit);
+
+    @Query("SELECT l FROM BloodTrackingLog l WHERE l.bloodUnitId = :bloodUnitId " +
+           "AND l.timestamp >= :timestamp AND (l.timestamp > :timestamp OR l.id > :id) " +
+           "ORDER BY l.timestamp ASC, l.id ASC")
+    List<BloodTrackingLog> findByBloodUnitIdAfter(@Param("bloodUnitId") String bloodUnitId,
+                                                  @Param("timestamp") LocalDateTime timestamp,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
 
     /**
-     * Find all logs for a specific action type.
+     * Page through actions performed by a specific user (newest first).
      */
-    List<BloodTrackingLog> findByActionOrderByTimestampDesc(String action);
+    List<BloodTrackingLog> findByPerformedByOrderByTimestampDescIdDesc(String performedBy, Limit limit);
+
+    @Query("SELECT l FROM BloodTrackingLog l WHERE l.performedBy = :performedBy " +
+           "AND l.timestamp <= :timestamp AND (l.timestamp < :timestamp OR l.id < :id) " +
+           "ORDER BY l.timestamp DESC, l.id DESC")
+    List<BloodTrackingLog> findByPerformedByBefore(@Param("performedBy") String performedBy,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
 
     /**
-     * Find logs within a date range.
+     * Page through logs for a specific action type (newest first).
      */
-    List<BloodTrackingLog> findByTimestampBetweenOrderByTimestampDesc(
+    List<BloodTrackingLog> findByActionOrderByTimestampDescIdDesc(String action, Limit limit);
+
+    @Query("SELECT l FROM BloodTrackingLog l WHERE l.action = :action " +
+           "AND l.timestamp <= :timestamp AND (l.timestamp < :timestamp OR l.id < :id) " +
+           "ORDER BY l.timestamp DESC, l.id DESC")
+    List<BloodTrackingLog> findByActionBefore(@Param("action") String action,
+                                              @Param("timestamp") LocalDateTime timestamp,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    /**
+     * Page through logs within a date range (newest first).
+     */
+    List<BloodTrackingLog> findByTimestampBetweenOrderByTimestampDescIdDesc(
         LocalDateTime startDate,
-        LocalDateTime endDate
+        LocalDateTime endDate,
+        Limit limit
     );
 
+    @Query("SELECT l FROM BloodTrackingLog l WHERE l.timestamp >= :startDate " +
+           "AND l.timestamp <= :timestamp AND (l.timestamp < :timestamp OR l.id < :id) " +
+           "ORDER BY l.timestamp DESC, l.id DESC")
+    List<BloodTrackingLog> findByTimestampRangeBefore(@Param("startDate") LocalDateTime startDate,
+                                                      @Param("timestamp") LocalDateTime timestamp,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
+
     // Get latest log for chain linking
     BloodTrackingLog findTopByOrderByTimestampDesc();
 
+    // Get log with the highest chain position
+    BloodTrackingLog findTopByChainSeqNotNullOrderByChainSeqDesc();
+
+    // Get last log written before sequencing (head of the legacy chain prefix)
+    BloodTrackingLog findTopByChainSeqIsNullOrderByIdDesc();
+
+    // Get latest sequenced log on the global chain (per-unit linked entries are skipped)
+    @Query("SELECT l FROM BloodTrackingLog l WHERE l.chainSeq IS NOT NULL AND l.linkScope IS NULL " +
+           "ORDER BY l.chainSeq DESC LIMIT 1")
+    BloodTrackingLog findLatestGlobalEntry();
+
     // Get latest log for specific unit (for current hash)
     BloodTrackingLog findTopByBloodUnitIdOrderByTimestampDesc(String bloodUnitId);
 
@@ -49,4 +105,9 @@ public interface BloodTrackingLogRepository extends JpaRepository<BloodTrackingL
      * Find recent logs (for admin dashboard).
      */
     List<BloodTrackingLog> findTop100ByOrderByTimestampDesc();
+
+    /**
+     * Find the latest entries by insertion order (for dashboard widgets).
+     */
+    List<BloodTrackingLog> findTop5ByOrderByIdDesc();
 }
@@ -3,6 +3,8 @@ package com.example.bloodchain.repository;
 import com.example.bloodchain.model.BloodUnit;
 import com.example.bloodchain.model.BloodUnitStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -49,6 +51,24 @@ public interface BloodUnitRepository extends JpaRepository<BloodUnit, Long> {
      */
     long countByStatus(BloodUnitStatus status);
 
+    /**
+     * Count blood units in a status expiring strictly between two dates.
+     */
+    long countByStatusAndExpiryDateAfterAndExpiryDateBefore(BloodUnitStatus status, LocalDate after, LocalDate before);
+
+    /**
+     * Count blood units in a status per blood group, for one bank or all (bankId null).
+     * Each row is [bloodGroup, count].
+     */
+    @Query("SELECT bu.bloodGroup, COUNT(bu) FROM BloodUnit bu " +
+           "WHERE bu.status = :status " +
+           "AND (:bankId IS NULL OR bu.bloodBankId = :bankId) " +
+           "GROUP BY bu.bloodGroup")
+    List<Object[]> countByBloodGroup(
+        @Param("status") BloodUnitStatus status,
+        @Param("bankId") Integer bankId
+    );
+
     /**
      * Check if blood unit ID already exists.
      */
@@ -0,0 +1,17 @@
+package com.example.bloodchain.repository;
+
+import com.example.bloodchain.model.ChainAnchor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for ChainAnchor entity.
+ */
+@Repository
+public interface ChainAnchorRepository extends JpaRepository<ChainAnchor, Long> {
+
+    /**
+     * Find the most recent anchor.
+     */
+    ChainAnchor findTopByOrderByLastChainSeqDesc();
+}
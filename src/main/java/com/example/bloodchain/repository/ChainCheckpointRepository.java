@@ -0,0 +1,17 @@
+package com.example.bloodchain.repository;
+
+import com.example.bloodchain.model.ChainCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for ChainCheckpoint entity.
+ */
+@Repository
+public interface ChainCheckpointRepository extends JpaRepository<ChainCheckpoint, Long> {
+
+    /**
+     * Find the most recent checkpoint.
+     */
+    ChainCheckpoint findTopByOrderByIdDesc();
+}
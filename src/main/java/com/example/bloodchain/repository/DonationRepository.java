@@ -1,7 +1,11 @@
 package com.example.bloodchain.repository;
 
+import com.example.bloodchain.dto.DonationDTO;
 import com.example.bloodchain.model.Donation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +15,20 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
     List<Donation> findByStatus(String status);
     List<Donation> findByEmail(String email);
     List<Donation> findByEmailOrderByDonationDateDesc(String email);
+
+    // DonationDTO rows with the donor's name and blood group joined from users in the same statement
+    // ('Unknown' only when there is no such user; a user's own null fields stay null)
+    String DTO =
+        "SELECT new com.example.bloodchain.dto.DonationDTO(d.id, " +
+        "CASE WHEN u.email IS NULL THEN 'Unknown' ELSE u.name END, " +
+        "CASE WHEN u.email IS NULL THEN 'Unknown' ELSE u.bloodGroup END, " +
+        "d.units, d.donationDate, d.location, d.status, d.blockHash) " +
+        "FROM Donation d LEFT JOIN User u ON u.email = d.email ";
+
+    @Query(DTO + "WHERE d.status = :status ORDER BY d.id ASC")
+    List<DonationDTO> findDTOByStatus(@Param("status") String status);
+
+    // Keyset page in id order: rows strictly after afterId (0 for the first page)
+    @Query(DTO + "WHERE d.id > :afterId ORDER BY d.id ASC")
+    List<DonationDTO> findDTOAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -1,20 +1,39 @@
 package com.example.bloodchain.repository;
 
+import com.example.bloodchain.dto.DonationListItem;
 import com.example.bloodchain.model.DonationRequest;
 import com.example.bloodchain.model.DonationRequestStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository for DonationRequest entity.
+ *
+ * The list queries return DonationListItem rows with the donor name and unit volume
+ * joined in by scalar subqueries, so a dashboard list is one round trip. They use
+ * keyset pagination on (requestDate, requestId): the first page has no cursor, later
+ * pages continue strictly after the last row of the previous page. Callers pass a
+ * single status so the (status, request_date, request_id) index serves the order;
+ * an IN list of several statuses would need a sort.
  */
 @Repository
 public interface DonationRequestRepository extends JpaRepository<DonationRequest, Long> {
 
+    String LIST_ITEM =
+        "SELECT new com.example.bloodchain.dto.DonationListItem(dr.requestId, dr.donorEmail, dr.bloodBankId, " +
+        "(SELECT MIN(d.name) FROM Donor d WHERE d.email = dr.donorEmail), " +
+        "dr.bloodGroup, dr.requestDate, dr.status, " +
+        "(SELECT MAX(u.volumeMl) FROM BloodUnit u WHERE u.donationRequestId = dr.requestId), " +
+        "dr.appointmentDate, dr.appointmentTime) " +
+        "FROM DonationRequest dr WHERE dr.status IN :statuses ";
+
     /**
      * Find all donation requests by donor email.
      */
@@ -54,5 +73,34 @@ public interface DonationRequestRepository extends JpaRepository<DonationRequest
            "WHERE dr.donorEmail = :email " +
            "AND dr.status IN ('PENDING', 'APPROVED', 'SCHEDULED')")
     long countActiveRequests(@Param("email") String email);
-}
 
+    /**
+     * Page through donation list rows in the given statuses (oldest first).
+     */
+    @Query(LIST_ITEM + "ORDER BY dr.requestDate ASC, dr.requestId ASC")
+    List<DonationListItem> findListItems(@Param("statuses") Collection<DonationRequestStatus> statuses,
+                                         Limit limit);
+
+    @Query(LIST_ITEM + "AND dr.requestDate >= :requestDate " +
+           "AND (dr.requestDate > :requestDate OR dr.requestId > :requestId) " +
+           "ORDER BY dr.requestDate ASC, dr.requestId ASC")
+    List<DonationListItem> findListItemsAfter(@Param("statuses") Collection<DonationRequestStatus> statuses,
+                                              @Param("requestDate") LocalDate requestDate,
+                                              @Param("requestId") Long requestId,
+                                              Limit limit);
+
+    /**
+     * Page through donation list rows in the given statuses (newest first).
+     */
+    @Query(LIST_ITEM + "ORDER BY dr.requestDate DESC, dr.requestId DESC")
+    List<DonationListItem> findListItemsNewestFirst(@Param("statuses") Collection<DonationRequestStatus> statuses,
+                                                    Limit limit);
+
+    @Query(LIST_ITEM + "AND dr.requestDate <= :requestDate " +
+           "AND (dr.requestDate < :requestDate OR dr.requestId < :requestId) " +
+           "ORDER BY dr.requestDate DESC, dr.requestId DESC")
+    List<DonationListItem> findListItemsBefore(@Param("statuses") Collection<DonationRequestStatus> statuses,
+                                               @Param("requestDate") LocalDate requestDate,
+                                               @Param("requestId") Long requestId,
+                                               Limit limit);
+}
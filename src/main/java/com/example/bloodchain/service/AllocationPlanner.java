@@ -0,0 +1,403 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.AllocationPlan;
+import com.example.bloodchain.dto.MatchCandidate;
+import com.example.bloodchain.dto.PlannedAllocation;
+import com.example.bloodchain.model.BloodComponent;
+import com.example.bloodchain.model.BloodRequest;
+import com.example.bloodchain.model.BloodRequestStatus;
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+import com.example.bloodchain.model.SubstitutionPolicy;
+import com.example.bloodchain.repository.BloodComponentRepository;
+import com.example.bloodchain.repository.BloodRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Plans the allocation of current stock across every pending (REQUESTED) request at once.
+ *
+ * Staff approving requests one at a time take the best component for each request in
+ * turn, which can spend the only compatible units of a rare group on a request that
+ * had alternatives, or leave short-lived platelets to expire. The planner solves the
+ * whole queue together with a regret heuristic for the assignment problem:
+ *
+ * - Stock is one bucket per (component type, blood group), sorted by expiry, with a
+ *   union-find "next free" pointer so the earliest component still valid on a
+ *   request's requiredByDate is found in near O(log n).
+ * - Requests are served in urgency order (EMERGENCY first), then by requiredByDate.
+ *   Within that, the request with the largest regret (extra cost of its second-best
+ *   option over its best) is served first, so requests with few options are not
+ *   starved by requests that could have gone elsewhere.
+ * - Each unit goes to the cheapest compatible bucket under the request's substitution
+ *   policy, costed with the same score as CompatibilityMatcher (substitution, expiry,
+ *   scarcity) but against the plan's own shrinking stock.
+ *
+ * Regrets are re-evaluated lazily when a request reaches the head of the queue, so
+ * a plan costs O(units x groups x log requests). The result is a proposal only.
+ */
+@Service
+public class AllocationPlanner {
+
+    // Regret of a request with only one usable bucket: it has no alternative, serve it early
+    private static final double NO_ALTERNATIVE_REGRET = 50.0;
+
+    // Leftover stock expiring within this many days is reported as likely waste
+    private static final int WASTE_WINDOW_DAYS = 2;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private BloodComponentRepository componentRepository;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private CompatibilityMatcher matcher;
+
+    /**
+     * Propose components for all pending requests from current stock.
+     */
+    public AllocationPlan plan() {
+        if (!inventoryIndex.isReady()) {
+            throw new IllegalStateException("Inventory index is still loading, try again shortly");
+        }
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        long todayDay = today.toEpochDay();
+
+        // Supply: one expiry-sorted bucket per (type, group)
+        ComponentType[] types = ComponentType.values();
+        Bucket[][] buckets = new Bucket[types.length][BloodCompatibility.GROUPS];
+        int componentCount = 0;
+        for (ComponentType type : types) {
+            for (int group = 0; group < BloodCompatibility.GROUPS; group++) {
+                String name = BloodCompatibility.name(group);
+                Bucket bucket = new Bucket(group,
+                    inventoryIndex.firstToExpireWithDates(type, name, inventoryIndex.count(type, name)));
+                buckets[type.ordinal()][group] = bucket;
+                componentCount += bucket.size();
+            }
+        }
+
+        // Demand: one entry per pending request
+        List<BloodRequest> pending = bloodRequestRepository.findByStatusOrderByRequestDateDesc(BloodRequestStatus.REQUESTED);
+        List<Demand> demands = new ArrayList<>(pending.size());
+        for (BloodRequest request : pending) {
+            demands.add(new Demand(request, today));
+        }
+        demands.sort(Comparator.comparingInt(Demand::urgencyRank).reversed()
+            .thenComparingLong(Demand::deadlineDay)
+            .thenComparing(demand -> demand.request.getRequestDate(), Comparator.nullsLast(Comparator.naturalOrder())));
+        for (int i = 0; i < demands.size(); i++) {
+            demands.get(i).sequence = i;
+        }
+
+        PriorityQueue<Turn> queue = new PriorityQueue<>(Comparator
+            .comparingInt((Turn turn) -> turn.demand.urgencyRank()).reversed()
+            .thenComparingLong(turn -> turn.demand.deadlineDay())
+            .thenComparing(Comparator.comparingDouble((Turn turn) -> turn.regret).reversed())
+            .thenComparingInt(turn -> turn.demand.sequence));
+        for (Demand demand : demands) {
+            Option option = evaluate(demand, buckets, todayDay);
+            if (option != null) {
+                queue.add(new Turn(demand, option.regret));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            Turn turn = queue.poll();
+            Demand demand = turn.demand;
+            Option option = evaluate(demand, buckets, todayDay);
+            if (option == null) {
+                continue;  // nothing compatible left; rest is shortfall
+            }
+            if (Math.abs(option.regret - turn.regret) > 1e-9) {
+                queue.add(new Turn(demand, option.regret));  // stock moved since it was queued
+                continue;
+            }
+
+            Bucket bucket = option.bucket;
+            demand.assigned.add(new Assignment(bucket.ids[option.index], bucket.group, bucket.days[option.index], option.cost));
+            bucket.take(option.index);
+            if (demand.assigned.size() < demand.quantity) {
+                Option next = evaluate(demand, buckets, todayDay);
+                if (next != null) {
+                    queue.add(new Turn(demand, next.regret));
+                }
+            }
+        }
+
+        AllocationPlan plan = toPlan(demands, buckets, todayDay);
+        plan.setComponentCount(componentCount);
+        plan.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        System.out.println("📋 Allocation plan: " + plan.getAllocatedUnits() + " units for " + plan.getRequestCount() +
+            " requests, shortfall " + plan.getShortfallUnits() + " (" + plan.getElapsedMs() + " ms)");
+        return plan;
+    }
+
+    /**
+     * Cheapest usable bucket for the demand's next unit, with its regret; null if none.
+     */
+    private Option evaluate(Demand demand, Bucket[][] buckets, long todayDay) {
+        if (demand.recipient < 0 || demand.assigned.size() >= demand.quantity) {
+            return null;
+        }
+        Bucket[] byGroup = buckets[demand.type.ordinal()];
+
+        // Under COMPATIBLE_IF_SHORT the requested group is used while it lasts
+        if (demand.policy == SubstitutionPolicy.COMPATIBLE_IF_SHORT) {
+            Bucket exact = byGroup[demand.recipient];
+            int index = exact.firstValidFrom(demand.minDay);
+            if (index >= 0) {
+                return new Option(exact, index, 0, NO_ALTERNATIVE_REGRET);
+            }
+        }
+
+        int maxStock = 1;
+        for (int donor = 0; donor < BloodCompatibility.GROUPS; donor++) {
+            if ((demand.donorMask & (1 << donor)) != 0) {
+                maxStock = Math.max(maxStock, byGroup[donor].remaining);
+            }
+        }
+
+        Bucket best = null;
+        int bestIndex = -1;
+        double bestCost = Double.MAX_VALUE;
+        double secondCost = Double.MAX_VALUE;
+        for (int donor = 0; donor < BloodCompatibility.GROUPS; donor++) {
+            if ((demand.donorMask & (1 << donor)) == 0) {
+                continue;
+            }
+            Bucket bucket = byGroup[donor];
+            int index = bucket.firstValidFrom(demand.minDay);
+            if (index < 0) {
+                continue;
+            }
+            double cost = matcher.score(demand.type, donor, demand.recipient,
+                bucket.days[index] - todayDay, bucket.remaining, maxStock);
+            if (cost < bestCost) {
+                secondCost = bestCost;
+                bestCost = cost;
+                best = bucket;
+                bestIndex = index;
+            } else if (cost < secondCost) {
+                secondCost = cost;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        double regret = secondCost == Double.MAX_VALUE ? NO_ALTERNATIVE_REGRET : secondCost - bestCost;
+        return new Option(best, bestIndex, bestCost, regret);
+    }
+
+    private AllocationPlan toPlan(List<Demand> demands, Bucket[][] buckets, long todayDay) {
+        List<Long> assignedIds = new ArrayList<>();
+        for (Demand demand : demands) {
+            for (Assignment assignment : demand.assigned) {
+                assignedIds.add(assignment.componentId());
+            }
+        }
+        Map<Long, String> componentCodes = new HashMap<>();
+        for (int from = 0; from < assignedIds.size(); from += 1000) {
+            for (BloodComponent component : componentRepository.findAllById(
+                    assignedIds.subList(from, Math.min(assignedIds.size(), from + 1000)))) {
+                componentCodes.put(component.getId(), component.getComponentId());
+            }
+        }
+
+        List<PlannedAllocation> allocations = new ArrayList<>(demands.size());
+        int allocated = 0;
+        int shortfall = 0;
+        int substitutions = 0;
+        for (Demand demand : demands) {
+            List<MatchCandidate> components = new ArrayList<>(demand.assigned.size());
+            for (Assignment assignment : demand.assigned) {
+                boolean substitute = assignment.group() != demand.recipient;
+                components.add(new MatchCandidate(assignment.componentId(), componentCodes.get(assignment.componentId()),
+                    BloodCompatibility.name(assignment.group()), LocalDate.ofEpochDay(assignment.day()),
+                    assignment.cost(), substitute));
+                if (substitute) {
+                    substitutions++;
+                }
+            }
+
+            BloodRequest request = demand.request;
+            PlannedAllocation allocation = new PlannedAllocation();
+            allocation.setRequestId(request.getId());
+            allocation.setRequestNumber(request.getRequestNumber());
+            allocation.setComponentType(demand.type);
+            allocation.setBloodGroup(request.getBloodGroup());
+            allocation.setUrgency(request.getUrgency());
+            allocation.setRequiredByDate(request.getRequiredByDate());
+            allocation.setQuantity(demand.quantity);
+            allocation.setComponents(components);
+            allocation.setShortfall(demand.quantity - components.size());
+            allocations.add(allocation);
+
+            allocated += components.size();
+            shortfall += demand.quantity - components.size();
+        }
+
+        int expiring = 0;
+        long wasteLimit = todayDay + WASTE_WINDOW_DAYS;
+        for (Bucket[] byGroup : buckets) {
+            for (Bucket bucket : byGroup) {
+                expiring += bucket.countFreeThrough(todayDay + 1, wasteLimit);
+            }
+        }
+
+        AllocationPlan plan = new AllocationPlan();
+        plan.setGeneratedAt(LocalDateTime.now());
+        plan.setRequestCount(demands.size());
+        plan.setAllocatedUnits(allocated);
+        plan.setShortfallUnits(shortfall);
+        plan.setSubstitutions(substitutions);
+        plan.setExpiringUnallocated(expiring);
+        plan.setAllocations(allocations);
+        return plan;
+    }
+
+    /**
+     * A pending request and the units assigned to it so far.
+     */
+    private final class Demand {
+        private final BloodRequest request;
+        private final ComponentType type;
+        private final int recipient;
+        private final int quantity;
+        private final SubstitutionPolicy policy;
+        private final int donorMask;
+        private final long minDay;   // a component must still be valid on this day
+        private final List<Assignment> assigned = new ArrayList<>();
+        private int sequence;
+
+        private Demand(BloodRequest request, LocalDate today) {
+            this.request = request;
+            this.type = request.getComponentType() != null ? request.getComponentType() : ComponentType.WHOLE_BLOOD;
+            this.recipient = BloodCompatibility.index(request.getBloodGroup());
+            this.quantity = request.getQuantity() != null ? request.getQuantity() : 1;
+            this.policy = matcher.policyFor(request.getUrgency());
+            if (recipient < 0) {
+                this.donorMask = 0;
+            } else if (policy == SubstitutionPolicy.EXACT_ONLY) {
+                this.donorMask = 1 << recipient;
+            } else {
+                this.donorMask = BloodCompatibility.donorMask(type, recipient);
+            }
+            LocalDate validOn = today.plusDays(1);
+            if (request.getRequiredByDate() != null && request.getRequiredByDate().isAfter(validOn)) {
+                validOn = request.getRequiredByDate();
+            }
+            this.minDay = validOn.toEpochDay();
+        }
+
+        private int urgencyRank() {
+            RequestUrgency urgency = request.getUrgency();
+            return urgency != null ? urgency.ordinal() : 0;
+        }
+
+        private long deadlineDay() {
+            return request.getRequiredByDate() != null ? request.getRequiredByDate().toEpochDay() : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Available components of one (type, group), sorted by expiry day.
+     * next[i] points towards the first untaken slot at or after i (union-find with path halving).
+     */
+    private static final class Bucket {
+        private final int group;
+        private final long[] ids;
+        private final long[] days;
+        private final int[] next;
+        private int remaining;
+
+        private Bucket(int group, List<InventoryIndex.Available> available) {
+            this.group = group;
+            int size = available.size();
+            this.ids = new long[size];
+            this.days = new long[size];
+            this.next = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                ids[i] = available.get(i).id();
+                days[i] = available.get(i).expiryDate().toEpochDay();
+                next[i] = i;
+            }
+            next[size] = size;
+            this.remaining = size;
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        /**
+         * Earliest untaken component expiring on or after minDay, or -1.
+         */
+        private int firstValidFrom(long minDay) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int index = find(lowerBound(minDay));
+            return index < ids.length ? index : -1;
+        }
+
+        private void take(int index) {
+            next[index] = index + 1;
+            remaining--;
+        }
+
+        /**
+         * Untaken components expiring between fromDay and throughDay, inclusive.
+         */
+        private int countFreeThrough(long fromDay, long throughDay) {
+            int count = 0;
+            for (int index = find(lowerBound(fromDay)); index < ids.length && days[index] <= throughDay;
+                 index = find(index + 1)) {
+                count++;
+            }
+            return count;
+        }
+
+        private int find(int index) {
+            while (next[index] != index) {
+                next[index] = next[next[index]];
+                index = next[index];
+            }
+            return index;
+        }
+
+        private int lowerBound(long day) {
+            int low = 0;
+            int high = days.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (days[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record Option(Bucket bucket, int index, double cost, double regret) {}
+
+    private record Turn(Demand demand, double regret) {}
+
+    private record Assignment(long componentId, int group, long day, double cost) {}
+}
@@ -0,0 +1,311 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory head of the audit chain.
+ * Holds the hash of the last global chain entry and the last sequence number
+ * handed out, so that linking a new log entry costs no database read.
+ *
+ * Global entries are linked at commit time, not when they are logged: the committing
+ * transaction takes the chain lock, assigns sequence numbers and previous hashes
+ * to its entries, and keeps the lock until it has completed. Entries therefore
+ * commit in sequence order with no gaps, no two entries link to the same
+ * predecessor, and a rollback only ever has to undo the newest links (its own).
+ *
+ * Entries on per-unit sub-chains (chain-mode=unit) never take the chain lock. Their
+ * transaction locks only the blood units it logs (UnitChainHeads) until it completes
+ * and draws sequence numbers from a shared counter, so commits on different units
+ * run in parallel. In exchange, unit entries may commit out of sequence order, and a
+ * rolled-back commit leaves its numbers unused unless none were handed out after them.
+ * Global order across units comes from the anchors (ChainAnchorService).
+ */
+@Component
+public class AuditChainHead {
+
+    static final String GENESIS_HASH = "0";
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private UnitChainHeads unitChainHeads;
+
+    // How long a commit waits for the one ahead of it before giving up (and rolling back)
+    @Value("${bloodchain.audit.commit-lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    // Taking unit sequence numbers and writing them, for stores that must receive entries in sequence order
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final AtomicLong lastSeq = new AtomicLong(-1);
+
+    // Written under commitLock; volatile so current() can read it without the lock
+    private volatile String headHash = GENESIS_HASH;
+
+    /**
+     * Load the current head from the audit store.
+     * Only used at startup and after an archive import, never while linking.
+     * Entries written before sequencing was introduced count as the chain prefix.
+     * Entries linked on a per-unit sub-chain take a sequence number but are not
+     * part of the global hash links.
+     */
+    @PostConstruct
+    public void reload() {
+        commitLock.lock();
+        try {
+            BloodTrackingLog last = logStore.findTopByChainSeqNotNullOrderByChainSeqDesc();
+            long seq = last != null ? last.getChainSeq() : logStore.count() - 1;
+
+            BloodTrackingLog lastGlobal = logStore.findLatestGlobalEntry();
+            if (lastGlobal == null) {
+                lastGlobal = logStore.findTopByChainSeqIsNullOrderByIdDesc();
+            }
+            lastSeq.set(seq);
+            headHash = lastGlobal != null ? hashOf(lastGlobal) : GENESIS_HASH;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Link entries of the current transaction, in order, and write them.
+     * Sets chainSeq, previousHash and hash on every entry; entries marked with the
+     * unit link scope are linked to their blood unit's sub-chain instead.
+     * The chain (or, for unit entries, each of their blood units) stays locked until
+     * the transaction completes; on rollback the heads step back to where this
+     * transaction found them.
+     *
+     * @param logs Entries to link (all hashed fields must already be set)
+     * @param write Stores the linked entries
+     */
+    public void linkForCommit(List<BloodTrackingLog> logs, Runnable write) {
+        CommitClaim claim = (CommitClaim) TransactionSynchronizationManager.getResource(this);
+        if (claim == null) {
+            claim = claim();
+        }
+        link(logs, claim, write);
+    }
+
+    /**
+     * Note that the current transaction's entries reached a non-transactional store.
+     * They cannot be taken back, so the head keeps them even if the transaction rolls back.
+     */
+    public void markStored() {
+        CommitClaim claim = (CommitClaim) TransactionSynchronizationManager.getResource(this);
+        if (claim != null) {
+            claim.stored = true;
+        }
+    }
+
+    /**
+     * Link entries outside a transaction and write them while the chain is locked.
+     * If writing fails the heads are restored, as none of the entries were stored.
+     *
+     * @param logs Entries to link (all hashed fields must already be set)
+     * @param write Stores the linked entries
+     */
+    public void linkAndWrite(List<BloodTrackingLog> logs, Runnable write) {
+        CommitClaim claim = new CommitClaim();
+        try {
+            link(logs, claim, write);
+        } catch (RuntimeException e) {
+            undo(claim);
+            throw e;
+        } finally {
+            release(claim);
+        }
+    }
+
+    /**
+     * Current head (last sequence number handed out and last global chain hash).
+     */
+    public Link current() {
+        return new Link(lastSeq.get(), headHash);
+    }
+
+    /**
+     * Lock what the entries link to, link them, then number and write them.
+     * Neither hash covers the sequence number, so numbers are taken last.
+     */
+    private void link(List<BloodTrackingLog> logs, CommitClaim claim, Runnable write) {
+        unitChainHeads.lock(logs, claim.unitLocks, lockTimeoutMs);
+        boolean global = logs.stream().anyMatch(log -> !UnitChainHeads.UNIT_SCOPE.equals(log.getLinkScope()));
+        if (global && !claim.global) {
+            lock();
+            claim.global = true;
+            claim.startHash = headHash;
+        }
+
+        String hash = headHash;
+        for (BloodTrackingLog log : logs) {
+            if (UnitChainHeads.UNIT_SCOPE.equals(log.getLinkScope())) {
+                unitChainHeads.link(log, claim.unitUndo);
+                continue;
+            }
+            log.setPreviousHash(hash);
+            log.setHash(BloodTrackingService.calculateHash(log));
+            hash = log.getHash();
+        }
+        if (global) {
+            headHash = hash;
+            claim.endHash = hash;
+        }
+
+        if (logStore.isTransactional()) {
+            // The table orders by sequence number itself
+            number(logs, claim);
+            write.run();
+            return;
+        }
+        // Segment files are appended in sequence order, one batch at a time anyway
+        appendLock.lock();
+        try {
+            number(logs, claim);
+            write.run();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void number(List<BloodTrackingLog> logs, CommitClaim claim) {
+        long previous = lastSeq.getAndAdd(logs.size());
+        if (claim.seqTo == NONE) {
+            claim.seqFrom = previous;
+        } else if (previous != claim.seqTo) {
+            claim.contiguous = false;  // another commit took numbers in between
+        }
+        claim.seqTo = previous + logs.size();
+
+        long seq = previous;
+        LocalDateTime now = LocalDateTime.now();
+        for (BloodTrackingLog log : logs) {
+            log.setChainSeq(++seq);
+            log.setSequencedAt(now);
+        }
+    }
+
+    /**
+     * Step the heads back to where the claim found them (nothing it linked was stored).
+     * Its sequence numbers are handed out again only if no later commit took any.
+     */
+    private void undo(CommitClaim claim) {
+        if (claim.global) {
+            headHash = claim.startHash;
+        }
+        unitChainHeads.restore(claim.unitUndo);
+        if (claim.seqTo != NONE && claim.contiguous) {
+            lastSeq.compareAndSet(claim.seqTo, claim.seqFrom);
+        }
+    }
+
+    private void release(CommitClaim claim) {
+        unitChainHeads.unlock(claim.unitLocks);
+        if (claim.global) {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Bind a claim to the current transaction and release its locks once the
+     * transaction has completed, stepping the heads back if it did not commit.
+     */
+    private CommitClaim claim() {
+        CommitClaim created = new CommitClaim();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditChainHead.this);
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        return;
+                    }
+                    if (created.stored) {
+                        System.err.println("⚠️ Transaction did not commit after its audit entries up to seq " + created.seqTo + " were stored; keeping them on the chain");
+                        return;
+                    }
+                    if (status == STATUS_ROLLED_BACK && (!created.global || headHash.equals(created.endHash))) {
+                        undo(created);
+                    } else {
+                        // Outcome unknown, or a nested transaction on this thread linked after us
+                        System.err.println("⚠️ Audit commit outcome unclear after seq " + created.seqTo + "; reloading chain heads");
+                        if (created.global) {
+                            reload();
+                        }
+                        unitChainHeads.forget(created.unitUndo.keySet());
+                    }
+                } finally {
+                    release(created);
+                }
+            }
+        });
+        return created;
+    }
+
+    private void lock() {
+        try {
+            if (!commitLock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Audit chain is busy: timed out waiting for another commit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the audit chain", e);
+        }
+    }
+
+    /**
+     * When an entry took its sequence number, which is what gap checks measure from:
+     * a unit entry can commit after later numbers long after it was logged.
+     * Entries stored before this was recorded fall back to their log timestamp.
+     */
+    static LocalDateTime sequencedAt(BloodTrackingLog log) {
+        return log.getSequencedAt() != null ? log.getSequencedAt() : log.getTimestamp();
+    }
+
+    private static String hashOf(BloodTrackingLog log) {
+        return log.getHash() != null ? log.getHash() : GENESIS_HASH;
+    }
+
+    /**
+     * Last sequence number handed out and hash of the last entry on the global chain.
+     */
+    public record Link(long seq, String hash) {}
+
+    /**
+     * Locks held by one transaction (the chain lock only if it links global entries),
+     * the global head before and after its entries, the unit heads its entries moved,
+     * and the sequence numbers it took.
+     */
+    private static final class CommitClaim {
+        private final Set<Integer> unitLocks = new TreeSet<>();
+        private final Map<String, String> unitUndo = new HashMap<>();
+        private boolean global;
+        private String startHash;
+        private String endHash;
+        private long seqFrom = NONE;  // counter before the first number taken
+        private long seqTo = NONE;    // last number taken
+        private boolean contiguous = true;
+        private boolean stored;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage backend for the audit trail.
+ * Selected with bloodchain.audit.store: "jpa" (default, the blood_tracking_log table)
+ * or "segment" (memory-mapped append-only files). Finder names and ordering match
+ * BloodTrackingLogRepository so callers read the same results from either backend.
+ * Everything that reads the chain (verification, blocks, anchors, archives) goes
+ * through this interface, never through the table directly.
+ */
+public interface AuditLogStore {
+
+    /**
+     * Persist already linked entries in the given order.
+     */
+    void appendAll(List<BloodTrackingLog> logs);
+
+    /**
+     * Persist entries from an archive with their original ids and sequence numbers.
+     * Fails, writing none of them, if any id or sequence number is already present.
+     */
+    void importAll(List<BloodTrackingLog> logs);
+
+    /**
+     * Whether appends join the caller's database transaction.
+     * Non-transactional stores are written (and forced) just before the business
+     * transaction commits, and keep their entries if the commit then fails.
+     */
+    boolean isTransactional();
+
+    Optional<BloodTrackingLog> findById(Long id);
+
+    long count();
+
+    List<BloodTrackingLog> findByBloodUnitIdOrderByTimestampAsc(String bloodUnitId);
+
+    /**
+     * Keyset pages ordered by (timestamp, id): ascending for a unit's trail, newest first otherwise.
+     * A null cursor returns the first page. The segment store orders newest first by id
+     * (append order) instead, so it can stop reading once a page is full.
+     */
+    List<BloodTrackingLog> findBloodUnitPage(String bloodUnitId, LogCursor after, int limit);
+
+    List<BloodTrackingLog> findPerformedByPage(String performedBy, LogCursor after, int limit);
+
+    List<BloodTrackingLog> findActionPage(String action, LogCursor after, int limit);
+
+    List<BloodTrackingLog> findTimestampRangePage(LocalDateTime start, LocalDateTime end, LogCursor after, int limit);
+
+    List<BloodTrackingLog> findTop100ByOrderByTimestampDesc();
+
+    List<BloodTrackingLog> findTop5ByOrderByIdDesc();
+
+    BloodTrackingLog findTopByBloodUnitIdOrderByTimestampDesc(String bloodUnitId);
+
+    /**
+     * Hash of the newest entry of a blood unit in chain order (highest sequence number,
+     * else the newest entry written before sequencing): the predecessor of its next unit link.
+     * Reads the latest committed state even inside a transaction that has already read.
+     */
+    String findLatestUnitHash(String bloodUnitId);
+
+    /**
+     * Hash of the newest entry of each blood unit, in one lookup for all of them.
+     * Units without entries are missing from the map.
+     */
+    Map<String, String> findLatestHashes(Collection<String> bloodUnitIds);
+
+    /**
+     * Sequenced entries from a chain position on, in chain order, at most limit of them.
+     */
+    List<BloodTrackingLog> findSequencedFrom(long fromSeq, int limit);
+
+    /**
+     * Entries written before chain sequencing, after the given id, in id order.
+     * These form the chain prefix (positions 0 .. countLegacy()-1).
+     */
+    List<BloodTrackingLog> findLegacyAfterId(long afterId, int limit);
+
+    long countLegacy();
+
+    /**
+     * Hash of the newest entry of a blood unit before a chain position (in chain order), or null.
+     */
+    String findUnitPredecessorHash(String bloodUnitId, long beforeSeq);
+
+    /**
+     * Hash of the last global chain entry before a chain position, legacy prefix included,
+     * or null when no entry before it is stored.
+     */
+    String findGlobalPredecessorHash(long beforePosition);
+
+    /**
+     * Entry with the highest chain sequence number.
+     */
+    BloodTrackingLog findTopByChainSeqNotNullOrderByChainSeqDesc();
+
+    /**
+     * Newest entry linked on the global chain (not on a unit sub-chain).
+     */
+    BloodTrackingLog findLatestGlobalEntry();
+
+    /**
+     * Newest entry written before chain sequencing, if the store has any.
+     */
+    BloodTrackingLog findTopByChainSeqIsNullOrderByIdDesc();
+}
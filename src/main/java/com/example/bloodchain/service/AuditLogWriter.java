@@ -0,0 +1,122 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append pipeline for the audit trail.
+ * Entries are buffered for the current transaction, linked into the chain at
+ * commit (AuditChainHead) and handed to the audit store as one batch.
+ * A transactional store (the database table) is written just before commit on
+ * the transaction's own connection, so an entry is durable exactly when the
+ * business transaction commits.
+ * Other stores (segment files) are written, and forced to disk, in the same step
+ * once the persistence context has been flushed, so a crash after commit never
+ * loses an entry. If the database commit still fails afterwards the entries stay
+ * stored, and the chain head keeps them (AuditChainHead.markStored).
+ */
+@Component
+public class AuditLogWriter {
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private AuditChainHead chainHead;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Flush early once this many entries are pending, to keep long transactions bounded
+    @Value("${bloodchain.audit.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Queue an entry (hashed fields set; per-unit entries already linked on their unit).
+     * Linked and written at commit when a transaction is active, immediately otherwise.
+     */
+    public void append(BloodTrackingLog log) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<BloodTrackingLog> single = List.of(log);
+            chainHead.linkAndWrite(single, () -> logStore.appendAll(single));
+            return;
+        }
+
+        List<BloodTrackingLog> pending = pendingForTransaction();
+        pending.add(log);
+        if (pending.size() >= batchSize && logStore.isTransactional()) {
+            flush();
+        }
+    }
+
+    /**
+     * Queue several entries (kept in the given order).
+     */
+    public void appendAll(List<BloodTrackingLog> logs) {
+        for (BloodTrackingLog log : logs) {
+            append(log);
+        }
+    }
+
+    /**
+     * Write out entries pending in the current transaction.
+     * Called before reads that must see this transaction's own entries.
+     * Linking them takes the chain lock (or their blood units' locks) early, so other
+     * commits that log to the same chain wait for this transaction to complete.
+     * A non-transactional store only receives them at commit.
+     */
+    public void flush() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !logStore.isTransactional()) {
+            return;
+        }
+        writePending();
+    }
+
+    private void writePending() {
+        @SuppressWarnings("unchecked")
+        List<BloodTrackingLog> pending = (List<BloodTrackingLog>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null && !pending.isEmpty()) {
+            chainHead.linkForCommit(pending, () -> logStore.appendAll(pending));
+            if (!logStore.isTransactional()) {
+                chainHead.markStored();
+            }
+            pending.clear();
+        }
+    }
+
+    private List<BloodTrackingLog> pendingForTransaction() {
+        @SuppressWarnings("unchecked")
+        List<BloodTrackingLog> pending = (List<BloodTrackingLog>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        List<BloodTrackingLog> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!logStore.isTransactional() && !created.isEmpty()) {
+                    // Surface constraint violations before anything reaches the segment files
+                    entityManager.flush();
+                }
+                writePending();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditLogWriter.this);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+
+/**
+ * Write side of the audit outbox: one small insert in the caller's transaction,
+ * no hashing and no chain head involved. AuditOutboxSequencer does the rest.
+ */
+@Component
+public class AuditOutbox {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_outbox (blood_unit_id, action, performed_by, performed_by_role, " +
+        "previous_status, new_status, details, timestamp, ip_address) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Queue an audit entry (timestamp and fields already set).
+     */
+    public void enqueue(BloodTrackingLog log) {
+        jdbcTemplate.update(INSERT_SQL,
+            log.getBloodUnitId(),
+            log.getAction(),
+            log.getPerformedBy(),
+            log.getPerformedByRole(),
+            log.getPreviousStatus(),
+            log.getNewStatus(),
+            log.getDetails(),
+            Timestamp.valueOf(log.getTimestamp()),
+            log.getIpAddress());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Background half of asynchronous audit logging.
+ * Business transactions only insert a small audit_outbox row (AuditOutbox); the sequencer
+ * drains the outbox in id order, links and hashes the entries and appends them.
+ *
+ * Each drained batch is one transaction: the log entries are written and their
+ * outbox rows deleted together, so after a crash a batch is either fully in the
+ * chain or still waiting in the outbox. Batches are drained one at a time with
+ * their rows locked, so the chain stays ordered and gap-free.
+ */
+@Component
+public class AuditOutboxSequencer {
+
+    private static final String NEXT_BATCH =
+        "SELECT id, blood_unit_id, action, performed_by, performed_by_role, previous_status, new_status, " +
+        "details, timestamp, ip_address FROM audit_outbox ORDER BY id LIMIT ? FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BloodTrackingService trackingService;
+
+    @Value("${bloodchain.audit.outbox-batch-size:500}")
+    private int batchSize;
+
+    @Value("${bloodchain.audit.write-mode:sync}")
+    private String writeMode;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Append everything waiting in the outbox.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.audit.outbox-poll-ms:200}")
+    public void drain() {
+        if (!"outbox".equalsIgnoreCase(writeMode)) {
+            return;
+        }
+        try {
+            while (drainBatch() == batchSize) {
+                // a full batch means more may be waiting
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Audit outbox drain failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Link, append and delete one batch of outbox rows in a single transaction.
+     *
+     * @return Number of entries appended
+     */
+    public synchronized int drainBatch() {
+        Integer drained = transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(NEXT_BATCH, (rs, rowNum) -> {
+                BloodTrackingLog log = new BloodTrackingLog();
+                log.setBloodUnitId(rs.getString("blood_unit_id"));
+                log.setAction(rs.getString("action"));
+                log.setPerformedBy(rs.getString("performed_by"));
+                log.setPerformedByRole(rs.getString("performed_by_role"));
+                log.setPreviousStatus(rs.getString("previous_status"));
+                log.setNewStatus(rs.getString("new_status"));
+                log.setDetails(rs.getString("details"));
+                log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+                log.setIpAddress(rs.getString("ip_address"));
+                return new OutboxRow(rs.getLong("id"), log);
+            }, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            for (OutboxRow row : rows) {
+                trackingService.appendToChain(row.log());
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM audit_outbox WHERE id = ?", rows, rows.size(),
+                (ps, row) -> ps.setLong(1, row.id()));
+            return rows.size();
+        });
+        return drained != null ? drained : 0;
+    }
+
+    private record OutboxRow(long id, BloodTrackingLog log) {}
+}
@@ -0,0 +1,130 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary form of one audit log entry, shared by the chain archive and file-based stores.
+ *
+ * Layout (big-endian): id, chainSeq (-1 = none), timestamp as epoch seconds (UTC) + nanos,
+ * then the text fields, each as a length (-1 = null) followed by UTF-8 bytes, then
+ * sequencedAt as epoch seconds + nanos (-1 seconds = none). Records written before
+ * sequencedAt was added end after the text fields and decode with it null.
+ * A record on the wire is prefixed with its payload length.
+ */
+final class AuditRecordCodec {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Encode an entry as [length][payload].
+     * The returned buffer is reused by the next call and is ready to be written.
+     */
+    ByteBuffer encode(BloodTrackingLog log) {
+        buffer.clear();
+        buffer.position(Integer.BYTES);
+        putLong(log.getId() != null ? log.getId() : 0L);
+        putLong(log.getChainSeq() != null ? log.getChainSeq() : -1L);
+        putLong(log.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        putInt(log.getTimestamp().getNano());
+        putString(log.getBloodUnitId());
+        putString(log.getAction());
+        putString(log.getPerformedBy());
+        putString(log.getPerformedByRole());
+        putString(log.getPreviousStatus());
+        putString(log.getNewStatus());
+        putString(log.getDetails());
+        putString(log.getPreviousHash());
+        putString(log.getHash());
+        putString(log.getIpAddress());
+        putString(log.getLinkScope());
+        putLong(log.getSequencedAt() != null ? log.getSequencedAt().toEpochSecond(ZoneOffset.UTC) : -1L);
+        putInt(log.getSequencedAt() != null ? log.getSequencedAt().getNano() : 0);
+        buffer.putInt(0, buffer.position() - Integer.BYTES);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decode one payload (without its length prefix).
+     */
+    static BloodTrackingLog decode(ByteBuffer payload) {
+        BloodTrackingLog log = new BloodTrackingLog();
+        log.setId(payload.getLong());
+        long seq = payload.getLong();
+        log.setChainSeq(seq >= 0 ? seq : null);
+        long epochSecond = payload.getLong();
+        int nano = payload.getInt();
+        log.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        log.setBloodUnitId(getString(payload));
+        log.setAction(getString(payload));
+        log.setPerformedBy(getString(payload));
+        log.setPerformedByRole(getString(payload));
+        log.setPreviousStatus(getString(payload));
+        log.setNewStatus(getString(payload));
+        log.setDetails(getString(payload));
+        log.setPreviousHash(getString(payload));
+        log.setHash(getString(payload));
+        log.setIpAddress(getString(payload));
+        log.setLinkScope(getString(payload));
+        if (payload.remaining() >= Long.BYTES + Integer.BYTES) {
+            long sequencedSecond = payload.getLong();
+            int sequencedNano = payload.getInt();
+            if (sequencedSecond >= 0) {
+                log.setSequencedAt(LocalDateTime.ofEpochSecond(sequencedSecond, sequencedNano, ZoneOffset.UTC));
+            }
+        }
+        return log;
+    }
+
+    private void putLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private void putInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (payload.hasArray()) {
+            String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, StandardCharsets.UTF_8);
+            payload.position(payload.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.ComponentType;
+
+/**
+ * ABO/Rh compatibility rules, precomputed as bitmaps.
+ *
+ * The eight groups are numbered O-, O+, A-, A+, B-, B+, AB-, AB+ (index = abo * 2 + rh,
+ * with A and B as antigen bits of abo). For every component type and recipient group
+ * a byte holds one bit per donor group that may be given, so a compatibility check
+ * is a table lookup and a bit test.
+ *
+ * Rules:
+ * - RBC: donor cells must carry no ABO antigen the recipient lacks; Rh+ only to Rh+.
+ * - WHOLE_BLOOD: ABO-identical (cells and plasma both go in); Rh+ only to Rh+.
+ * - PLASMA: reversed - donor plasma must carry no antibody against the recipient's
+ *   antigens, i.e. donor antigens must include the recipient's; Rh does not apply.
+ * - PLATELETS: any ABO (suspended in little plasma); Rh+ only to Rh+.
+ */
+public final class BloodCompatibility {
+
+    public static final int GROUPS = 8;
+
+    private static final String[] NAMES = { "O-", "O+", "A-", "A+", "B-", "B+", "AB-", "AB+" };
+
+    // [type ordinal][recipient] -> bitmask of allowed donors
+    private static final byte[][] DONORS = new byte[ComponentType.values().length][GROUPS];
+
+    static {
+        for (ComponentType type : ComponentType.values()) {
+            for (int recipient = 0; recipient < GROUPS; recipient++) {
+                int mask = 0;
+                for (int donor = 0; donor < GROUPS; donor++) {
+                    if (allowed(type, donor, recipient)) {
+                        mask |= 1 << donor;
+                    }
+                }
+                DONORS[type.ordinal()][recipient] = (byte) mask;
+            }
+        }
+    }
+
+    private BloodCompatibility() {}
+
+    /**
+     * Group index of a blood group string such as "AB-", or -1 if not recognised.
+     */
+    public static int index(String bloodGroup) {
+        if (bloodGroup == null) {
+            return -1;
+        }
+        for (int i = 0; i < GROUPS; i++) {
+            if (NAMES[i].equalsIgnoreCase(bloodGroup.trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static String name(int group) {
+        return NAMES[group];
+    }
+
+    /**
+     * Bitmask of donor groups whose component of this type the recipient may receive.
+     */
+    public static int donorMask(ComponentType type, int recipient) {
+        return DONORS[type.ordinal()][recipient] & 0xFF;
+    }
+
+    public static boolean isCompatible(ComponentType type, int donor, int recipient) {
+        return (donorMask(type, recipient) & (1 << donor)) != 0;
+    }
+
+    /**
+     * Whether a donor group is the universal donor for this component type
+     * (O- cells, AB plasma), i.e. stock best kept for patients with no other option.
+     */
+    public static boolean isUniversalDonor(ComponentType type, int donor) {
+        return switch (type) {
+            case RBC, PLATELETS -> donor == 0;
+            case PLASMA -> donor >> 1 == 3;
+            case WHOLE_BLOOD -> false;
+        };
+    }
+
+    private static boolean allowed(ComponentType type, int donor, int recipient) {
+        int donorAbo = donor >> 1;
+        int recipientAbo = recipient >> 1;
+        boolean rhOk = (donor & 1) == 0 || (recipient & 1) == 1;
+        return switch (type) {
+            case RBC -> (donorAbo & ~recipientAbo) == 0 && rhOk;
+            case WHOLE_BLOOD -> donorAbo == recipientAbo && rhOk;
+            case PLASMA -> (recipientAbo & ~donorAbo) == 0;
+            case PLATELETS -> rhOk;
+        };
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for managing blood components.
@@ -27,6 +29,15 @@ public class BloodComponentService {
     @Autowired
     private BloodTrackingService trackingService;
 
+    @Autowired
+    private ExpirySweepService expirySweepService;
+
+    @Autowired
+    private ExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
     /**
      * Separate whole blood into components (RBC, Plasma, Platelets).
      * This is a KEY TECHNIQUE from the IEEE paper.
@@ -112,6 +123,8 @@ public class BloodComponentService {
         
         // Save all components
         componentRepository.saveAll(components);
+        expiryScheduler.scheduleComponents(components);
+        inventoryIndex.addAfterCommit(components, unit.getBloodGroup());
         
         // Update blood unit status to STORED
         unit.setStatus(BloodUnitStatus.STORED);
@@ -137,17 +150,47 @@ public class BloodComponentService {
     /**
      * Find available components for hospital requests.
      * Filters by component type, blood group, and availability.
+     * Candidates come first-expiry-first-out from the inventory index and are
+     * checked against the table; the query is only used until the index is built.
      */
     public List<BloodComponent> findAvailableComponents(ComponentType componentType, 
                                                        String bloodGroup, 
                                                        int quantity) {
         LocalDate today = LocalDate.now();
-        List<BloodComponent> available = componentRepository.findAvailableComponents(
-            componentType, bloodGroup, today
-        );
-        
-        // Return only the requested quantity (or less if not enough available)
-        return available.subList(0, Math.min(quantity, available.size()));
+        if (!inventoryIndex.isReady()) {
+            List<BloodComponent> available = componentRepository.findAvailableComponents(
+                componentType, bloodGroup, today
+            );
+            
+            // Return only the requested quantity (or less if not enough available)
+            return available.subList(0, Math.min(quantity, available.size()));
+        }
+
+        while (true) {
+            List<Long> candidateIds = inventoryIndex.firstToExpire(componentType, bloodGroup, quantity);
+            Map<Long, BloodComponent> found = new HashMap<>();
+            for (BloodComponent component : componentRepository.findAllById(candidateIds)) {
+                found.put(component.getId(), component);
+            }
+
+            // Index order is already earliest expiry first
+            List<BloodComponent> available = new ArrayList<>();
+            boolean stale = false;
+            for (Long id : candidateIds) {
+                BloodComponent component = found.get(id);
+                if (component != null && component.getStatus() == ComponentStatus.AVAILABLE
+                        && component.getExpiryDate().isAfter(today)) {
+                    available.add(component);
+                } else {
+                    // Changed by a path the index did not hear about; drop it and look again
+                    inventoryIndex.discard(id);
+                    stale = true;
+                }
+            }
+            if (!stale) {
+                return available;
+            }
+        }
     }
 
     /**
@@ -159,34 +202,11 @@ public class BloodComponentService {
 
     /**
      * Mark expired components.
-     * Should be called by scheduled task daily.
+     * Should be called by scheduled task daily. Runs as a chunked bulk sweep,
+     * each chunk committed on its own.
      */
-    @Transactional
-    public void markExpiredComponents() {
-        LocalDate today = LocalDate.now();
-        List<BloodComponent> expiredComponents = componentRepository
-            .findByExpiryDateBeforeAndStatusNot(today, ComponentStatus.EXPIRED);
-        
-        for (BloodComponent component : expiredComponents) {
-            ComponentStatus previousStatus = component.getStatus();
-            component.setStatus(ComponentStatus.EXPIRED);
-            componentRepository.save(component);
-            
-            // Get the blood unit for logging
-            BloodUnit unit = bloodUnitRepository.findById(component.getBloodUnitId())
-                .orElse(null);
-            
-            if (unit != null) {
-                trackingService.logAction(
-                    unit.getBloodUnitId(),
-                    "COMPONENT_EXPIRED",
-                    "SYSTEM",
-                    "SYSTEM",
-                    String.format("%s component expired (was %s, now EXPIRED). Expiry date: %s",
-                        component.getComponentType(), previousStatus, component.getExpiryDate())
-                );
-            }
-        }
+    public long markExpiredComponents() {
+        return expirySweepService.expireComponents();
     }
 
     /**
@@ -206,6 +226,13 @@ public class BloodComponentService {
         BloodUnit unit = bloodUnitRepository.findById(component.getBloodUnitId())
             .orElse(null);
         
+        // Keep the inventory index in step once this commits
+        if (newStatus == ComponentStatus.AVAILABLE && previousStatus != ComponentStatus.AVAILABLE && unit != null) {
+            inventoryIndex.addAfterCommit(List.of(component), unit.getBloodGroup());
+        } else if (previousStatus == ComponentStatus.AVAILABLE && newStatus != ComponentStatus.AVAILABLE) {
+            inventoryIndex.removeAfterCommit(List.of(componentId));
+        }
+        
         if (unit != null) {
             trackingService.logAction(
                 unit.getBloodUnitId(),
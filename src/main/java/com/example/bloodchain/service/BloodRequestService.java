@@ -1,15 +1,23 @@
 package com.example.bloodchain.service;
 
+import com.example.bloodchain.dto.MatchCandidate;
+import com.example.bloodchain.dto.MatchPreview;
 import com.example.bloodchain.model.*;
 import com.example.bloodchain.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for managing hospital blood requests.
@@ -25,16 +33,31 @@ public class BloodRequestService {
     private BloodComponentRepository componentRepository;
 
     @Autowired
-    private BloodRequestComponentRepository requestComponentRepository;
+    private BloodTrackingService trackingService;
 
     @Autowired
-    private BloodUnitRepository bloodUnitRepository;
+    private IdAllocationService idAllocationService;
 
     @Autowired
-    private BloodTrackingService trackingService;
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private InventoryCounters inventoryCounters;
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    @Autowired
+    private ComponentReservationService reservationService;
+
+    @Autowired
+    private RequestTransitionService requestTransitionService;
 
     @Autowired
-    private BloodComponentService componentService;
+    private CompatibilityMatcher matcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * Create a new blood request from hospital.
@@ -42,19 +65,24 @@ public class BloodRequestService {
     @Transactional
     public BloodRequest createBloodRequest(BloodRequest request) {
         // Generate unique request number
-        request.setRequestNumber(generateUniqueRequestNumber());
+        request.setRequestNumber(idAllocationService.nextRequestNumber());
         request.setRequestDate(LocalDateTime.now());
         request.setStatus(BloodRequestStatus.REQUESTED);
         
-        return bloodRequestRepository.save(request);
+        BloodRequest saved = bloodRequestRepository.save(request);
+        liveUpdateHub.publishAfterCommit(List.of(LiveUpdateHub.request(saved)));
+        return saved;
     }
 
     /**
      * Approve blood request and assign components.
+     * Components are claimed by ComponentReservationService with conditional updates,
+     * so concurrent approvals never assign the same component; mappings, unit status
+     * and audit entries are then written in batches.
      */
     @Transactional
     public void approveBloodRequest(Long requestId, String approvedBy) {
-        BloodRequest request = bloodRequestRepository.findById(requestId)
+        BloodRequest request = bloodRequestRepository.findByIdForUpdate(requestId)
             .orElseThrow(() -> new RuntimeException("Blood request not found"));
         
         if (request.getStatus() != BloodRequestStatus.REQUESTED) {
@@ -67,14 +95,15 @@ public class BloodRequestService {
 
         int qtyRequested = request.getQuantity() != null ? request.getQuantity() : 1;
 
-        // Find available components
-        List<BloodComponent> availableComponents = componentService.findAvailableComponents(
+        // Claim available components (compatible groups allowed as the urgency's policy says)
+        List<ComponentReservationService.ClaimedComponent> claimed = reservationService.reserve(
             typeToFind,
             request.getBloodGroup(),
-            qtyRequested
+            qtyRequested,
+            request.getUrgency()
         );
         
-        if (availableComponents.isEmpty()) {
+        if (claimed.isEmpty()) {
             // Provide detailed error message
             long totalOfType = componentRepository.countByComponentType(typeToFind);
             long availableOfType = componentRepository.countAvailableComponents(typeToFind, request.getBloodGroup(), LocalDate.now());
@@ -88,53 +117,127 @@ public class BloodRequestService {
             throw new RuntimeException(errorMsg);
         }
         
-        int approvedQuantity = Math.min(availableComponents.size(), request.getQuantity());
+        int approvedQuantity = claimed.size();
+        LocalDateTime now = LocalDateTime.now();
         
-        // Assign components to request
-        for (int i = 0; i < approvedQuantity; i++) {
-            BloodComponent component = availableComponents.get(i);
-            
-            // Reserve the component
-            componentService.updateComponentStatus(
-                component.getId(),
-                ComponentStatus.RESERVED,
+        // Create mappings
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO blood_request_components (blood_request_id, blood_component_id, assigned_date, created_at) " +
+            "VALUES (?, ?, ?, ?)",
+            claimed, claimed.size(), (ps, component) -> {
+                ps.setLong(1, request.getId());
+                ps.setLong(2, component.id());
+                ps.setTimestamp(3, Timestamp.valueOf(now));
+                ps.setTimestamp(4, Timestamp.valueOf(now));
+            });
+
+        // Update parent BloodUnit status to APPROVED (deducts from STORED inventory)
+        List<Long> unitIds = claimed.stream()
+            .map(ComponentReservationService.ClaimedComponent::unitId)
+            .distinct()
+            .toList();
+        String unitPlaceholders = String.join(",", Collections.nCopies(unitIds.size(), "?"));
+        Map<Long, String> unitStatuses = new HashMap<>();
+        jdbcTemplate.query("SELECT id, status FROM blood_units WHERE id IN (" + unitPlaceholders + ") FOR UPDATE",
+            rs -> {
+                unitStatuses.put(rs.getLong("id"), rs.getString("status"));
+            }, unitIds.toArray());
+        List<Object> unitArgs = new ArrayList<>();
+        unitArgs.add(Timestamp.valueOf(now));
+        unitArgs.addAll(unitIds);
+        jdbcTemplate.update("UPDATE blood_units SET status = 'APPROVED', updated_at = ? WHERE id IN (" + unitPlaceholders + ")",
+            unitArgs.toArray());
+        unitStatuses.forEach((unitId, previous) ->
+            inventoryCounters.unitChanged(unitId, previous, BloodUnitStatus.APPROVED.name()));
+
+        // If this was a Whole Blood request, also reserve all other components of these units
+        if (typeToFind == ComponentType.WHOLE_BLOOD) {
+            List<Map<String, Object>> siblingRows = jdbcTemplate.queryForList(
+                "SELECT id, blood_unit_id, component_type FROM blood_components WHERE blood_unit_id IN (" + unitPlaceholders + ") " +
+                "AND status = 'AVAILABLE' FOR UPDATE",
+                unitIds.toArray());
+            if (!siblingRows.isEmpty()) {
+                List<Long> siblings = siblingRows.stream()
+                    .map(row -> ((Number) row.get("id")).longValue())
+                    .toList();
+                String siblingPlaceholders = String.join(",", Collections.nCopies(siblings.size(), "?"));
+                List<Object> siblingArgs = new ArrayList<>();
+                siblingArgs.add(Timestamp.valueOf(now));
+                siblingArgs.addAll(siblings);
+                jdbcTemplate.update("UPDATE blood_components SET status = 'RESERVED', updated_at = ? " +
+                    "WHERE id IN (" + siblingPlaceholders + ")", siblingArgs.toArray());
+                inventoryIndex.removeAfterCommit(siblings);
+                for (Map<String, Object> row : siblingRows) {
+                    inventoryCounters.componentChanged(((Number) row.get("blood_unit_id")).longValue(),
+                        ComponentType.valueOf((String) row.get("component_type")),
+                        ComponentStatus.AVAILABLE.name(), ComponentStatus.RESERVED.name());
+                }
+            }
+        }
+
+        // Audit entries, written as one batch at commit
+        for (ComponentReservationService.ClaimedComponent component : claimed) {
+            String details = String.format("%s component status changed from %s to %s",
+                component.componentType(), ComponentStatus.AVAILABLE, ComponentStatus.RESERVED);
+            if (!component.bloodGroup().equalsIgnoreCase(request.getBloodGroup())) {
+                details += String.format(" (%s substituted for %s request %s)",
+                    component.bloodGroup(), request.getBloodGroup(), request.getRequestNumber());
+            }
+            trackingService.logAction(
+                component.bloodUnitId(),
+                "COMPONENT_STATUS_CHANGED",
                 approvedBy,
-                "ROLE_BLOODBANK"
+                "ROLE_BLOODBANK",
+                details
             );
-            
-            // Create mapping
-            BloodRequestComponent mapping = new BloodRequestComponent();
-            mapping.setBloodRequestId(request.getId());
-            mapping.setBloodComponentId(component.getId());
-            mapping.setAssignedDate(LocalDateTime.now());
-            requestComponentRepository.save(mapping);
-
-            // Update parent BloodUnit status to APPROVED (deducts from STORED inventory)
-            bloodUnitRepository.findById(component.getBloodUnitId()).ifPresent(unit -> {
-                unit.setStatus(BloodUnitStatus.APPROVED);
-                bloodUnitRepository.save(unit);
-
-                // If this was a Whole Blood request, also reserve all other components of this unit
-                if (typeToFind == ComponentType.WHOLE_BLOOD) {
-                    List<BloodComponent> allComponents = componentRepository.findByBloodUnitId(unit.getId());
-                    for (BloodComponent other : allComponents) {
-                        if (other.getStatus() == ComponentStatus.AVAILABLE) {
-                            other.setStatus(ComponentStatus.RESERVED);
-                            componentRepository.save(other);
-                        }
-                    }
-                }
-            });
         }
         
         // Update request status
-        request.setStatus(approvedQuantity == request.getQuantity() ? 
+        request.setStatus(approvedQuantity == qtyRequested ? 
             BloodRequestStatus.APPROVED : BloodRequestStatus.PARTIALLY_APPROVED);
         request.setApprovedBy(approvedBy);
-        request.setApprovedDate(LocalDateTime.now());
+        request.setApprovedDate(now);
         request.setApprovedQuantity(approvedQuantity);
         
         bloodRequestRepository.save(request);
+        liveUpdateHub.publishAfterCommit(List.of(LiveUpdateHub.request(request)));
+    }
+
+    /**
+     * Dry run of approval: the components matching would reserve for this request now.
+     * Nothing is reserved or logged.
+     */
+    public MatchPreview previewMatch(Long requestId) {
+        BloodRequest request = bloodRequestRepository.findById(requestId)
+            .orElseThrow(() -> new RuntimeException("Blood request not found"));
+
+        ComponentType type = (request.getComponentType() != null) ?
+            request.getComponentType() : ComponentType.WHOLE_BLOOD;
+        int quantity = request.getQuantity() != null ? request.getQuantity() : 1;
+
+        List<CompatibilityMatcher.Match> matches = matcher.match(
+            type, request.getBloodGroup(), quantity, request.getUrgency(), Set.of());
+
+        Map<Long, String> componentIds = new HashMap<>();
+        componentRepository.findAllById(matches.stream().map(CompatibilityMatcher.Match::componentId).toList())
+            .forEach(component -> componentIds.put(component.getId(), component.getComponentId()));
+
+        List<MatchCandidate> candidates = new ArrayList<>();
+        for (CompatibilityMatcher.Match match : matches) {
+            candidates.add(new MatchCandidate(match.componentId(), componentIds.get(match.componentId()),
+                match.bloodGroup(), match.expiryDate(), match.score(), match.substitute()));
+        }
+
+        MatchPreview preview = new MatchPreview();
+        preview.setRequestId(request.getId());
+        preview.setComponentType(type);
+        preview.setBloodGroup(request.getBloodGroup());
+        preview.setQuantity(quantity);
+        preview.setUrgency(request.getUrgency());
+        preview.setPolicy(matcher.policyFor(request.getUrgency()));
+        preview.setCandidates(candidates);
+        preview.setShortfall(Math.max(0, quantity - candidates.size()));
+        return preview;
     }
 
     /**
@@ -151,6 +254,7 @@ public class BloodRequestService {
         request.setApprovedDate(LocalDateTime.now());
         
         bloodRequestRepository.save(request);
+        liveUpdateHub.publishAfterCommit(List.of(LiveUpdateHub.request(request)));
     }
 
     /**
@@ -166,26 +270,13 @@ public class BloodRequestService {
             throw new IllegalStateException("Only APPROVED requests can be dispatched");
         }
         
-        // Update component mappings
-        List<BloodRequestComponent> mappings = requestComponentRepository
-            .findByBloodRequestId(requestId);
-        
-        for (BloodRequestComponent mapping : mappings) {
-            mapping.setDispatchDate(LocalDateTime.now());
-            requestComponentRepository.save(mapping);
-            
-            // Update component status
-            componentService.updateComponentStatus(
-                mapping.getBloodComponentId(),
-                ComponentStatus.DISPATCHED,
-                performedBy,
-                "ROLE_BLOODBANK"
-            );
-        }
+        // Mappings, components and audit entries in bulk
+        requestTransitionService.dispatch(request, performedBy);
         
         // Update request status
         request.setStatus(BloodRequestStatus.DISPATCHED);
         bloodRequestRepository.save(request);
+        liveUpdateHub.publishAfterCommit(List.of(LiveUpdateHub.request(request)));
     }
 
     /**
@@ -200,52 +291,13 @@ public class BloodRequestService {
             throw new IllegalStateException("Only DISPATCHED requests can be received");
         }
         
-        // Update component mappings
-        List<BloodRequestComponent> mappings = requestComponentRepository
-            .findByBloodRequestId(requestId);
-        
-        for (BloodRequestComponent mapping : mappings) {
-            mapping.setReceivedDate(LocalDateTime.now());
-            requestComponentRepository.save(mapping);
-            
-            // Get component and blood unit for logging
-            BloodComponent component = componentRepository.findById(mapping.getBloodComponentId())
-                .orElse(null);
-            
-            if (component != null) {
-                // Update component status to RECEIVED (Hospital Inventory)
-                componentService.updateComponentStatus(
-                    component.getId(),
-                    ComponentStatus.RECEIVED,
-                    performedBy,
-                    "ROLE_HOSPITAL"
-                );
-
-                BloodUnit unit = bloodUnitRepository.findById(component.getBloodUnitId())
-                    .orElse(null);
-                
-                if (unit != null) {
-                    // Update blood unit status
-                    unit.setStatus(BloodUnitStatus.RECEIVED);
-                    bloodUnitRepository.save(unit);
-                    
-                    // Log the receipt
-                    trackingService.logStatusChange(
-                        unit.getBloodUnitId(),
-                        "BLOOD_RECEIVED",
-                        performedBy,
-                        "ROLE_HOSPITAL",
-                        BloodUnitStatus.DISPATCHED.toString(),
-                        BloodUnitStatus.RECEIVED.toString(),
-                        String.format("Received by hospital for request: %s", request.getRequestNumber())
-                    );
-                }
-            }
-        }
+        // Mappings, components, blood units and audit entries in bulk
+        requestTransitionService.receive(request, performedBy);
         
         // Update request status
         request.setStatus(BloodRequestStatus.COMPLETED);
         bloodRequestRepository.save(request);
+        liveUpdateHub.publishAfterCommit(List.of(LiveUpdateHub.request(request)));
     }
 
     /**
@@ -263,20 +315,4 @@ public class BloodRequestService {
     public List<BloodRequest> findByHospitalEmail(String hospitalEmail) {
         return bloodRequestRepository.findByHospitalEmailOrderByRequestDateDesc(hospitalEmail);
     }
-
-    /**
-     * Generate unique request number.
-     * Format: REQ-YYYY-NNNNNN
-     */
-    private String generateUniqueRequestNumber() {
-        int year = Year.now().getValue();
-        long count = bloodRequestRepository.count() + 1;
-        String requestNumber;
-        
-        do {
-            requestNumber = String.format("REQ-%d-%06d", year, count++);
-        } while (bloodRequestRepository.existsByRequestNumber(requestNumber));
-        
-        return requestNumber;
-    }
 }
@@ -1,11 +1,13 @@
 package com.example.bloodchain.service;
 
+import com.example.bloodchain.dto.LogPage;
 import com.example.bloodchain.model.BloodTrackingLog;
-import com.example.bloodchain.repository.BloodTrackingLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -16,8 +18,28 @@ import java.util.List;
 @Service
 public class BloodTrackingService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private AuditLogWriter logWriter;
+
+    @Autowired
+    private DonationHistoryService donationHistoryService;
+
+    // "global" links every entry to the previous entry system-wide,
+    // "unit" links it to the previous entry of the same blood unit
+    @Value("${bloodchain.audit.chain-mode:global}")
+    private String chainMode;
+
     @Autowired
-    private BloodTrackingLogRepository trackingLogRepository;
+    private AuditOutbox auditOutbox;
+
+    // "sync" appends in the business transaction, "outbox" only queues the event there
+    @Value("${bloodchain.audit.write-mode:sync}")
+    private String writeMode;
 
     /**
      * Log an action on a blood unit.
@@ -37,7 +59,7 @@ public class BloodTrackingService {
         log.setPerformedBy(performedBy);
         log.setPerformedByRole(role);
         log.setDetails(details);
-        log.setTimestamp(LocalDateTime.now());
+        log.setTimestamp(now());
         
         finalizeAndSave(log);
     }
@@ -56,52 +78,59 @@ public class BloodTrackingService {
         log.setPreviousStatus(previousStatus);
         log.setNewStatus(newStatus);
         log.setDetails(details);
-        log.setTimestamp(LocalDateTime.now());
+        log.setTimestamp(now());
         
         finalizeAndSave(log);
     }
 
+    /**
+     * Current time at the precision the timestamp column stores (microseconds),
+     * so a hash recomputed from the stored row matches the one written.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
     private void finalizeAndSave(BloodTrackingLog log) {
-        // Link to previous block (Global Chain)
-        BloodTrackingLog lastLog = trackingLogRepository.findTopByOrderByTimestampDesc();
-        if (lastLog != null) {
-            log.setPreviousHash(lastLog.getHash() != null ? lastLog.getHash() : "0");
-        } else {
-            log.setPreviousHash("0"); // Genesis block
+        if ("outbox".equalsIgnoreCase(writeMode)) {
+            // Hashed and appended later by AuditOutboxSequencer, in outbox order
+            auditOutbox.enqueue(log);
+            return;
         }
-        
-        // Calculate current hash
-        log.setHash(calculateHash(log));
-        
-        trackingLogRepository.save(log);
+        appendToChain(log);
     }
 
-    private String calculateHash(BloodTrackingLog log) {
-        try {
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            String data = (log.getBloodUnitId() != null ? log.getBloodUnitId() : "") +
-                          (log.getAction() != null ? log.getAction() : "") +
-                          (log.getTimestamp() != null ? log.getTimestamp().toString() : "") +
-                          (log.getPreviousHash() != null ? log.getPreviousHash() : "0") +
-                          (log.getDetails() != null ? log.getDetails() : "");
-            
-            byte[] encodedhash = digest.digest(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return bytesToHex(encodedhash);
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not found", e);
+    /**
+     * Hand an entry to the writer for linking into its chain.
+     * Called directly in sync mode and by the outbox sequencer otherwise.
+     */
+    void appendToChain(BloodTrackingLog log) {
+        if ("unit".equalsIgnoreCase(chainMode)) {
+            // Linked to the previous block of this unit only, not to the global chain
+            log.setLinkScope(UnitChainHeads.UNIT_SCOPE);
         }
+        
+        // Buffered, then sequenced (and linked to the global chain) and written as one batch at commit
+        logWriter.append(log);
+        donationHistoryService.unitLogged(log.getBloodUnitId());
     }
 
-    private static String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (int i = 0; i < hash.length; i++) {
-            String hex = Integer.toHexString(0xff & hash[i]);
-            if(hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
+    /**
+     * SHA-256 over the hashed fields of an entry (previousHash must be set).
+     * Also used by the chain verifier to recompute stored hashes.
+     */
+    static String calculateHash(BloodTrackingLog log) {
+        // Null text fields hash as empty, a missing previous hash as genesis "0"
+        Sha256 hasher = Sha256.begin()
+            .add(log.getBloodUnitId())
+            .add(log.getAction());
+        if (log.getTimestamp() != null) {
+            hasher.add(log.getTimestamp());
         }
-        return hexString.toString();
+        return hasher
+            .add(log.getPreviousHash() != null ? log.getPreviousHash() : AuditChainHead.GENESIS_HASH)
+            .add(log.getDetails())
+            .hex();
     }
 
     /**
@@ -110,35 +139,66 @@ public class BloodTrackingService {
      * This provides end-to-end traceability from donor to patient.
      */
     public List<BloodTrackingLog> getBloodHistory(String bloodUnitId) {
-        return trackingLogRepository.findByBloodUnitIdOrderByTimestampAsc(bloodUnitId);
+        logWriter.flush();
+        return logStore.findByBloodUnitIdOrderByTimestampAsc(bloodUnitId);
+    }
+
+    /**
+     * Get one page of a blood unit's audit trail (oldest first).
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public LogPage getBloodHistoryPage(String bloodUnitId, String cursor, int size) {
+        logWriter.flush();
+        int limit = pageSize(size);
+        return toPage(logStore.findBloodUnitPage(bloodUnitId, LogCursor.decode(cursor), limit + 1), limit);
     }
 
     /**
-     * Get all actions performed by a specific user.
+     * Get actions performed by a specific user, one page at a time (newest first).
      * Useful for accountability and user activity tracking.
      */
-    public List<BloodTrackingLog> getUserActivity(String userEmail) {
-        return trackingLogRepository.findByPerformedByOrderByTimestampDesc(userEmail);
+    public LogPage getUserActivity(String userEmail, String cursor, int size) {
+        logWriter.flush();
+        int limit = pageSize(size);
+        return toPage(logStore.findPerformedByPage(userEmail, LogCursor.decode(cursor), limit + 1), limit);
     }
 
     /**
-     * Get all logs for a specific action type.
+     * Get logs for a specific action type, one page at a time (newest first).
      */
-    public List<BloodTrackingLog> getActionLogs(String action) {
-        return trackingLogRepository.findByActionOrderByTimestampDesc(action);
+    public LogPage getActionLogs(String action, String cursor, int size) {
+        logWriter.flush();
+        int limit = pageSize(size);
+        return toPage(logStore.findActionPage(action, LogCursor.decode(cursor), limit + 1), limit);
     }
 
     /**
-     * Get logs within a date range (for reports).
+     * Get logs within a date range, one page at a time (for reports).
      */
-    public List<BloodTrackingLog> getLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return trackingLogRepository.findByTimestampBetweenOrderByTimestampDesc(startDate, endDate);
+    public LogPage getLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        logWriter.flush();
+        int limit = pageSize(size);
+        return toPage(logStore.findTimestampRangePage(startDate, endDate, LogCursor.decode(cursor), limit + 1), limit);
+    }
+
+    private static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    // One extra row is fetched to know whether another page follows
+    private static LogPage toPage(List<BloodTrackingLog> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<BloodTrackingLog> items = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? LogCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new LogPage(items, next, hasMore);
     }
 
     /**
      * Get recent logs for admin dashboard.
      */
     public List<BloodTrackingLog> getRecentLogs() {
-        return trackingLogRepository.findTop100ByOrderByTimestampDesc();
+        logWriter.flush();
+        return logStore.findTop100ByOrderByTimestampDesc();
     }
 }
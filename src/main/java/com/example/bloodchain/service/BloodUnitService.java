@@ -2,13 +2,11 @@ package com.example.bloodchain.service;
 
 import com.example.bloodchain.model.*;
 import com.example.bloodchain.repository.BloodUnitRepository;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.Year;
 import java.util.*;
 
 /**
@@ -24,6 +22,12 @@ public class BloodUnitService {
     @Autowired
     private BloodTrackingService trackingService;
 
+    @Autowired
+    private IdAllocationService idAllocationService;
+
+    @Autowired
+    private ExpirySweepService expirySweepService;
+
     // State transition validation map
     private static final Map<BloodUnitStatus, List<BloodUnitStatus>> ALLOWED_TRANSITIONS = Map.of(
         BloodUnitStatus.COLLECTED, List.of(BloodUnitStatus.TESTED, BloodUnitStatus.REJECTED),
@@ -42,7 +46,7 @@ public class BloodUnitService {
     public BloodUnit createBloodUnit(Integer donorId, Long donationRequestId, String bloodGroup,
                                     Integer volumeMl, String storageLocation, String performedBy) {
         // Generate unique blood unit ID
-        String bloodUnitId = generateUniqueBloodUnitId();
+        String bloodUnitId = idAllocationService.nextBloodUnitId();
         
         // Create blood unit
         BloodUnit unit = new BloodUnit();
@@ -192,29 +196,11 @@ public class BloodUnitService {
 
     /**
      * Mark expired blood units.
-     * Should be called by scheduled task daily.
+     * Should be called by scheduled task daily. Runs as a chunked bulk sweep,
+     * each chunk committed on its own.
      */
-    @Transactional
-    public void markExpiredBloodUnits() {
-        LocalDate today = LocalDate.now();
-        List<BloodUnit> expiredUnits = bloodUnitRepository
-            .findByExpiryDateBeforeAndStatusNot(today, BloodUnitStatus.EXPIRED);
-        
-        for (BloodUnit unit : expiredUnits) {
-            BloodUnitStatus previousStatus = unit.getStatus();
-            unit.setStatus(BloodUnitStatus.EXPIRED);
-            bloodUnitRepository.save(unit);
-            
-            trackingService.logStatusChange(
-                unit.getBloodUnitId(),
-                "BLOOD_EXPIRED",
-                "SYSTEM",
-                "SYSTEM",
-                previousStatus.toString(),
-                BloodUnitStatus.EXPIRED.toString(),
-                "Blood unit expired on " + unit.getExpiryDate()
-            );
-        }
+    public long markExpiredBloodUnits() {
+        return expirySweepService.expireBloodUnits();
     }
 
     /**
@@ -225,32 +211,18 @@ public class BloodUnitService {
         return allowedNext != null && allowedNext.contains(next);
     }
 
-    /**
-     * Generate unique blood unit ID.
-     * Format: BU-YYYY-NNNNNN
-     */
-    private String generateUniqueBloodUnitId() {
-        int year = Year.now().getValue();
-        long count = bloodUnitRepository.count() + 1;
-        String bloodUnitId;
-        
-        do {
-            bloodUnitId = String.format("BU-%d-%06d", year, count++);
-        } while (bloodUnitRepository.existsByBloodUnitId(bloodUnitId));
-        
-        return bloodUnitId;
-    }
-
     /**
      * Generate SHA-256 hash for blood unit verification.
      */
     private String generateBloodUnitHash(BloodUnit unit) {
-        String data = unit.getBloodUnitId() + 
-                     unit.getDonorId() + 
-                     unit.getCollectionDate() + 
-                     unit.getBloodGroup() +
-                     unit.getVolumeMl();
-        return DigestUtils.sha256Hex(data);
+        // Same bytes as concatenating the fields as strings (null spelled "null")
+        return Sha256.begin()
+            .add(String.valueOf(unit.getBloodUnitId()))
+            .add(unit.getDonorId())
+            .add(unit.getCollectionDate())
+            .add(String.valueOf(unit.getBloodGroup()))
+            .add(unit.getVolumeMl())
+            .hex();
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.example.bloodchain.service;
 
+import com.example.bloodchain.dto.InclusionProof;
 import com.example.bloodchain.model.BloodUnit;
 import com.example.bloodchain.model.User;
 import com.example.bloodchain.model.Donor;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -27,6 +29,9 @@ public class CertificateService {
     @Autowired
     private DonorRepository donorRepository;
 
+    @Autowired
+    private MerkleBlockService merkleBlockService;
+
     public byte[] generateCertificateFromUnit(String bloodUnitId) throws IOException {
         BloodUnit unit = bloodUnitRepository.findByBloodUnitId(bloodUnitId).orElse(null);
         if (unit == null) {
@@ -49,7 +54,16 @@ public class CertificateService {
         // Use blockHash if available, otherwise fallback to bloodUnitId for authenticity check
         String hash = unit.getBlockHash() != null ? unit.getBlockHash() : bloodUnitId;
 
-        String htmlContent = generateHtmlTemplate(userName, location, date, unit.getVolumeMl(), hash);
+        // Point at the sealed audit block so the certificate can be checked with a Merkle proof
+        String blockReference = "Pending (audit block not sealed yet)";
+        List<InclusionProof> proofs = merkleBlockService.proveBloodUnit(bloodUnitId);
+        if (!proofs.isEmpty()) {
+            InclusionProof proof = proofs.get(0);
+            blockReference = String.format("Block #%d, Log #%d, Merkle Root %s",
+                proof.getBlockNumber(), proof.getLogId(), proof.getMerkleRoot());
+        }
+
+        String htmlContent = generateHtmlTemplate(userName, location, date, unit.getVolumeMl(), hash, blockReference);
 
         ByteArrayOutputStream target = new ByteArrayOutputStream();
         HtmlConverter.convertToPdf(htmlContent, target);
@@ -57,7 +71,8 @@ public class CertificateService {
         return target.toByteArray();
     }
 
-    private String generateHtmlTemplate(String name, String location, String date, int units, String hash) {
+    private String generateHtmlTemplate(String name, String location, String date, int units, String hash,
+                                        String blockReference) {
         return "<!DOCTYPE html>" +
                 "<html>" +
                 "<head>" +
@@ -92,6 +107,7 @@ public class CertificateService {
                 "    </div>" +
                 "    <div class='blockchain-info'>" +
                 "        <p><strong>Blockchain Verification Hash:</strong> " + hash + "</p>" +
+                "        <p><strong>Audit Block:</strong> " + blockReference + "</p>" +
                 "        <p>Stored securely on the BloodChain distributed ledger.</p>" +
                 "    </div>" +
                 "    <div class='footer'>" +
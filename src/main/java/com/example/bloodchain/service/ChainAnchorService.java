@@ -0,0 +1,105 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import com.example.bloodchain.model.ChainAnchor;
+import com.example.bloodchain.repository.ChainAnchorRepository;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anchors the per-unit audit sub-chains into one global chain of anchors.
+ * Every interval, the latest head of each unit sub-chain that moved since the
+ * previous anchor is hashed together and linked to that anchor.
+ */
+@Service
+public class ChainAnchorService {
+
+    private static final int WINDOW_LIMIT = 10000;
+
+    // A missing sequence number younger than this is still committing; anchor up to it only
+    private static final long GAP_GRACE_SECONDS = 60;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private ChainAnchorRepository anchorRepository;
+
+    @Value("${bloodchain.audit.chain-mode:global}")
+    private String chainMode;
+
+    /**
+     * Anchor every committed window of unit sub-chain entries.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.audit.anchor-interval-ms:60000}")
+    public void anchorUnitChains() {
+        if (!"unit".equalsIgnoreCase(chainMode)) {
+            return;
+        }
+        while (anchorNextWindow()) {
+            // keep going while full windows are waiting
+        }
+    }
+
+    /**
+     * Anchor the sub-chain heads of the next contiguous run of sequenced entries.
+     *
+     * @return true if the window was full and another one may be waiting
+     */
+    public synchronized boolean anchorNextWindow() {
+        ChainAnchor last = anchorRepository.findTopByOrderByLastChainSeqDesc();
+        long after = last != null ? last.getLastChainSeq() : -1L;
+
+        LocalDateTime gapCutoff = LocalDateTime.now().minusSeconds(GAP_GRACE_SECONDS);
+        Map<String, String> heads = new TreeMap<>();  // sorted, so the heads hash is reproducible
+        long lastSeq = after;  // last contiguous seq
+        boolean blocked = false;
+
+        List<BloodTrackingLog> entries = logStore.findSequencedFrom(after + 1, WINDOW_LIMIT);
+        for (BloodTrackingLog log : entries) {
+            long seq = log.getChainSeq();
+            if (seq != lastSeq + 1 && AuditChainHead.sequencedAt(log).isAfter(gapCutoff)) {
+                blocked = true;  // earlier entry not committed yet
+                break;
+            }
+            if (UnitChainHeads.UNIT_SCOPE.equals(log.getLinkScope())) {
+                heads.put(log.getBloodUnitId(), log.getHash());
+            }
+            lastSeq = seq;
+        }
+
+        if (lastSeq == after) {
+            return false;
+        }
+
+        StringBuilder pairs = new StringBuilder();
+        heads.forEach((unitId, hash) -> pairs.append(unitId).append(':').append(hash).append('\n'));
+
+        ChainAnchor anchor = new ChainAnchor();
+        anchor.setFirstChainSeq(after + 1);
+        anchor.setLastChainSeq(lastSeq);
+        anchor.setUnitCount(heads.size());
+        anchor.setHeadsHash(DigestUtils.sha256Hex(pairs.toString()));
+        anchor.setPreviousAnchorHash(last != null ? last.getAnchorHash() : AuditChainHead.GENESIS_HASH);
+        anchor.setAnchorHash(anchorHash(anchor));
+        anchor.setAnchoredAt(LocalDateTime.now());
+        anchorRepository.save(anchor);
+
+        System.out.println("⚓ Anchored " + heads.size() + " unit chain heads up to entry #" + lastSeq);
+        return entries.size() == WINDOW_LIMIT && !blocked;
+    }
+
+    private static String anchorHash(ChainAnchor anchor) {
+        return DigestUtils.sha256Hex(anchor.getFirstChainSeq() + "|" + anchor.getLastChainSeq() + "|" +
+                                     anchor.getUnitCount() + "|" + anchor.getHeadsHash() + "|" +
+                                     anchor.getPreviousAnchorHash());
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.ChainImportResult;
+import com.example.bloodchain.model.BloodTrackingLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the audit chain out of and back into the audit store.
+ *
+ * Archive layout: a fixed header (magic, version, flags, first chain position),
+ * then length-prefixed records in chain order (see AuditRecordCodec), then an
+ * end marker (-1) and the record count. With compression the part after the
+ * header is gzipped. Export and import both work page by page, so memory use
+ * does not grow with the size of the chain.
+ */
+@Service
+public class ChainArchiveService {
+
+    private static final int MAGIC = 0x42434841;  // "BCHA"
+    private static final byte VERSION = 1;
+    private static final byte FLAG_GZIP = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + 2 + Long.BYTES;
+    private static final int END_MARKER = -1;
+
+    private static final int PAGE_SIZE = 5000;
+    private static final int IO_BUFFER = 64 * 1024;
+
+    // Unit heads remembered while importing, to check per-unit links (more than one batch)
+    private static final int UNIT_HEAD_CACHE = 10000;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private AuditChainHead chainHead;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Write the chain from the given position to the end.
+     *
+     * @param target Channel to write to (not closed)
+     * @param fromEntry Chain position to start at (0 = genesis), for resuming an earlier export
+     * @param compress Gzip the records
+     * @return Number of records written
+     */
+    public long export(WritableByteChannel target, long fromEntry, boolean compress) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).put(VERSION).put(compress ? FLAG_GZIP : 0).putLong(fromEntry).flip();
+        writeFully(target, header);
+
+        GZIPOutputStream gzip = compress ? new GZIPOutputStream(Channels.newOutputStream(target), IO_BUFFER) : null;
+        WritableByteChannel body = gzip != null ? Channels.newChannel(gzip) : target;
+        RecordWriter writer = new RecordWriter(body);
+
+        // Pre-sequencing entries come first, in id order
+        long legacyCount = logStore.countLegacy();
+        if (fromEntry < legacyCount) {
+            long toSkip = fromEntry;
+            long afterId = 0;
+            while (true) {
+                List<BloodTrackingLog> page = logStore.findLegacyAfterId(afterId, PAGE_SIZE);
+                if (toSkip >= page.size()) {
+                    toSkip -= page.size();
+                } else {
+                    writer.writeAll(page.subList((int) toSkip, page.size()));
+                    toSkip = 0;
+                }
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+        }
+
+        // Sequenced entries: the sequence number is the chain position
+        long nextSeq = Math.max(fromEntry, legacyCount);
+        while (true) {
+            List<BloodTrackingLog> page = logStore.findSequencedFrom(nextSeq, PAGE_SIZE);
+            writer.writeAll(page);
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            nextSeq = page.get(page.size() - 1).getChainSeq() + 1;
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+        trailer.putInt(END_MARKER).putLong(writer.count).flip();
+        writeFully(body, trailer);
+        if (gzip != null) {
+            gzip.finish();
+            gzip.flush();
+        }
+        System.out.println("📦 Exported " + writer.count + " audit entries from position " + fromEntry);
+        return writer.count;
+    }
+
+    /**
+     * Load an archive into the audit store, verifying every record as it is read.
+     * Hashes are recomputed and chain links checked, starting from the stored entries
+     * before the archive when it begins mid-chain. Records are inserted in batches of
+     * one transaction each; a record that conflicts with a stored entry fails its
+     * batch, and the error names the position to resume from.
+     *
+     * Not meant to run while the application is writing new audit entries.
+     *
+     * @param source Archive to read (not closed)
+     * @param skipEntries Chain position to start inserting at; earlier records are only verified
+     */
+    public ChainImportResult importArchive(ReadableByteChannel source, long skipEntries) throws IOException {
+        long started = System.currentTimeMillis();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(source, header);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not an audit chain archive");
+        }
+        byte version = header.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported archive version: " + version);
+        }
+        boolean compressed = (header.get() & FLAG_GZIP) != 0;
+        long position = header.getLong();
+
+        ReadableByteChannel body = compressed
+            ? Channels.newChannel(new GZIPInputStream(Channels.newInputStream(source), IO_BUFFER))
+            : source;
+        RecordReader reader = new RecordReader(body);
+        ImportVerifier verifier = new ImportVerifier(logStore, position);
+
+        ChainImportResult result = new ChainImportResult();
+        result.setNextEntry(Math.max(position, skipEntries));
+        List<BloodTrackingLog> batch = new ArrayList<>(PAGE_SIZE);
+        BloodTrackingLog log;
+        while ((log = reader.next()) != null) {
+            long at = verifier.check(log, position);
+            result.setEntriesRead(result.getEntriesRead() + 1);
+            if (at >= skipEntries) {
+                batch.add(log);
+            } else {
+                result.setEntriesSkipped(result.getEntriesSkipped() + 1);
+            }
+            position = at + 1;
+
+            if (batch.size() == PAGE_SIZE) {
+                insert(batch, result);
+                result.setNextEntry(position);
+            }
+        }
+        if (reader.declaredCount != result.getEntriesRead()) {
+            throw new IllegalStateException("Archive is truncated: " + result.getEntriesRead() +
+                " records read, " + reader.declaredCount + " declared; resume from position " + result.getNextEntry());
+        }
+        insert(batch, result);
+        result.setNextEntry(position);
+
+        chainHead.reload();
+        result.setDurationMs(System.currentTimeMillis() - started);
+        System.out.println("📥 Imported " + result.getEntriesImported() + " audit entries (" +
+                           result.getEntriesSkipped() + " skipped)");
+        return result;
+    }
+
+    /**
+     * Insert one batch in its own transaction (the store confirms every record landed).
+     */
+    private void insert(List<BloodTrackingLog> batch, ChainImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> logStore.importAll(batch));
+        } catch (DataIntegrityViolationException | IllegalStateException e) {
+            throw new IllegalStateException("Archive records conflict with stored audit entries; " +
+                "nothing from position " + result.getNextEntry() + " on was imported", e);
+        }
+        result.setEntriesImported(result.getEntriesImported() + batch.size());
+        batch.clear();
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Archive ended unexpectedly");
+            }
+        }
+    }
+
+    /**
+     * Encodes records into one reused buffer and writes it out in large chunks.
+     */
+    private static final class RecordWriter {
+        private final WritableByteChannel channel;
+        private final AuditRecordCodec codec = new AuditRecordCodec();
+        private final ByteBuffer out = ByteBuffer.allocate(IO_BUFFER);
+        private long count;
+
+        private RecordWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void writeAll(List<BloodTrackingLog> logs) throws IOException {
+            for (BloodTrackingLog log : logs) {
+                ByteBuffer record = codec.encode(log);
+                if (record.remaining() > out.remaining()) {
+                    drain();
+                }
+                if (record.remaining() > out.capacity()) {
+                    writeFully(channel, record);  // oversized record goes straight through
+                } else {
+                    out.put(record);
+                }
+                count++;
+            }
+            drain();
+        }
+
+        private void drain() throws IOException {
+            out.flip();
+            writeFully(channel, out);
+            out.clear();
+        }
+    }
+
+    /**
+     * Reads length-prefixed records through one buffer, refilling it as it drains.
+     */
+    private static final class RecordReader {
+        private final ReadableByteChannel channel;
+        private ByteBuffer in = ByteBuffer.allocate(IO_BUFFER);
+        private long declaredCount = -1;
+
+        private RecordReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            in.flip();
+        }
+
+        /**
+         * Next record, or null at the end marker.
+         */
+        private BloodTrackingLog next() throws IOException {
+            require(Integer.BYTES);
+            int length = in.getInt();
+            if (length == END_MARKER) {
+                require(Long.BYTES);
+                declaredCount = in.getLong();
+                return null;
+            }
+            if (length < 0) {
+                throw new IllegalStateException("Corrupt archive: negative record length");
+            }
+            require(length);
+            ByteBuffer payload = in.slice();
+            payload.limit(length);
+            in.position(in.position() + length);
+            return AuditRecordCodec.decode(payload);
+        }
+
+        private void require(int bytes) throws IOException {
+            if (in.remaining() >= bytes) {
+                return;
+            }
+            if (bytes > in.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(bytes);
+                grown.put(in);
+                in = grown;
+            } else {
+                in.compact();
+            }
+            while (in.position() < bytes) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("Archive ended unexpectedly");
+                }
+            }
+            in.flip();
+        }
+    }
+
+    /**
+     * Checks each record against the one before it on its chain while importing.
+     * Predecessors that are not in the archive (it starts mid-chain, or a unit's
+     * head fell out of the cache) are read from the store.
+     */
+    private static final class ImportVerifier {
+        private final AuditLogStore logStore;
+        private final Map<String, String> unitHeads = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > UNIT_HEAD_CACHE;
+            }
+        };
+        private String lastGlobalHash;
+
+        private ImportVerifier(AuditLogStore logStore, long firstPosition) {
+            this.logStore = logStore;
+            lastGlobalHash = firstPosition == 0 ? AuditChainHead.GENESIS_HASH : storedGlobalPredecessor(firstPosition);
+        }
+
+        // Hash of the last global entry before a chain position, which must already be stored
+        private String storedGlobalPredecessor(long position) {
+            String hash = logStore.findGlobalPredecessorHash(position);
+            if (hash == null) {
+                throw new IllegalStateException("Archive starts at position " + position +
+                    " but the entries before it are not stored; import the earlier part first");
+            }
+            return hash;
+        }
+
+        private String unitHead(String bloodUnitId, long position) {
+            String cached = unitHeads.get(bloodUnitId);
+            if (cached != null) {
+                return cached;
+            }
+            String stored = logStore.findUnitPredecessorHash(bloodUnitId, position);
+            return stored != null ? stored : AuditChainHead.GENESIS_HASH;
+        }
+
+        /**
+         * Check one record expected at the given position; returns the position it takes.
+         * A unit entry may skip ahead over numbers left unused by rolled-back unit commits.
+         */
+        private long check(BloodTrackingLog log, long expectedPosition) {
+            boolean unitScoped = UnitChainHeads.UNIT_SCOPE.equals(log.getLinkScope());
+            long position = expectedPosition;
+            if (log.getChainSeq() != null && log.getChainSeq() != position) {
+                if (!unitScoped || log.getChainSeq() < position) {
+                    throw new IllegalStateException("Archive entry at position " + position +
+                        " has chain sequence " + log.getChainSeq());
+                }
+                position = log.getChainSeq();
+            }
+            if (!Objects.equals(BloodTrackingService.calculateHash(log), log.getHash())) {
+                throw new IllegalStateException("Hash mismatch at position " + position + " (log id " + log.getId() + ")");
+            }
+
+            String previousHash = log.getPreviousHash() != null ? log.getPreviousHash() : AuditChainHead.GENESIS_HASH;
+            String expected = unitScoped ? unitHead(log.getBloodUnitId(), position) : lastGlobalHash;
+            if (!expected.equals(previousHash)) {
+                throw new IllegalStateException("Broken link at position " + position + " (log id " + log.getId() + ")");
+            }
+
+            if (!unitScoped) {
+                lastGlobalHash = log.getHash();
+            }
+            unitHeads.put(log.getBloodUnitId(), log.getHash());
+            return position;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.ChainVerificationResult;
+import com.example.bloodchain.model.BloodTrackingLog;
+import com.example.bloodchain.model.ChainCheckpoint;
+import com.example.bloodchain.repository.ChainCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Verifies the audit hash chain, read through the audit store.
+ * Entries are read forward in keyset pages (bounded memory at any table size),
+ * every hash is recomputed and every previousHash link is checked.
+ * Checks run on a schedule, never on a request thread: each run continues from where
+ * the previous one stopped, and the status endpoints serve the latest result (latest()).
+ * Progress is also saved as signed checkpoints, at most once per checkpoint interval,
+ * so routine checks after a restart only verify the new tail.
+ * Without a checkpoint key (BLOODCHAIN_CHECKPOINT_KEY) no checkpoints are written or
+ * trusted: the first run after a start verifies the whole chain, and later runs continue
+ * from memory as usual.
+ * Entries on a per-unit sub-chain are checked against the previous entry of their unit.
+ * Unit entries commit in parallel, so their sequence numbers may have gaps (numbers
+ * of rolled-back commits); an old gap before a unit entry is passed over, and a unit
+ * entry that commits after its number was passed over is picked up as the predecessor
+ * of the next entry of its unit.
+ */
+@Service
+public class ChainVerificationService {
+
+    private static final int PAGE_SIZE = 5000;
+
+    // Global entries commit in sequence order, so a gap is a break; one this recent is re-checked next run
+    private static final long GAP_GRACE_SECONDS = 60;
+
+    // Per-unit heads kept while scanning; older units are looked up again when they reappear
+    private static final int UNIT_HEAD_CACHE = 10000;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private ChainCheckpointRepository checkpointRepository;
+
+    @Value("${bloodchain.audit.checkpoint-key:}")
+    private String checkpointKey;
+
+    // Minimum time between saved checkpoints; runs in between only advance the in-memory position
+    @Value("${bloodchain.audit.checkpoint-interval-ms:3600000}")
+    private long checkpointIntervalMs;
+
+    private volatile ChainVerificationResult latest;
+
+    private volatile boolean fullRequested;
+
+    // Guarded by this: where the last successful run stopped (unsigned, never stored as is)
+    private ChainCheckpoint progress;
+    private long lastCheckpointAt;
+    private boolean fullFailed;  // a break before the checkpoints; only a passing full run clears it
+
+    @PostConstruct
+    public void checkKey() {
+        if (!checkpointsEnabled()) {
+            System.err.println("⚠️ No audit checkpoint key set (BLOODCHAIN_CHECKPOINT_KEY); chain checkpoints are disabled and the chain is verified in full after every start");
+        }
+        ChainVerificationResult unverified = new ChainVerificationResult();
+        unverified.setValid(false);
+        unverified.setMessage("⏳ Blockchain verification has not completed yet.");
+        latest = unverified;
+    }
+
+    /**
+     * Result of the most recent verification run; never runs a check itself.
+     */
+    public ChainVerificationResult latest() {
+        return latest;
+    }
+
+    /**
+     * Have the next scheduled run verify the whole chain from genesis.
+     */
+    public void requestFullVerification() {
+        fullRequested = true;
+    }
+
+    /**
+     * Scheduled check: the new tail, or the whole chain when requested.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.audit.verify-interval-ms:60000}")
+    public void verifyScheduled() {
+        if (fullRequested) {
+            fullRequested = false;
+            verifyFull();
+        } else {
+            verifyIncremental();
+        }
+    }
+
+    /**
+     * Verify entries added since the last run (or, after a restart, the last checkpoint).
+     * Falls back to a full verification when there is no trustworthy starting point
+     * (no run yet and no checkpoint key, no checkpoint, or one with a bad signature).
+     */
+    public synchronized ChainVerificationResult verifyIncremental() {
+        if (fullFailed) {
+            return latest;
+        }
+        if (progress != null || !checkpointsEnabled()) {
+            return run(progress);
+        }
+        ChainCheckpoint checkpoint = checkpointRepository.findTopByOrderByIdDesc();
+        if (checkpoint != null && !isSignatureValid(checkpoint)) {
+            ChainVerificationResult result = run(null);
+            result.setMessage("Checkpoint #" + checkpoint.getId() + " has an invalid signature. Full check: " + result.getMessage());
+            latest = result;
+            return result;
+        }
+        return run(checkpoint);
+    }
+
+    /**
+     * Verify the whole chain from genesis.
+     */
+    public synchronized ChainVerificationResult verifyFull() {
+        return run(null);
+    }
+
+    private ChainVerificationResult run(ChainCheckpoint checkpoint) {
+        long started = System.currentTimeMillis();
+        Cursor cursor = new Cursor(logStore, checkpoint);
+
+        // Phase 1: pre-sequencing entries, linked in id order
+        if (cursor.lastSeq == null) {
+            while (cursor.scan(logStore.findLegacyAfterId(cursor.lastLogId, PAGE_SIZE)) == PAGE_SIZE && cursor.isOpen()) {
+                // next page
+            }
+        }
+
+        // Phase 2: sequenced entries, the first numbered after the legacy prefix
+        while (cursor.isOpen() && cursor.scan(logStore.findSequencedFrom(cursor.nextSeq(), PAGE_SIZE)) == PAGE_SIZE) {
+            // next page
+        }
+
+        if (checkpoint == null) {
+            fullFailed = cursor.error != null;
+        }
+        if (cursor.error == null) {
+            progress = position(cursor);
+            long now = System.currentTimeMillis();
+            if (cursor.checked > 0 && checkpointsEnabled() && now - lastCheckpointAt >= checkpointIntervalMs) {
+                saveCheckpoint(position(cursor));
+                lastCheckpointAt = now;
+            }
+        }
+
+        ChainVerificationResult result = new ChainVerificationResult();
+        result.setValid(cursor.error == null);
+        result.setIncremental(checkpoint != null);
+        result.setEntriesChecked(cursor.checked);
+        result.setEntriesVerified(cursor.entriesVerified);
+        result.setLastVerifiedLogId(cursor.lastLogId > 0 ? cursor.lastLogId : null);
+        result.setLastVerifiedSeq(cursor.lastSeq);
+        result.setFirstInvalidLogId(cursor.invalidLogId);
+        result.setDurationMs(System.currentTimeMillis() - started);
+        result.setVerifiedAt(LocalDateTime.now());
+        result.setMessage(cursor.error == null
+            ? "✅ Blockchain is valid and up-to-date."
+            : "❌ " + cursor.error);
+        latest = result;
+        return result;
+    }
+
+    private boolean checkpointsEnabled() {
+        return checkpointKey != null && !checkpointKey.isBlank();
+    }
+
+    private static ChainCheckpoint position(Cursor cursor) {
+        ChainCheckpoint checkpoint = new ChainCheckpoint();
+        checkpoint.setLastLogId(cursor.lastLogId);
+        checkpoint.setLastChainSeq(cursor.lastSeq);
+        checkpoint.setLastHash(cursor.lastHash);
+        checkpoint.setEntriesVerified(cursor.entriesVerified);
+        checkpoint.setVerifiedAt(LocalDateTime.now());
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(ChainCheckpoint checkpoint) {
+        checkpoint.setSignature(sign(checkpoint));
+        checkpointRepository.save(checkpoint);
+    }
+
+    private boolean isSignatureValid(ChainCheckpoint checkpoint) {
+        return MessageDigest.isEqual(
+            sign(checkpoint).getBytes(StandardCharsets.US_ASCII),
+            checkpoint.getSignature().getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    private String sign(ChainCheckpoint checkpoint) {
+        String payload = checkpoint.getLastLogId() + "|" + checkpoint.getLastChainSeq() + "|" +
+                         checkpoint.getLastHash() + "|" + checkpoint.getEntriesVerified();
+        return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, checkpointKey).hmacHex(payload);
+    }
+
+    /**
+     * Forward-only verification state: the last verified global entry plus a bounded
+     * set of recent per-unit heads.
+     */
+    private static final class Cursor {
+        private final AuditLogStore logStore;
+        private final Map<String, String> unitHeads = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > UNIT_HEAD_CACHE;
+            }
+        };
+        private long lastLogId;
+        private Long lastSeq;
+        private String lastHash = AuditChainHead.GENESIS_HASH;
+        private long entriesVerified;
+        private long checked;
+        private boolean stopped;
+        private String error;
+        private Long invalidLogId;
+
+        private Cursor(AuditLogStore logStore, ChainCheckpoint checkpoint) {
+            this.logStore = logStore;
+            if (checkpoint != null) {
+                lastLogId = checkpoint.getLastLogId();
+                lastSeq = checkpoint.getLastChainSeq();
+                lastHash = checkpoint.getLastHash();
+                entriesVerified = checkpoint.getEntriesVerified();
+            }
+        }
+
+        private boolean isOpen() {
+            return !stopped && error == null;
+        }
+
+        // Without gaps a sequence number equals the count of entries before it
+        private long nextSeq() {
+            return lastSeq != null ? lastSeq + 1 : entriesVerified;
+        }
+
+        /**
+         * Check one page of entries; returns the number of entries read.
+         */
+        private int scan(List<BloodTrackingLog> page) {
+            for (BloodTrackingLog log : page) {
+                if (!isOpen()) {
+                    break;
+                }
+                check(log);
+            }
+            return page.size();
+        }
+
+        private void check(BloodTrackingLog log) {
+            long id = log.getId();
+            Long seq = log.getChainSeq();
+            String storedHash = log.getHash();
+            boolean unitScoped = UnitChainHeads.UNIT_SCOPE.equals(log.getLinkScope());
+
+            if (seq != null && seq != nextSeq()) {
+                if (AuditChainHead.sequencedAt(log).isAfter(LocalDateTime.now().minusSeconds(GAP_GRACE_SECONDS))) {
+                    stopped = true;  // recent gap; verify it next run
+                    return;
+                }
+                if (!unitScoped) {
+                    fail(id, String.format("Chain entry #%d is missing (found #%d at log id %d)", nextSeq(), seq, id));
+                    return;
+                }
+                // Numbers left unused by rolled-back unit commits
+            }
+
+            String previousHash = log.getPreviousHash() != null ? log.getPreviousHash() : AuditChainHead.GENESIS_HASH;
+            String expectedPrevious = unitScoped ? unitHead(log.getBloodUnitId(), seq) : lastHash;
+            if (unitScoped && !previousHash.equals(expectedPrevious) && unitHeads.containsKey(log.getBloodUnitId())) {
+                // The unit may have an entry that committed after its number was passed over
+                expectedPrevious = storedUnitPredecessor(log.getBloodUnitId(), seq);
+            }
+            if (!previousHash.equals(expectedPrevious)) {
+                fail(id, String.format("Broken link at log id %d: previous hash does not match the preceding entry", id));
+                return;
+            }
+
+            if (!Objects.equals(BloodTrackingService.calculateHash(log), storedHash)) {
+                fail(id, String.format("Hash mismatch at log id %d: entry has been modified", id));
+                return;
+            }
+
+            lastLogId = id;
+            lastSeq = seq;
+            if (!unitScoped) {
+                lastHash = storedHash;
+            }
+            unitHeads.put(log.getBloodUnitId(), storedHash);
+            entriesVerified++;
+            checked++;
+        }
+
+        private String unitHead(String bloodUnitId, long seq) {
+            String cached = unitHeads.get(bloodUnitId);
+            return cached != null ? cached : storedUnitPredecessor(bloodUnitId, seq);
+        }
+
+        private String storedUnitPredecessor(String bloodUnitId, long seq) {
+            String previous = logStore.findUnitPredecessorHash(bloodUnitId, seq);
+            return previous != null ? previous : AuditChainHead.GENESIS_HASH;
+        }
+
+        private void fail(long id, String message) {
+            error = message;
+            invalidLogId = id;
+        }
+    }
+}
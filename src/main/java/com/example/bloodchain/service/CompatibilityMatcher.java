@@ -0,0 +1,167 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+import com.example.bloodchain.model.SubstitutionPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses components for a request across compatible blood groups.
+ *
+ * Donor groups come from the BloodCompatibility bitmaps; each group's candidates
+ * come first-expiry-first-out from the inventory index. Candidates are scored
+ * (lower is better) by
+ * - compatibility preference: the requested group costs nothing, a substitute
+ *   costs more, and a universal donor (O- cells, AB plasma) more again;
+ * - time to expiry, relative to the component's shelf life, so stock about to
+ *   lapse is used before it is wasted;
+ * - scarcity: groups with little stock of this component type cost more.
+ *
+ * How far matching may substitute is set per urgency by SubstitutionPolicy.
+ */
+@Service
+public class CompatibilityMatcher {
+
+    private static final double SUBSTITUTE_COST = 2.0;
+    private static final double UNIVERSAL_DONOR_COST = 2.0;
+    private static final double EXPIRY_WEIGHT = 3.0;
+    private static final double SCARCITY_WEIGHT = 2.0;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Value("${bloodchain.matching.policy.routine:EXACT_ONLY}")
+    private SubstitutionPolicy routinePolicy;
+
+    @Value("${bloodchain.matching.policy.urgent:COMPATIBLE_IF_SHORT}")
+    private SubstitutionPolicy urgentPolicy;
+
+    @Value("${bloodchain.matching.policy.emergency:COMPATIBLE}")
+    private SubstitutionPolicy emergencyPolicy;
+
+    /**
+     * Substitution policy applied to requests of this urgency.
+     */
+    public SubstitutionPolicy policyFor(RequestUrgency urgency) {
+        if (urgency == null) {
+            return routinePolicy;
+        }
+        return switch (urgency) {
+            case ROUTINE -> routinePolicy;
+            case URGENT -> urgentPolicy;
+            case EMERGENCY -> emergencyPolicy;
+        };
+    }
+
+    /**
+     * Best candidates for a request, best first, at most quantity.
+     *
+     * @param exclude Component ids not to propose (e.g. already tried)
+     */
+    public List<Match> match(ComponentType type, String bloodGroup, int quantity,
+                             RequestUrgency urgency, Set<Long> exclude) {
+        SubstitutionPolicy policy = policyFor(urgency);
+        int recipient = BloodCompatibility.index(bloodGroup);
+        LocalDate today = LocalDate.now();
+        int fetch = quantity + exclude.size();
+
+        List<Match> exact = new ArrayList<>();
+        for (InventoryIndex.Available available : inventoryIndex.firstToExpireWithDates(type, bloodGroup, fetch)) {
+            if (!exclude.contains(available.id())) {
+                exact.add(new Match(available.id(), bloodGroup, available.expiryDate(), 0, false));
+            }
+        }
+
+        // Unknown group strings can only be matched exactly
+        if (recipient < 0 || policy == SubstitutionPolicy.EXACT_ONLY
+                || (policy == SubstitutionPolicy.COMPATIBLE_IF_SHORT && exact.size() >= quantity)) {
+            return exact.size() > quantity ? new ArrayList<>(exact.subList(0, quantity)) : exact;
+        }
+
+        int mask = BloodCompatibility.donorMask(type, recipient);
+        int maxStock = 1;
+        for (int donor = 0; donor < BloodCompatibility.GROUPS; donor++) {
+            if ((mask & (1 << donor)) != 0) {
+                maxStock = Math.max(maxStock, inventoryIndex.count(type, BloodCompatibility.name(donor)));
+            }
+        }
+
+        List<Match> scored = new ArrayList<>();
+        for (Match candidate : exact) {
+            scored.add(candidate.withScore(score(type, recipient, recipient, candidate.expiryDate(), today, maxStock)));
+        }
+        for (int donor = 0; donor < BloodCompatibility.GROUPS; donor++) {
+            if (donor == recipient || (mask & (1 << donor)) == 0) {
+                continue;
+            }
+            String donorGroup = BloodCompatibility.name(donor);
+            for (InventoryIndex.Available available : inventoryIndex.firstToExpireWithDates(type, donorGroup, fetch)) {
+                if (!exclude.contains(available.id())) {
+                    scored.add(new Match(available.id(), donorGroup, available.expiryDate(),
+                        score(type, donor, recipient, available.expiryDate(), today, maxStock), true));
+                }
+            }
+        }
+
+        // COMPATIBLE_IF_SHORT keeps every exact match and fills the rest; COMPATIBLE ranks all together
+        Comparator<Match> order = Comparator.comparingDouble(Match::score);
+        if (policy == SubstitutionPolicy.COMPATIBLE_IF_SHORT) {
+            order = Comparator.comparing(Match::substitute).thenComparing(order);
+        }
+        scored.sort(order);
+        return scored.size() > quantity ? new ArrayList<>(scored.subList(0, quantity)) : scored;
+    }
+
+    /**
+     * Cost of giving a donor group's component to a recipient group (lower is better).
+     */
+    double score(ComponentType type, int donor, int recipient, LocalDate expiryDate, LocalDate today, int maxStock) {
+        int stock = inventoryIndex.count(type, BloodCompatibility.name(donor));
+        return score(type, donor, recipient, ChronoUnit.DAYS.between(today, expiryDate), stock, maxStock);
+    }
+
+    /**
+     * Same cost with days to expiry and the donor group's stock given by the caller
+     * (the batch allocator scores against its own shrinking stock).
+     */
+    double score(ComponentType type, int donor, int recipient, long daysLeft, int stock, int maxStock) {
+        double cost = 0;
+        if (donor != recipient) {
+            cost += SUBSTITUTE_COST;
+            if (BloodCompatibility.isUniversalDonor(type, donor)) {
+                cost += UNIVERSAL_DONOR_COST;
+            }
+        }
+
+        cost += EXPIRY_WEIGHT * Math.min(1.0, Math.max(0, daysLeft) / (double) shelfLifeDays(type));
+        cost += SCARCITY_WEIGHT * (1.0 - Math.min(1.0, stock / (double) maxStock));
+        return cost;
+    }
+
+    static int shelfLifeDays(ComponentType type) {
+        return switch (type) {
+            case RBC -> 42;
+            case PLASMA -> 365;
+            case PLATELETS -> 5;
+            case WHOLE_BLOOD -> 35;
+        };
+    }
+
+    /**
+     * A proposed component: its group, expiry, score and whether it substitutes the requested group.
+     */
+    public record Match(long componentId, String bloodGroup, LocalDate expiryDate, double score, boolean substitute) {
+        Match withScore(double newScore) {
+            return new Match(componentId, bloodGroup, expiryDate, newScore, substitute);
+        }
+    }
+}
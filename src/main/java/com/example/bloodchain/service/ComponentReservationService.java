@@ -0,0 +1,157 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.ComponentStatus;
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+import com.example.bloodchain.repository.BloodComponentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Claims AVAILABLE blood components for a request without holding locks while choosing.
+ *
+ * Candidates are chosen by the CompatibilityMatcher (first-expiry-first-out from the
+ * inventory index, across compatible groups as the urgency allows) and claimed
+ * with one JDBC batch of conditional updates (WHERE status = 'AVAILABLE'). Each
+ * statement's update count says whether that component was won; components lost
+ * to a concurrent approver are skipped and the shortfall is retried with the next
+ * candidates. A component can only leave AVAILABLE once, so two approvals can
+ * never claim the same one. Must run inside the caller's transaction: claims
+ * roll back with it.
+ */
+@Service
+public class ComponentReservationService {
+
+    private static final String CLAIM_SQL =
+        "UPDATE blood_components SET status = 'RESERVED', updated_at = ? " +
+        "WHERE id = ? AND status = 'AVAILABLE' AND expiry_date > ?";
+
+    private static final String CLAIMED_DETAILS =
+        "SELECT c.id, c.blood_unit_id, c.component_type, u.blood_unit_id AS unit_code, u.blood_group " +
+        "FROM blood_components c JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "WHERE c.id IN (%s) ORDER BY c.expiry_date, c.id";
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private BloodComponentRepository componentRepository;
+
+    @Autowired
+    private CompatibilityMatcher matcher;
+
+    @Autowired
+    private InventoryCounters inventoryCounters;
+
+    /**
+     * Reserve up to quantity components for a recipient blood group, best match first.
+     *
+     * @return The claimed components (fewer than quantity if stock ran out)
+     */
+    public List<ClaimedComponent> reserve(ComponentType type, String bloodGroup, int quantity,
+                                          RequestUrgency urgency) {
+        LocalDate today = LocalDate.now();
+        List<Long> claimed = new ArrayList<>();
+        Set<Long> tried = new HashSet<>();
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && claimed.size() < quantity; attempt++) {
+            int needed = quantity - claimed.size();
+            List<Long> candidates = candidates(type, bloodGroup, needed, urgency, tried, today);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            tried.addAll(candidates);
+
+            // Same lock order for every approver
+            candidates.sort(Comparator.naturalOrder());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(CLAIM_SQL, candidates, candidates.size(), (ps, id) -> {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, id);
+                ps.setDate(3, Date.valueOf(today));
+            });
+
+            List<Long> lost = new ArrayList<>();
+            int[] results = counts.length > 0 ? counts[0] : new int[0];
+            for (int i = 0; i < candidates.size(); i++) {
+                int result = i < results.length ? results[i] : Statement.SUCCESS_NO_INFO;
+                if (result == Statement.SUCCESS_NO_INFO) {
+                    // Ownership can't be told from the row afterwards, so never guess
+                    throw new IllegalStateException("Reservation batch returned no per-row update counts");
+                }
+                if (result > 0) {
+                    claimed.add(candidates.get(i));
+                } else {
+                    lost.add(candidates.get(i));
+                }
+            }
+            // Lost rows are no longer AVAILABLE (or expired); stop offering them
+            lost.forEach(inventoryIndex::discard);
+        }
+
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        inventoryIndex.removeAfterCommit(claimed);
+        List<ClaimedComponent> details = details(claimed);
+        for (ClaimedComponent component : details) {
+            inventoryCounters.componentChanged(component.unitId(), component.componentType(),
+                ComponentStatus.AVAILABLE.name(), ComponentStatus.RESERVED.name());
+        }
+        return details;
+    }
+
+    private List<Long> candidates(ComponentType type, String bloodGroup, int limit, RequestUrgency urgency,
+                                  Set<Long> exclude, LocalDate today) {
+        List<Long> ids = new ArrayList<>();
+        if (inventoryIndex.isReady()) {
+            for (CompatibilityMatcher.Match match : matcher.match(type, bloodGroup, limit, urgency, exclude)) {
+                ids.add(match.componentId());
+            }
+            return ids;
+        }
+        // Index not built yet: exact group only, straight from the table
+        componentRepository.findAvailableComponents(type, bloodGroup, today).stream()
+            .filter(component -> !exclude.contains(component.getId()))
+            .limit(limit)
+            .forEach(component -> ids.add(component.getId()));
+        return ids;
+    }
+
+    private List<ClaimedComponent> details(List<Long> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query(String.format(CLAIMED_DETAILS, placeholders),
+            (rs, rowNum) -> new ClaimedComponent(
+                rs.getLong("id"),
+                rs.getLong("blood_unit_id"),
+                rs.getString("unit_code"),
+                rs.getString("blood_group"),
+                ComponentType.valueOf(rs.getString("component_type"))
+            ),
+            ids.toArray());
+    }
+
+    /**
+     * A component claimed for a request, with what the caller needs for mappings and audit.
+     */
+    public record ClaimedComponent(long id, long unitId, String bloodUnitId, String bloodGroup,
+                                   ComponentType componentType) {}
+}
@@ -0,0 +1,294 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodRequest;
+import com.example.bloodchain.model.BloodRequestStatus;
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.repository.BloodRequestRepository;
+import com.example.bloodchain.repository.BloodUnitRepository;
+import com.example.bloodchain.repository.DonorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory figures for the blood bank dashboard overview.
+ *
+ * Polling the overview used to run six counts and load every unit expiring within
+ * a week on each hit. The figures are now kept here and moved by the events that
+ * change them, once their transaction commits:
+ * - blood unit created or status changed (from InventoryCounters, which sees JPA
+ *   saves and bulk JDBC updates alike);
+ * - blood request created or status changed (a Hibernate listener registered here).
+ * Donor and audit entry totals, and the expiring-soon window as days pass, are
+ * picked up by a reconcile against the database every few seconds, which also
+ * corrects any drift in the event-driven figures. Chain validity is the latest
+ * scheduled verification result, also taken at each reconcile.
+ *
+ * Each change bumps a version that is served as the ETag, so a poll with a
+ * current If-None-Match is answered 304 without touching the database.
+ */
+@Service
+public class DashboardSnapshot implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // Units expiring within this many days (and not yet expired) count as expiring soon
+    private static final int EXPIRING_DAYS = 7;
+
+    // Distinguishes versions handed out before and after a restart
+    private static final long BOOT_ID = System.currentTimeMillis();
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private DonorRepository donorRepository;
+
+    @Autowired
+    private AuditLogStore auditLogStore;
+
+    @Autowired
+    private ChainVerificationService verificationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private volatile Overview current;
+
+    @PostConstruct
+    public void init() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * The current figures (loaded from the database on first use).
+     */
+    public Overview current() {
+        Overview overview = current;
+        if (overview == null) {
+            reconcile();
+            overview = current;
+        }
+        return overview;
+    }
+
+    /**
+     * Recount every figure from the database; the version only moves if something differs.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.dashboard.reconcile-ms:30000}",
+               initialDelayString = "${bloodchain.dashboard.reconcile-ms:30000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        long totalCollected = bloodUnitRepository.count();
+        long dispatched = bloodUnitRepository.countByStatus(BloodUnitStatus.DISPATCHED);
+        long availableStock = bloodUnitRepository.countByStatus(BloodUnitStatus.STORED);
+        long expiringSoon = bloodUnitRepository.countByStatusAndExpiryDateAfterAndExpiryDateBefore(
+            BloodUnitStatus.STORED, today, today.plusDays(EXPIRING_DAYS));
+        long activeRequests = bloodRequestRepository.countByStatus(BloodRequestStatus.REQUESTED);
+        long totalDonors = donorRepository.count();
+        long totalBlocks = auditLogStore.count();
+        boolean blockchainValid = verificationService.latest().isValid();
+
+        synchronized (this) {
+            Overview previous = current;
+            Overview counted = new Overview(totalCollected, dispatched, availableStock, totalBlocks, blockchainValid,
+                totalDonors, expiringSoon, activeRequests, previous != null ? previous.version() : 0);
+            if (previous == null || !counted.sameFigures(previous)) {
+                current = counted.withVersion(counted.version() + 1);
+            }
+        }
+    }
+
+    /**
+     * Apply blood unit status changes once the current transaction commits.
+     */
+    public void unitsChanged(List<UnitChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            long collected = 0;
+            long dispatched = 0;
+            long stored = 0;
+            long expiring = 0;
+            for (UnitChange change : changes) {
+                collected += (change.toStatus() != null ? 1 : 0) - (change.fromStatus() != null ? 1 : 0);
+                dispatched += is(change.toStatus(), BloodUnitStatus.DISPATCHED) - is(change.fromStatus(), BloodUnitStatus.DISPATCHED);
+                int storedChange = is(change.toStatus(), BloodUnitStatus.STORED) - is(change.fromStatus(), BloodUnitStatus.STORED);
+                stored += storedChange;
+                if (expiresSoon(change.expiryDate(), today)) {
+                    expiring += storedChange;
+                }
+            }
+            long collectedDelta = collected;
+            long dispatchedDelta = dispatched;
+            long storedDelta = stored;
+            long expiringDelta = expiring;
+            update(overview -> new Overview(
+                overview.totalCollected() + collectedDelta,
+                overview.dispatched() + dispatchedDelta,
+                overview.availableStock() + storedDelta,
+                overview.totalBlocks(),
+                overview.blockchainValid(),
+                overview.totalDonors(),
+                overview.expiringSoon() + expiringDelta,
+                overview.activeRequests(),
+                overview.version()
+            ));
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        requestChanged(event.getEntity(), event.getPersister(), null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getOldState() != null) {
+            requestChanged(event.getEntity(), event.getPersister(), event.getOldState(), event.getState());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        requestChanged(event.getEntity(), event.getPersister(), event.getDeletedState(), null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void requestChanged(Object entity, EntityPersister persister, Object[] before, Object[] after) {
+        if (!(entity instanceof BloodRequest)) {
+            return;
+        }
+        int status = propertyIndex(persister, "status");
+        int delta = (after != null && after[status] == BloodRequestStatus.REQUESTED ? 1 : 0)
+            - (before != null && before[status] == BloodRequestStatus.REQUESTED ? 1 : 0);
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> update(overview -> new Overview(
+            overview.totalCollected(),
+            overview.dispatched(),
+            overview.availableStock(),
+            overview.totalBlocks(),
+            overview.blockchainValid(),
+            overview.totalDonors(),
+            overview.expiringSoon(),
+            overview.activeRequests() + delta,
+            overview.version()
+        )));
+    }
+
+    private synchronized void update(UnaryOperator<Overview> change) {
+        if (current == null) {
+            return;  // not loaded yet; the first reconcile counts it
+        }
+        Overview updated = change.apply(current);
+        if (!updated.sameFigures(current)) {
+            current = updated.withVersion(current.version() + 1);
+        }
+    }
+
+    static boolean expiresSoon(LocalDate expiryDate, LocalDate today) {
+        return expiryDate != null && expiryDate.isAfter(today) && expiryDate.isBefore(today.plusDays(EXPIRING_DAYS));
+    }
+
+    private static int is(String status, BloodUnitStatus expected) {
+        return expected.name().equals(status) ? 1 : 0;
+    }
+
+    private static int propertyIndex(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (property.equals(names[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No " + property + " property on " + persister.getEntityName());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A blood unit status change (fromStatus null = created, toStatus null = deleted).
+     */
+    public record UnitChange(String fromStatus, String toStatus, LocalDate expiryDate) {}
+
+    /**
+     * One version of the overview figures.
+     */
+    public record Overview(long totalCollected, long dispatched, long availableStock, long totalBlocks,
+                           boolean blockchainValid, long totalDonors, long expiringSoon, long activeRequests,
+                           long version) {
+
+        public String etag() {
+            return "\"" + BOOT_ID + "-" + version + "\"";
+        }
+
+        /**
+         * The figures in the shape the dashboard page reads.
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> overview = new HashMap<>();
+            overview.put("totalCollected", totalCollected);
+            overview.put("dispatched", dispatched);
+            overview.put("availableStock", availableStock);
+            overview.put("blockchainValid", blockchainValid);
+            overview.put("totalBlocks", totalBlocks);
+            overview.put("totalDonors", totalDonors);
+            overview.put("expiringSoon", expiringSoon);
+            overview.put("activeRequests", activeRequests);
+            return overview;
+        }
+
+        private boolean sameFigures(Overview other) {
+            return withVersion(other.version).equals(other);
+        }
+
+        private Overview withVersion(long newVersion) {
+            return new Overview(totalCollected, dispatched, availableStock, totalBlocks, blockchainValid,
+                totalDonors, expiringSoon, activeRequests, newVersion);
+        }
+    }
+}
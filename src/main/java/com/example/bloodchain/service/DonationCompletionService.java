@@ -10,8 +10,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 /**
  * Service for handling the completion of donation requests.
@@ -36,6 +34,9 @@ public class DonationCompletionService {
     @Autowired
     private BloodComponentService componentService;
 
+    @Autowired
+    private IdAllocationService idAllocationService;
+
     // TODO: Add InventoryService when available
     // @Autowired
     // private InventoryService inventoryService;
@@ -67,9 +68,10 @@ public class DonationCompletionService {
         
         // Step 2: Create blood unit
         BloodUnit bloodUnit = new BloodUnit();
-        bloodUnit.setBloodUnitId(generateBloodUnitId(data.getBloodBankId()));
+        bloodUnit.setBloodUnitId(idAllocationService.nextBankBloodUnitId(data.getBloodBankId()));
         bloodUnit.setDonorId(request.getDonorId());
         bloodUnit.setDonationRequestId(request.getRequestId());
+        bloodUnit.setBloodBankId(data.getBloodBankId());
         bloodUnit.setBloodGroup(request.getBloodGroup());
         bloodUnit.setDonationType(request.getDonationType() != null ? request.getDonationType() : ComponentType.WHOLE_BLOOD);
         bloodUnit.setCollectionDate(LocalDate.now());
@@ -122,20 +124,4 @@ public class DonationCompletionService {
         
         return savedUnit;
     }
-
-    /**
-     * Generate a standardized blood unit ID.
-     * Format: BB{BankId}-{YYYYMMDD}-{Random4Chars}
-     * Example: BB12-20260210-A9F3
-     */
-    private String generateBloodUnitId(int bloodBankId) {
-        String bankPart = String.format("BB%02d", bloodBankId);
-        String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String randomPart = UUID.randomUUID().toString()
-            .replace("-", "")
-            .substring(0, 4)
-            .toUpperCase();
-        
-        return String.format("%s-%s-%s", bankPart, datePart, randomPart);
-    }
 }
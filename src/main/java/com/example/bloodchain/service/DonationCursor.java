@@ -0,0 +1,40 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.DonationListItem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paged donation list: the (requestDate, requestId) of the
+ * last row returned. Handed to clients as an opaque URL-safe token.
+ */
+public record DonationCursor(LocalDate requestDate, long requestId) {
+
+    public static DonationCursor after(DonationListItem item) {
+        return new DonationCursor(item.getRequestDate(), item.getRequestId());
+    }
+
+    public String encode() {
+        String raw = requestDate + "|" + requestId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token from a client; null or blank means the first page.
+     */
+    public static DonationCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new DonationCursor(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodUnit;
+import com.example.bloodchain.repository.BloodUnitRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A donor's donation history (their blood units with the latest audit hash of each).
+ *
+ * Loaded with a fixed number of queries however many units the donor has: the
+ * units, then the latest hash of all of them in one batched audit store lookup.
+ * The result is cached per donor and dropped once a transaction commits that
+ * - appended an audit entry for one of the donor's units (status changes are logged), or
+ * - created a blood unit for the donor (a Hibernate listener registered here).
+ * Entries also expire after a TTL, as a bound on anything changed without either.
+ * Expired entries are swept on a schedule (together with their unit mappings), and at
+ * most cache-max-donors histories are cached at once; past that, loads are not cached.
+ */
+@Service
+public class DonationHistoryService implements PostInsertEventListener {
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${bloodchain.history.cache-ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${bloodchain.history.cache-max-donors:10000}")
+    private int maxDonors;
+
+    private final ConcurrentHashMap<Integer, CachedHistory> byDonor = new ConcurrentHashMap<>();
+
+    // Blood unit ID -> donor whose cached history lists it
+    private final ConcurrentHashMap<String, Integer> donorByUnit = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that overlapped one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class)
+            .appendListeners(EventType.POST_INSERT, this);
+    }
+
+    /**
+     * Donation records of a donor, in the shape the donor dashboard reads.
+     */
+    public List<Map<String, Object>> getDonations(int donorId) {
+        CachedHistory cached = byDonor.get(donorId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < ttlMs) {
+            return cached.records();
+        }
+
+        long stamp = invalidations.get();
+        List<BloodUnit> units = bloodUnitRepository.findByDonorId(donorId);
+        // Known before the hash lookup, so entries committed from here on evict this load
+        Set<String> unitIds = new HashSet<>();
+        units.forEach(unit -> unitIds.add(unit.getBloodUnitId()));
+        unitIds.forEach(unitId -> donorByUnit.put(unitId, donorId));
+        List<Map<String, Object>> records;
+        try {
+            records = toRecords(units, logStore.findLatestHashes(unitIds));
+        } catch (RuntimeException e) {
+            unitIds.forEach(unitId -> donorByUnit.remove(unitId, donorId));
+            throw e;
+        }
+
+        boolean room = byDonor.size() < maxDonors || byDonor.containsKey(donorId);
+        if (invalidations.get() == stamp && room) {
+            byDonor.put(donorId, new CachedHistory(records, unitIds, System.currentTimeMillis()));
+        } else {
+            unitIds.forEach(unitId -> donorByUnit.remove(unitId, donorId));
+        }
+        return records;
+    }
+
+    private static List<Map<String, Object>> toRecords(List<BloodUnit> units, Map<String, String> hashes) {
+        return units.stream().map(unit -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", unit.getBloodUnitId());
+            map.put("bloodUnitId", unit.getBloodUnitId());
+            map.put("units", unit.getVolumeMl());
+            map.put("donationDate", unit.getCollectionDate().toString());
+            map.put("location", unit.getStorageLocation() != null ? unit.getStorageLocation() : "Blood Bank");
+            map.put("status", unit.getStatus().toString());
+            map.put("blockHash", hashes.getOrDefault(unit.getBloodUnitId(), "Pending Verification"));
+            return Collections.unmodifiableMap(map);
+        }).toList();
+    }
+
+    /**
+     * Drop expired histories and their unit mappings, so donors who stop reading
+     * their history do not stay in memory. A sweep racing a reload of the same donor
+     * can leave the new history without its mappings; it is then served until its TTL.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.history.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        byDonor.forEach((donorId, cached) -> {
+            if (cached.loadedAt() < cutoff && byDonor.remove(donorId, cached)) {
+                cached.unitIds().forEach(unitId -> donorByUnit.remove(unitId, donorId));
+            }
+        });
+    }
+
+    /**
+     * Note an audit entry for a blood unit; the owning donor's history is dropped after commit.
+     */
+    public void unitLogged(String bloodUnitId) {
+        // Noted even while nothing is cached: a load that overlaps this transaction may cache the unit before it commits
+        if (bloodUnitId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictUnits(Set.of(bloodUnitId));
+            return;
+        }
+        pendingForTransaction().add(bloodUnitId);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof BloodUnit unit && unit.getDonorId() != null) {
+            int donorId = unit.getDonorId();
+            afterCommit(() -> evictDonor(donorId));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private Set<String> pendingForTransaction() {
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Set<String> created = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictUnits(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DonationHistoryService.this);
+            }
+        });
+        return created;
+    }
+
+    private void evictUnits(Collection<String> bloodUnitIds) {
+        // Bumped even when no unit is mapped yet: a load that read the units before this
+        // commit but has not mapped them must not cache what it read
+        invalidations.incrementAndGet();
+        for (String bloodUnitId : bloodUnitIds) {
+            Integer donorId = donorByUnit.get(bloodUnitId);
+            if (donorId != null) {
+                evictDonor(donorId);
+            }
+        }
+    }
+
+    private void evictDonor(int donorId) {
+        invalidations.incrementAndGet();
+        CachedHistory removed = byDonor.remove(donorId);
+        if (removed != null) {
+            removed.unitIds().forEach(unitId -> donorByUnit.remove(unitId, donorId));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record CachedHistory(List<Map<String, Object>> records, Set<String> unitIds, long loadedAt) {}
+}
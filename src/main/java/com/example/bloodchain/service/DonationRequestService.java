@@ -1,15 +1,21 @@
 package com.example.bloodchain.service;
 
+import com.example.bloodchain.dto.DonationListItem;
+import com.example.bloodchain.dto.DonationPage;
 import com.example.bloodchain.model.DonationRequest;
 import com.example.bloodchain.model.DonationRequestStatus;
 import com.example.bloodchain.repository.DonationRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -18,6 +24,11 @@ import java.util.List;
 @Service
 public class DonationRequestService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<DonationListItem> OLDEST_FIRST =
+        Comparator.comparing(DonationListItem::getRequestDate).thenComparing(DonationListItem::getRequestId);
+
     @Autowired
     private DonationRequestRepository donationRequestRepository;
 
@@ -100,6 +111,46 @@ public class DonationRequestService {
         return donationRequestRepository.findByDonorEmailOrderByRequestDateDesc(donorEmail);
     }
 
+    /**
+     * Get one page of the blood bank's donation list for the given statuses.
+     * Rows come with donor name and unit volume from one query per status: the
+     * (status, request_date, request_id) index only serves a single status in
+     * order, so each status is read as its own index range and the runs are merged.
+     *
+     * @param newestFirst Order by request date descending instead of ascending
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size Page size, or null for the whole list (no cursor then)
+     */
+    public DonationPage getDonationList(Collection<DonationRequestStatus> statuses, boolean newestFirst,
+                                        String cursor, Integer size) {
+        int limit = size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : Integer.MAX_VALUE;
+        DonationCursor after = DonationCursor.decode(cursor);
+        // One extra row is fetched to know whether another page follows
+        Limit fetch = size != null ? Limit.of(limit + 1) : Limit.unlimited();
+
+        List<DonationListItem> rows = new ArrayList<>();
+        for (DonationRequestStatus status : statuses) {
+            List<DonationRequestStatus> single = List.of(status);
+            if (newestFirst) {
+                rows.addAll(after == null
+                    ? donationRequestRepository.findListItemsNewestFirst(single, fetch)
+                    : donationRequestRepository.findListItemsBefore(single, after.requestDate(), after.requestId(), fetch));
+            } else {
+                rows.addAll(after == null
+                    ? donationRequestRepository.findListItems(single, fetch)
+                    : donationRequestRepository.findListItemsAfter(single, after.requestDate(), after.requestId(), fetch));
+            }
+        }
+        if (statuses.size() > 1) {
+            rows.sort(newestFirst ? OLDEST_FIRST.reversed() : OLDEST_FIRST);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<DonationListItem> items = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? DonationCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new DonationPage(items, next, hasMore);
+    }
+
     /**
      * Validate donor eligibility.
      */
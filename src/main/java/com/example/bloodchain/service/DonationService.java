@@ -1,8 +1,10 @@
 package com.example.bloodchain.service;
 
+import com.example.bloodchain.dto.DonationDTO;
 import com.example.bloodchain.model.Donation;
 import com.example.bloodchain.repository.DonationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,35 +14,29 @@ import java.util.UUID;
 @Service
 public class DonationService {
 
-    @Autowired
-    private DonationRepository donationRepository;
+    private static final int MAX_PAGE_SIZE = 1000;
 
     @Autowired
-    private com.example.bloodchain.repository.UserRepository userRepository;
+    private DonationRepository donationRepository;
 
-    public List<com.example.bloodchain.dto.DonationDTO> getPendingDonationsDTO() {
-        List<Donation> donations = donationRepository.findByStatus("Pending");
-        return mapToDTO(donations);
+    public List<DonationDTO> getPendingDonationsDTO() {
+        return withHealthStatus(donationRepository.findDTOByStatus("Pending"));
     }
 
-    public List<com.example.bloodchain.dto.DonationDTO> getAllDTO() {
-        List<Donation> donations = donationRepository.findAll();
-        return mapToDTO(donations);
+    /**
+     * One page of all donations in id order (one query, donor details joined in).
+     *
+     * @param afterId Id of the last donation of the previous page, 0 for the first page
+     */
+    public List<DonationDTO> getDTOPage(long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return withHealthStatus(donationRepository.findDTOAfter(afterId, Limit.of(limit)));
     }
 
-    private List<com.example.bloodchain.dto.DonationDTO> mapToDTO(List<Donation> donations) {
-        return donations.stream().map(d -> {
-            com.example.bloodchain.model.User user = userRepository.findById(d.getEmail()).orElse(null);
-            String name = (user != null) ? user.getName() : "Unknown";
-            String bloodGroup = (user != null) ? user.getBloodGroup() : "Unknown";
-            
-            com.example.bloodchain.dto.DonationDTO dto = new com.example.bloodchain.dto.DonationDTO(
-                d.getId(), name, bloodGroup, d.getUnits(), d.getDonationDate(), d.getLocation(), d.getStatus(), d.getBlockHash()
-            );
-            // Simulate health check status (or fetch from somewhere if available)
-            dto.setHealthStatus("Passed"); 
-            return dto;
-        }).collect(java.util.stream.Collectors.toList());
+    private static List<DonationDTO> withHealthStatus(List<DonationDTO> dtos) {
+        // Simulate health check status (or fetch from somewhere if available)
+        dtos.forEach(dto -> dto.setHealthStatus("Passed"));
+        return dtos;
     }
 
     public Donation addDonation(Donation donation) {
@@ -0,0 +1,333 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodComponent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Expiry timers for blood units and components.
+ *
+ * Every live item expiring within the next horizon-days days has two timers in a
+ * priority queue ordered by due time: an alert at alert-hour, alert-days before
+ * expiry, and the expiry itself at midnight after the expiry date (an item expires
+ * once its expiry date is before today). A short tick pops whatever is due, so
+ * a 5-day platelet component is expired minutes after it lapses rather than at
+ * the next nightly run.
+ *
+ * The queue only holds the horizon: it is loaded at startup and extended one day
+ * at a time with an indexed range query on expiry_date, never a full table scan.
+ * Components created by separation are registered when their transaction commits.
+ * Timers are not cancelled when an item is used or discarded; the due action
+ * re-checks the row, so a stale timer is a no-op. Timers whose action fails
+ * are put back and retried on the next tick. The nightly sweep in
+ * ScheduledTasks stays as a backstop for anything a timer missed.
+ */
+@Component
+public class ExpiryScheduler {
+
+    private static final String UNITS_EXPIRING =
+        "SELECT id, expiry_date FROM blood_units " +
+        "WHERE expiry_date >= ? AND expiry_date < ? AND status <> 'EXPIRED' AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String COMPONENTS_EXPIRING =
+        "SELECT id, expiry_date FROM blood_components " +
+        "WHERE expiry_date >= ? AND expiry_date < ? AND status <> 'EXPIRED' AND id > ? ORDER BY id LIMIT ?";
+
+    // Items still in stock when their alert is due
+    private static final String UNITS_TO_ALERT =
+        "SELECT blood_unit_id, blood_group, status, expiry_date FROM blood_units " +
+        "WHERE id IN (%s) AND status IN ('COLLECTED', 'TESTED') ORDER BY expiry_date, id";
+
+    private static final String COMPONENTS_TO_ALERT =
+        "SELECT c.component_id, c.component_type, u.blood_group, c.expiry_date " +
+        "FROM blood_components c JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "WHERE c.id IN (%s) AND c.status = 'AVAILABLE' ORDER BY c.expiry_date, c.id";
+
+    // Oldest possible expiry date, used for the first load so overdue items are caught up
+    private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpirySweepService expirySweepService;
+
+    @Autowired
+    private EmailService emailService;
+
+    // Days of timers kept in memory; must exceed alert-days so alerts are loaded in time
+    @Value("${bloodchain.expiry.horizon-days:7}")
+    private int horizonDays;
+
+    @Value("${bloodchain.expiry.alert-days:3}")
+    private int alertDays;
+
+    @Value("${bloodchain.expiry.alert-hour:9}")
+    private int alertHour;
+
+    // Inventory manager mailbox for expiry alerts; alerts are only logged when empty
+    @Value("${bloodchain.expiry.alert-email:}")
+    private String alertEmail;
+
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(Comparator.comparing(Timer::due));
+
+    // Expiry dates before this are loaded (exclusive end of the horizon)
+    private LocalDate loadedUntil = EPOCH;
+
+    @PostConstruct
+    public void init() {
+        try {
+            extendHorizon();
+        } catch (Exception e) {
+            System.err.println("❌ Expiry timers not loaded at startup, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register timers for components saved in the current transaction.
+     * Added after commit; nothing is scheduled if the transaction rolls back.
+     */
+    public void scheduleComponents(List<BloodComponent> components) {
+        List<BloodComponent> created = new ArrayList<>();
+        for (BloodComponent component : components) {
+            if (component.getId() != null && component.getExpiryDate() != null) {
+                created.add(component);
+            }
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(created);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(created);
+            }
+        });
+    }
+
+    /**
+     * Fire due timers and keep the horizon loaded.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.expiry.tick-ms:60000}")
+    public void tick() {
+        try {
+            extendHorizon();
+        } catch (Exception e) {
+            System.err.println("❌ Expiry horizon not extended: " + e.getMessage());
+        }
+
+        List<Timer> due = pollDue(LocalDateTime.now());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Timer> unitExpiries = new ArrayList<>();
+        List<Timer> componentExpiries = new ArrayList<>();
+        List<Timer> alerts = new ArrayList<>();
+        for (Timer timer : due) {
+            if (timer.alert()) {
+                alerts.add(timer);
+            } else {
+                (timer.kind() == Kind.UNIT ? unitExpiries : componentExpiries).add(timer);
+            }
+        }
+
+        // Each step puts its own timers back if it fails, so they are retried next tick
+        if (!componentExpiries.isEmpty()) {
+            try {
+                int expired = expirySweepService.expireComponentsById(ids(componentExpiries, Kind.COMPONENT));
+                System.out.println("⏰ Expired " + expired + " blood components on schedule");
+            } catch (Exception e) {
+                System.err.println("❌ Scheduled component expiry failed, retrying next tick: " + e.getMessage());
+                requeue(componentExpiries);
+            }
+        }
+        if (!unitExpiries.isEmpty()) {
+            try {
+                int expired = expirySweepService.expireBloodUnitsById(ids(unitExpiries, Kind.UNIT));
+                System.out.println("⏰ Expired " + expired + " blood units on schedule");
+            } catch (Exception e) {
+                System.err.println("❌ Scheduled unit expiry failed, retrying next tick: " + e.getMessage());
+                requeue(unitExpiries);
+            }
+        }
+        if (!alerts.isEmpty()) {
+            try {
+                sendExpiryAlert(ids(alerts, Kind.UNIT), ids(alerts, Kind.COMPONENT));
+            } catch (Exception e) {
+                System.err.println("❌ Expiry alert failed, retrying next tick: " + e.getMessage());
+                requeue(alerts);
+            }
+        }
+    }
+
+    /**
+     * Number of pending timers (for monitoring).
+     */
+    public synchronized int pendingTimers() {
+        return timers.size();
+    }
+
+    /**
+     * Load timers for expiry dates that entered the horizon since the last load.
+     */
+    private void extendHorizon() {
+        LocalDate target = LocalDate.now().plusDays(horizonDays);
+        LocalDate from;
+        synchronized (this) {
+            if (!loadedUntil.isBefore(target)) {
+                return;
+            }
+            from = loadedUntil;
+        }
+
+        List<Timer> loaded = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        load(UNITS_EXPIRING, Kind.UNIT, from, target, loaded, now);
+        load(COMPONENTS_EXPIRING, Kind.COMPONENT, from, target, loaded, now);
+
+        synchronized (this) {
+            timers.addAll(loaded);
+            loadedUntil = target;
+        }
+        System.out.println("📅 Expiry timers loaded through " + target.minusDays(1) + " (" + loaded.size() + " new)");
+    }
+
+    private void load(String sql, Kind kind, LocalDate from, LocalDate to, List<Timer> into, LocalDateTime now) {
+        long lastId = 0;
+        while (true) {
+            List<long[]> page = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new long[] { rs.getLong("id"), rs.getDate("expiry_date").toLocalDate().toEpochDay() },
+                Date.valueOf(from), Date.valueOf(to), lastId, LOAD_PAGE_SIZE);
+            for (long[] row : page) {
+                addTimers(into, kind, row[0], LocalDate.ofEpochDay(row[1]), now);
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return;
+            }
+            lastId = page.get(page.size() - 1)[0];
+        }
+    }
+
+    private void addTimers(List<Timer> into, Kind kind, long id, LocalDate expiryDate, LocalDateTime now) {
+        // Alerts already past are dropped rather than sent late (e.g. after a restart)
+        LocalDateTime alertAt = expiryDate.minusDays(alertDays).atTime(LocalTime.of(alertHour, 0));
+        if (alertAt.isAfter(now)) {
+            into.add(new Timer(alertAt, kind, id, true));
+        }
+        into.add(new Timer(expiryDate.plusDays(1).atStartOfDay(), kind, id, false));
+    }
+
+    private synchronized void offer(List<BloodComponent> created) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Timer> added = new ArrayList<>();
+        for (BloodComponent component : created) {
+            // Beyond the horizon the daily load picks the item up from the table
+            if (component.getExpiryDate().isBefore(loadedUntil)) {
+                addTimers(added, Kind.COMPONENT, component.getId(), component.getExpiryDate(), now);
+            }
+        }
+        timers.addAll(added);
+    }
+
+    // Ids of one kind; a set first, as an item registered on commit may also have been picked up by a load
+    private static List<Long> ids(List<Timer> timers, Kind kind) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Timer timer : timers) {
+            if (timer.kind() == kind) {
+                ids.add(timer.id());
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private synchronized void requeue(List<Timer> failed) {
+        timers.addAll(failed);
+    }
+
+    private synchronized List<Timer> pollDue(LocalDateTime now) {
+        List<Timer> due = new ArrayList<>();
+        while (!timers.isEmpty() && !timers.peek().due().isAfter(now)) {
+            due.add(timers.poll());
+        }
+        return due;
+    }
+
+    /**
+     * One digest mail listing everything whose alert came due in this tick.
+     */
+    private void sendExpiryAlert(List<Long> unitIds, List<Long> componentIds) {
+        StringBuilder body = new StringBuilder();
+        int items = 0;
+
+        for (List<Long> slice : slices(componentIds)) {
+            List<String> lines = jdbcTemplate.query(String.format(COMPONENTS_TO_ALERT, placeholders(slice.size())),
+                (rs, rowNum) -> String.format("- %s (%s, %s) expires %s",
+                    rs.getString("component_id"), rs.getString("component_type"),
+                    rs.getString("blood_group"), rs.getDate("expiry_date").toLocalDate()),
+                slice.toArray());
+            lines.forEach(line -> body.append(line).append('\n'));
+            items += lines.size();
+        }
+        for (List<Long> slice : slices(unitIds)) {
+            List<String> lines = jdbcTemplate.query(String.format(UNITS_TO_ALERT, placeholders(slice.size())),
+                (rs, rowNum) -> String.format("- %s (%s, %s) expires %s",
+                    rs.getString("blood_unit_id"), rs.getString("blood_group"),
+                    rs.getString("status"), rs.getDate("expiry_date").toLocalDate()),
+                slice.toArray());
+            lines.forEach(line -> body.append(line).append('\n'));
+            items += lines.size();
+        }
+
+        if (items == 0) {
+            return;
+        }
+        String subject = "BloodChain: " + items + " item(s) expiring within " + alertDays + " days";
+        if (alertEmail == null || alertEmail.isBlank()) {
+            System.out.println("⚠️ " + subject + " (no bloodchain.expiry.alert-email configured)\n" + body);
+            return;
+        }
+        emailService.sendEmail(alertEmail, subject,
+            "The following blood stock expires within " + alertDays + " days:\n\n" + body);
+    }
+
+    private static List<List<Long>> slices(List<Long> ids) {
+        List<List<Long>> slices = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += 1000) {
+            slices.add(ids.subList(from, Math.min(ids.size(), from + 1000)));
+        }
+        return slices;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private enum Kind { UNIT, COMPONENT }
+
+    private record Timer(LocalDateTime due, Kind kind, long id, boolean alert) {}
+}
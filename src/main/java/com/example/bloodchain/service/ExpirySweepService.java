@@ -0,0 +1,312 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.model.ComponentStatus;
+import com.example.bloodchain.model.ComponentType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk expiry of blood units and components.
+ *
+ * Expired rows are processed in chunks in primary key order. Each chunk is one
+ * transaction: the chunk's rows are selected and locked with the columns needed
+ * for auditing, flipped to EXPIRED with a single UPDATE, and their audit entries
+ * are handed to the tracking service, which writes them as one batch at commit.
+ *
+ * Memory is bounded by the chunk size. A sweep interrupted part way leaves only
+ * whole chunks committed; rows already EXPIRED no longer match, so running the
+ * sweep again simply continues with the rest.
+ */
+@Service
+public class ExpirySweepService {
+
+    private static final String NEXT_UNITS =
+        "SELECT id, blood_unit_id, status, expiry_date FROM blood_units " +
+        "WHERE expiry_date < ? AND status <> 'EXPIRED' AND id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String NEXT_COMPONENTS =
+        "SELECT c.id, c.blood_unit_id AS unit_id, c.component_type, c.status, c.expiry_date, u.blood_unit_id " +
+        "FROM blood_components c LEFT JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "WHERE c.expiry_date < ? AND c.status <> 'EXPIRED' AND c.id > ? ORDER BY c.id LIMIT ? FOR UPDATE OF c";
+
+    private static final String UNITS_BY_ID =
+        "SELECT id, blood_unit_id, status, expiry_date FROM blood_units " +
+        "WHERE id IN (%s) AND expiry_date < ? AND status <> 'EXPIRED' ORDER BY id FOR UPDATE";
+
+    private static final String COMPONENTS_BY_ID =
+        "SELECT c.id, c.blood_unit_id AS unit_id, c.component_type, c.status, c.expiry_date, u.blood_unit_id " +
+        "FROM blood_components c LEFT JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "WHERE c.id IN (%s) AND c.expiry_date < ? AND c.status <> 'EXPIRED' ORDER BY c.id FOR UPDATE OF c";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BloodTrackingService trackingService;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private InventoryCounters inventoryCounters;
+
+    @Value("${bloodchain.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // One sweep per table at a time; an overlapping trigger is skipped
+    private final AtomicBoolean unitSweepRunning = new AtomicBoolean();
+    private final AtomicBoolean componentSweepRunning = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Mark every blood unit whose expiry date has passed as EXPIRED.
+     *
+     * @return Number of units expired
+     */
+    public long expireBloodUnits() {
+        if (!unitSweepRunning.compareAndSet(false, true)) {
+            System.out.println("⏭️ Blood unit expiry sweep already running, skipped");
+            return 0;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            long total = 0;
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                Chunk chunk = transactionTemplate.execute(status -> expireUnitChunk(today, after));
+                if (chunk == null || chunk.size() == 0) {
+                    break;
+                }
+                total += chunk.size();
+                lastId = chunk.lastId();
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+            System.out.println("✅ Expired " + total + " blood units");
+            return total;
+        } finally {
+            unitSweepRunning.set(false);
+        }
+    }
+
+    /**
+     * Mark every blood component whose expiry date has passed as EXPIRED.
+     *
+     * @return Number of components expired
+     */
+    public long expireComponents() {
+        if (!componentSweepRunning.compareAndSet(false, true)) {
+            System.out.println("⏭️ Component expiry sweep already running, skipped");
+            return 0;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            long total = 0;
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                Chunk chunk = transactionTemplate.execute(status -> expireComponentChunk(today, after));
+                if (chunk == null || chunk.size() == 0) {
+                    break;
+                }
+                total += chunk.size();
+                lastId = chunk.lastId();
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+            System.out.println("✅ Expired " + total + " blood components");
+            return total;
+        } finally {
+            componentSweepRunning.set(false);
+        }
+    }
+
+    /**
+     * Expire specific blood units (as due by the expiry scheduler).
+     * Ids that are no longer past expiry or are already EXPIRED are skipped.
+     *
+     * @return Number of units expired
+     */
+    public int expireBloodUnitsById(List<Long> ids) {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> slice = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            Integer expired = transactionTemplate.execute(status -> {
+                List<ExpiringRow> rows = jdbcTemplate.query(
+                    String.format(UNITS_BY_ID, placeholders(slice.size())), this::unitRow, idArgs(slice, today));
+                applyUnitChunk(rows);
+                return rows.size();
+            });
+            total += expired != null ? expired : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Expire specific blood components (as due by the expiry scheduler).
+     * Ids that are no longer past expiry or are already EXPIRED are skipped.
+     *
+     * @return Number of components expired
+     */
+    public int expireComponentsById(List<Long> ids) {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> slice = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            Integer expired = transactionTemplate.execute(status -> {
+                List<ExpiringRow> rows = jdbcTemplate.query(
+                    String.format(COMPONENTS_BY_ID, placeholders(slice.size())), this::componentRow, idArgs(slice, today));
+                applyComponentChunk(rows);
+                return rows.size();
+            });
+            total += expired != null ? expired : 0;
+        }
+        return total;
+    }
+
+    private Chunk expireUnitChunk(LocalDate today, long afterId) {
+        List<ExpiringRow> rows = jdbcTemplate.query(NEXT_UNITS, this::unitRow, Date.valueOf(today), afterId, chunkSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, afterId);
+        }
+        applyUnitChunk(rows);
+        return new Chunk(rows.size(), rows.get(rows.size() - 1).id());
+    }
+
+    private void applyUnitChunk(List<ExpiringRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        markExpired("blood_units", rows);
+
+        for (ExpiringRow row : rows) {
+            inventoryCounters.unitChanged(row.id(), row.previousStatus(), BloodUnitStatus.EXPIRED.name());
+            trackingService.logStatusChange(
+                row.bloodUnitId(),
+                "BLOOD_EXPIRED",
+                "SYSTEM",
+                "SYSTEM",
+                row.previousStatus(),
+                BloodUnitStatus.EXPIRED.toString(),
+                "Blood unit expired on " + row.expiryDate()
+            );
+        }
+    }
+
+    private Chunk expireComponentChunk(LocalDate today, long afterId) {
+        List<ExpiringRow> rows = jdbcTemplate.query(NEXT_COMPONENTS, this::componentRow, Date.valueOf(today), afterId, chunkSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, afterId);
+        }
+        applyComponentChunk(rows);
+        return new Chunk(rows.size(), rows.get(rows.size() - 1).id());
+    }
+
+    private void applyComponentChunk(List<ExpiringRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        markExpired("blood_components", rows);
+        inventoryIndex.removeAfterCommit(rows.stream().map(ExpiringRow::id).toList());
+
+        for (ExpiringRow row : rows) {
+            inventoryCounters.componentChanged(row.unitId(), ComponentType.valueOf(row.componentType()),
+                row.previousStatus(), ComponentStatus.EXPIRED.name());
+            // Components whose blood unit is gone are expired without an audit entry, as before
+            if (row.bloodUnitId() == null) {
+                continue;
+            }
+            trackingService.logAction(
+                row.bloodUnitId(),
+                "COMPONENT_EXPIRED",
+                "SYSTEM",
+                "SYSTEM",
+                String.format("%s component expired (was %s, now %s). Expiry date: %s",
+                    row.componentType(), row.previousStatus(), ComponentStatus.EXPIRED, row.expiryDate())
+            );
+        }
+    }
+
+    private ExpiringRow unitRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ExpiringRow(
+            rs.getLong("id"),
+            rs.getLong("id"),
+            rs.getString("blood_unit_id"),
+            null,
+            rs.getString("status"),
+            rs.getDate("expiry_date").toLocalDate()
+        );
+    }
+
+    private ExpiringRow componentRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ExpiringRow(
+            rs.getLong("id"),
+            rs.getLong("unit_id"),
+            rs.getString("blood_unit_id"),
+            rs.getString("component_type"),
+            rs.getString("status"),
+            rs.getDate("expiry_date").toLocalDate()
+        );
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] idArgs(List<Long> ids, LocalDate today) {
+        Object[] args = new Object[ids.size() + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            args[i] = ids.get(i);
+        }
+        args[ids.size()] = Date.valueOf(today);
+        return args;
+    }
+
+    /**
+     * Flip the locked rows of one chunk to EXPIRED with a single statement.
+     */
+    private void markExpired(String table, List<ExpiringRow> rows) {
+        List<Object> args = new ArrayList<>(rows.size() + 1);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        for (ExpiringRow row : rows) {
+            args.add(row.id());
+        }
+        jdbcTemplate.update("UPDATE " + table + " SET status = 'EXPIRED', updated_at = ? WHERE id IN (" + placeholders(rows.size()) + ")",
+            args.toArray());
+    }
+
+    private record ExpiringRow(long id, long unitId, String bloodUnitId, String componentType,
+                               String previousStatus, LocalDate expiryDate) {}
+
+    private record Chunk(int size, long lastId) {}
+}
@@ -0,0 +1,149 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.IdSequence;
+import com.example.bloodchain.repository.IdSequenceRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates business identifiers (blood unit IDs, request numbers).
+ *
+ * Each sequence (per year, and per bank where the format has one) lives in a row of
+ * id_sequences. A node leases a block of values with one locked update in its own
+ * short transaction and then hands out IDs from memory (hi/lo), so there is no
+ * database round trip per ID and no two nodes can produce the same value.
+ * Values of a block left unused at shutdown are simply skipped.
+ */
+@Service
+public class IdAllocationService {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private IdSequenceRepository sequenceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bloodchain.ids.block-size:50}")
+    private int blockSize;
+
+    private TransactionTemplate leaseTransaction;
+
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // Leases commit on their own, independent of the caller's transaction
+        leaseTransaction = new TransactionTemplate(transactionManager);
+        leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next blood unit ID. Format: BU-YYYY-NNNNNN
+     */
+    public String nextBloodUnitId() {
+        int year = Year.now().getValue();
+        String prefix = "BU-" + year + "-";
+        long value = next("BU-" + year, () -> maxNumericSuffix("blood_units", "blood_unit_id", prefix));
+        return String.format("BU-%d-%06d", year, value);
+    }
+
+    /**
+     * Next blood request number. Format: REQ-YYYY-NNNNNN
+     */
+    public String nextRequestNumber() {
+        int year = Year.now().getValue();
+        String prefix = "REQ-" + year + "-";
+        long value = next("REQ-" + year, () -> maxNumericSuffix("blood_requests", "request_number", prefix));
+        return String.format("REQ-%d-%06d", year, value);
+    }
+
+    /**
+     * Next blood unit ID issued by a blood bank on donation completion.
+     * Format: BB{BankId}-{YYYYMMDD}-{NNNN}, numbered per bank and year.
+     */
+    public String nextBankBloodUnitId(int bloodBankId) {
+        LocalDate today = LocalDate.now();
+        String bankPart = String.format("BB%02d", bloodBankId);
+        long value = next(bankPart + "-" + today.getYear(),
+            () -> maxNumericSuffix("blood_units", "blood_unit_id", bankPart + "-" + today.getYear()));
+        return String.format("%s-%s-%04d", bankPart, today.format(DAY), value);
+    }
+
+    /**
+     * Next value of a named sequence.
+     *
+     * @param name Sequence name
+     * @param seed Highest value already in use, read once when the sequence row is first created
+     */
+    public long next(String name, LongSupplier seed) {
+        Block block = blocks.computeIfAbsent(name, key -> new Block());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                long start = lease(name, seed);
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserve [start, start + blockSize) in the sequence row and return start.
+     */
+    private long lease(String name, LongSupplier seed) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try {
+                Long start = leaseTransaction.execute(status -> {
+                    IdSequence sequence = sequenceRepository.findForUpdate(name)
+                        .orElseGet(() -> new IdSequence(name, seed.getAsLong() + 1));
+                    long first = sequence.getNextValue();
+                    sequence.setNextValue(first + blockSize);
+                    sequenceRepository.saveAndFlush(sequence);
+                    return first;
+                });
+                return start;
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the row first; lock it on the next attempt
+            }
+        }
+        throw new IllegalStateException("Could not lease ID block for sequence " + name);
+    }
+
+    /**
+     * Highest number after the last '-' among existing IDs with the given prefix (0 if none).
+     * Only used to start a new sequence above IDs issued by the old generators.
+     */
+    private long maxNumericSuffix(String table, String column, String prefix) {
+        Long max = jdbcTemplate.queryForObject(
+            "SELECT MAX(CAST(SUBSTRING_INDEX(" + column + ", '-', -1) AS UNSIGNED)) FROM " + table +
+            " WHERE " + column + " LIKE ?",
+            Long.class, prefix + "%");
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Leased range held in memory: next value to hand out and the exclusive end.
+     */
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodComponent;
+import com.example.bloodchain.model.BloodUnit;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports status changes of blood units and components saved through JPA to InventoryCounters.
+ * Hibernate calls it during flush with the entity's state before and after, so
+ * every save path is covered without the services having to report changes.
+ * Bulk JDBC updates bypass Hibernate and report their changes themselves.
+ */
+@Component
+public class InventoryCounterListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InventoryCounters counters;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity(), event.getPersister(), null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getOldState() == null) {
+            return;  // previous state unknown; the startup rebuild corrects any drift
+        }
+        changed(event.getEntity(), event.getPersister(), event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity(), event.getPersister(), event.getDeletedState(), null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void changed(Object entity, EntityPersister persister, Object[] before, Object[] after) {
+        if (!(entity instanceof BloodUnit) && !(entity instanceof BloodComponent)) {
+            return;
+        }
+        int status = statusIndex(persister);
+        String from = before != null ? statusName(before[status]) : null;
+        String to = after != null ? statusName(after[status]) : null;
+        if (from != null && from.equals(to)) {
+            return;
+        }
+
+        if (entity instanceof BloodUnit unit) {
+            counters.unitChanged(unit.getId(), from, to);
+        } else if (entity instanceof BloodComponent component && component.getBloodUnitId() != null) {
+            counters.componentChanged(component.getBloodUnitId(), component.getComponentType(), from, to);
+        }
+    }
+
+    private static int statusIndex(EntityPersister persister) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if ("status".equals(names[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No status property on " + persister.getEntityName());
+    }
+
+    private static String statusName(Object status) {
+        return status instanceof Enum<?> value ? value.name() : status != null ? status.toString() : null;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.model.ComponentStatus;
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.repository.BloodComponentRepository;
+import com.example.bloodchain.repository.BloodUnitRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Materialized stock counts for the dashboards (table inventory_counters).
+ *
+ * One row per (item, status, bank, component type, blood group) holds how many
+ * blood units or components are in that state, so an inventory page is one
+ * indexed read instead of a count query per type and group.
+ *
+ * Every status change is reported here: JPA saves through InventoryCounterListener,
+ * bulk JDBC updates by their callers. Changes are collected per transaction and
+ * applied in that transaction just before it commits (after Hibernate's final
+ * flush), as one batch of upserts in key order so concurrent commits lock counter
+ * rows in the same order. A rolled back transaction leaves the counts untouched.
+ *
+ * Unit changes are passed on to the DashboardSnapshot figures, and every change
+ * and counter delta to LiveUpdateHub for open dashboards.
+ *
+ * The table is rebuilt from GROUP BY queries at startup; the same queries serve
+ * the dashboards if that rebuild failed. Counts follow status only: a component
+ * past its expiry date stays AVAILABLE here until the expiry sweep marks it.
+ */
+@Service
+public class InventoryCounters {
+
+    public static final String UNIT = "UNIT";
+    public static final String COMPONENT = "COMPONENT";
+
+    private static final String UPSERT =
+        "INSERT INTO inventory_counters (item, status, bank_id, component_type, blood_group, quantity) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+
+    private static final String UNIT_KEYS =
+        "SELECT id, blood_bank_id, blood_group, donation_type, expiry_date FROM blood_units WHERE id IN (%s)";
+
+    private static final String SEED_UNITS =
+        "INSERT INTO inventory_counters (item, status, bank_id, component_type, blood_group, quantity) " +
+        "SELECT 'UNIT', status, COALESCE(blood_bank_id, 0), COALESCE(donation_type, 'WHOLE_BLOOD'), blood_group, COUNT(*) " +
+        "FROM blood_units " +
+        "GROUP BY status, COALESCE(blood_bank_id, 0), COALESCE(donation_type, 'WHOLE_BLOOD'), blood_group";
+
+    private static final String SEED_COMPONENTS =
+        "INSERT INTO inventory_counters (item, status, bank_id, component_type, blood_group, quantity) " +
+        "SELECT 'COMPONENT', c.status, COALESCE(u.blood_bank_id, 0), c.component_type, u.blood_group, COUNT(*) " +
+        "FROM blood_components c JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "GROUP BY c.status, COALESCE(u.blood_bank_id, 0), c.component_type, u.blood_group";
+
+    private static final int LOOKUP_CHUNK = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @Autowired
+    private BloodComponentRepository componentRepository;
+
+    @Autowired
+    private DashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("❌ Inventory counters not built, dashboards will count rows instead: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recount the whole table from blood_units and blood_components.
+     * Only safe while no other transaction changes stock, i.e. at startup.
+     */
+    private void rebuild() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM inventory_counters");
+            jdbcTemplate.update(SEED_UNITS);
+            jdbcTemplate.update(SEED_COMPONENTS);
+        });
+        ready = true;
+        System.out.println("📊 Inventory counters rebuilt");
+    }
+
+    /**
+     * Record a blood unit status change (fromStatus null = created, toStatus null = deleted).
+     */
+    public void unitChanged(long unitId, String fromStatus, String toStatus) {
+        record(new Change(UNIT, unitId, null, fromStatus, toStatus));
+    }
+
+    /**
+     * Record a component status change (fromStatus null = created, toStatus null = deleted).
+     */
+    public void componentChanged(long unitId, ComponentType type, String fromStatus, String toStatus) {
+        record(new Change(COMPONENT, unitId, type, fromStatus, toStatus));
+    }
+
+    /**
+     * Units in a status per blood group, for one bank or all banks (bankId null).
+     */
+    public Map<String, Long> unitsByBloodGroup(BloodUnitStatus status, Integer bankId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (!ready) {
+            for (Object[] row : bloodUnitRepository.countByBloodGroup(status, bankId)) {
+                counts.put((String) row[0], (Long) row[1]);
+            }
+            return counts;
+        }
+
+        String sql = "SELECT blood_group, SUM(quantity) AS quantity FROM inventory_counters " +
+            "WHERE item = 'UNIT' AND status = ?" + (bankId != null ? " AND bank_id = ?" : "") +
+            " GROUP BY blood_group";
+        Object[] args = bankId != null ? new Object[] { status.name(), bankId } : new Object[] { status.name() };
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getString("blood_group"), rs.getLong("quantity"));
+        }, args);
+        return counts;
+    }
+
+    /**
+     * Components in a status per (type, blood group), for one bank or all banks (bankId null).
+     */
+    public List<GroupCount> componentsByTypeAndGroup(ComponentStatus status, Integer bankId) {
+        List<GroupCount> counts = new ArrayList<>();
+        if (!ready) {
+            for (Object[] row : componentRepository.countByTypeAndBloodGroup(status, bankId)) {
+                counts.add(new GroupCount((ComponentType) row[0], (String) row[1], (Long) row[2]));
+            }
+            return counts;
+        }
+
+        String sql = "SELECT component_type, blood_group, SUM(quantity) AS quantity FROM inventory_counters " +
+            "WHERE item = 'COMPONENT' AND status = ?" + (bankId != null ? " AND bank_id = ?" : "") +
+            " GROUP BY component_type, blood_group";
+        Object[] args = bankId != null ? new Object[] { status.name(), bankId } : new Object[] { status.name() };
+        jdbcTemplate.query(sql, rs -> {
+            counts.add(new GroupCount(ComponentType.valueOf(rs.getString("component_type")),
+                rs.getString("blood_group"), rs.getLong("quantity")));
+        }, args);
+        return counts;
+    }
+
+    private void record(Change change) {
+        if (!ready || (change.fromStatus() != null && change.fromStatus().equals(change.toStatus()))) {
+            return;  // not built: nothing to keep current, dashboards count rows
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+        pendingForTransaction().add(change);
+    }
+
+    private List<Change> pendingForTransaction() {
+        @SuppressWarnings("unchecked")
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        List<Change> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        // Runs inside the commit, after Hibernate's last flush has reported its changes
+        entityManager.unwrap(EventSource.class).getActionQueue().registerProcess(session -> {
+            List<Change> changes = new ArrayList<>(created);
+            created.clear();
+            apply(changes);
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(InventoryCounters.this);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Net the changes per counter and upsert them in key order.
+     */
+    private void apply(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, UnitKey> units = unitKeys(changes.stream().map(Change::unitId).distinct().toList());
+
+        Map<Key, Long> deltas = new TreeMap<>(Key.ORDER);
+        List<DashboardSnapshot.UnitChange> unitChanges = new ArrayList<>();
+        List<LiveUpdateHub.Update> liveUpdates = new ArrayList<>();
+        for (Change change : changes) {
+            UnitKey unit = units.get(change.unitId());
+            if (unit == null) {
+                continue;  // unit deleted in the same transaction
+            }
+            if (UNIT.equals(change.item())) {
+                unitChanges.add(new DashboardSnapshot.UnitChange(change.fromStatus(), change.toStatus(), unit.expiryDate()));
+            }
+            String type = UNIT.equals(change.item()) ? unit.donationType() : change.componentType().name();
+            boolean expiringSoon = UNIT.equals(change.item()) && DashboardSnapshot.expiresSoon(unit.expiryDate(), LocalDate.now());
+            liveUpdates.add(LiveUpdateHub.status(unit.bankId(), change.item(), change.unitId(), type,
+                change.fromStatus(), change.toStatus(), expiringSoon));
+            if (change.fromStatus() != null) {
+                deltas.merge(new Key(change.item(), change.fromStatus(), unit.bankId(), type, unit.bloodGroup()), -1L, Long::sum);
+            }
+            if (change.toStatus() != null) {
+                deltas.merge(new Key(change.item(), change.toStatus(), unit.bankId(), type, unit.bloodGroup()), 1L, Long::sum);
+            }
+        }
+        dashboardSnapshot.unitsChanged(unitChanges);
+        deltas.values().removeIf(delta -> delta == 0);
+        deltas.forEach((key, delta) -> liveUpdates.add(LiveUpdateHub.inventory(
+            key.bankId(), key.item(), key.status(), key.componentType(), key.bloodGroup(), delta)));
+        liveUpdateHub.publishAfterCommit(liveUpdates);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Key, Long>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            Key key = row.getKey();
+            ps.setString(1, key.item());
+            ps.setString(2, key.status());
+            ps.setInt(3, key.bankId());
+            ps.setString(4, key.componentType());
+            ps.setString(5, key.bloodGroup());
+            ps.setLong(6, row.getValue());
+        });
+    }
+
+    private Map<Long, UnitKey> unitKeys(List<Long> unitIds) {
+        Map<Long, UnitKey> units = new HashMap<>();
+        for (int from = 0; from < unitIds.size(); from += LOOKUP_CHUNK) {
+            List<Long> slice = unitIds.subList(from, Math.min(unitIds.size(), from + LOOKUP_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(slice.size(), "?"));
+            jdbcTemplate.query(String.format(UNIT_KEYS, placeholders), rs -> {
+                String donationType = rs.getString("donation_type");
+                Date expiryDate = rs.getDate("expiry_date");
+                units.put(rs.getLong("id"), new UnitKey(
+                    rs.getInt("blood_bank_id"),  // 0 when null
+                    rs.getString("blood_group"),
+                    donationType != null ? donationType : ComponentType.WHOLE_BLOOD.name(),
+                    expiryDate != null ? expiryDate.toLocalDate() : null
+                ));
+            }, slice.toArray());
+        }
+        return units;
+    }
+
+    /**
+     * Count of one component type and blood group.
+     */
+    public record GroupCount(ComponentType componentType, String bloodGroup, long count) {}
+
+    private record Change(String item, long unitId, ComponentType componentType, String fromStatus, String toStatus) {}
+
+    private record UnitKey(int bankId, String bloodGroup, String donationType, LocalDate expiryDate) {}
+
+    private record Key(String item, String status, int bankId, String componentType, String bloodGroup) {
+        // Same column order as the unique key, so every commit locks counter rows in one order
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::item)
+            .thenComparing(Key::status)
+            .thenComparingInt(Key::bankId)
+            .thenComparing(Key::componentType)
+            .thenComparing(Key::bloodGroup);
+    }
+}
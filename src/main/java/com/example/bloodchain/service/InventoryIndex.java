@@ -0,0 +1,288 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodComponent;
+import com.example.bloodchain.model.ComponentType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live index of AVAILABLE blood components for first-expiry-first-out allocation.
+ *
+ * Components are grouped by (component type, blood group); each group is a min-heap
+ * on expiry date, so the k components expiring first are found in O(k log n)
+ * without touching the database. Status changes are applied after their
+ * transaction commits, so the index never shows uncommitted stock.
+ *
+ * Removal is lazy: a component leaving AVAILABLE is dropped from the live map and
+ * its heap slot is discarded when it reaches the top. Callers still validate
+ * candidates against the database and report stale ones with discard(), and
+ * the index is rebuilt from the table periodically, so drift cannot accumulate.
+ */
+@Component
+public class InventoryIndex {
+
+    private static final String AVAILABLE_COMPONENTS =
+        "SELECT c.id, c.component_type, c.expiry_date, u.blood_group " +
+        "FROM blood_components c JOIN blood_units u ON u.id = c.blood_unit_id " +
+        "WHERE c.status = 'AVAILABLE' AND c.expiry_date > ?";
+
+    private static final Comparator<Slot> FIRST_EXPIRY =
+        Comparator.comparing(Slot::expiryDate).thenComparingLong(Slot::id);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile State state = new State();
+
+    // Changes applied while a rebuild is loading, replayed onto the new state; null otherwise
+    private List<Object> journal;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("❌ Inventory index not built at startup, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the index from the table, dropping any stale heap slots.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.inventory.rebuild-ms:3600000}",
+               initialDelayString = "${bloodchain.inventory.rebuild-ms:3600000}")
+    public void rebuild() {
+        synchronized (this) {
+            if (journal != null) {
+                return;  // already rebuilding
+            }
+            journal = new ArrayList<>();
+        }
+
+        State loaded = new State();
+        try {
+            jdbcTemplate.query(AVAILABLE_COMPONENTS, rs -> {
+                loaded.add(new Slot(
+                    rs.getLong("id"),
+                    rs.getDate("expiry_date").toLocalDate(),
+                    new Key(ComponentType.valueOf(rs.getString("component_type")), rs.getString("blood_group"))
+                ));
+            }, Date.valueOf(LocalDate.now()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                journal = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (Object change : journal) {
+                if (change instanceof Slot slot) {
+                    loaded.add(slot);
+                } else {
+                    loaded.remove((Long) change, null);
+                }
+            }
+            journal = null;
+            state = loaded;
+            ready = true;
+        }
+        System.out.println("📦 Inventory index built: " + loaded.live.size() + " available components");
+    }
+
+    /**
+     * Whether the index has been loaded (callers fall back to a query otherwise).
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of up to limit AVAILABLE components of the given type and group, earliest expiry first.
+     * Components expiring today or earlier are skipped and dropped.
+     */
+    public List<Long> firstToExpire(ComponentType type, String bloodGroup, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Slot slot : take(type, bloodGroup, limit)) {
+            ids.add(slot.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Same as firstToExpire, with each component's expiry date (for scoring).
+     */
+    public List<Available> firstToExpireWithDates(ComponentType type, String bloodGroup, int limit) {
+        List<Available> available = new ArrayList<>();
+        for (Slot slot : take(type, bloodGroup, limit)) {
+            available.add(new Available(slot.id(), slot.expiryDate()));
+        }
+        return available;
+    }
+
+    /**
+     * Number of AVAILABLE components of the given type and group, in O(1).
+     * May include components whose expiry date passed since they were last looked at.
+     */
+    public int count(ComponentType type, String bloodGroup) {
+        AtomicInteger count = state.counts.get(new Key(type, bloodGroup));
+        return count != null ? count.get() : 0;
+    }
+
+    private List<Slot> take(ComponentType type, String bloodGroup, int limit) {
+        State current = state;
+        PriorityQueue<Slot> heap = current.heaps.get(new Key(type, bloodGroup));
+        List<Slot> taken = new ArrayList<>();
+        if (heap == null || limit <= 0) {
+            return taken;
+        }
+
+        LocalDate today = LocalDate.now();
+        synchronized (heap) {
+            while (taken.size() < limit && !heap.isEmpty()) {
+                Slot slot = heap.poll();
+                if (current.live.get(slot.id()) != slot) {
+                    continue;  // stale: removed or re-added since
+                }
+                if (!slot.expiryDate().isAfter(today)) {
+                    current.remove(slot.id(), slot);
+                    continue;
+                }
+                taken.add(slot);
+            }
+            heap.addAll(taken);
+        }
+        return taken;
+    }
+
+    /**
+     * Index components that became AVAILABLE in the current transaction.
+     */
+    public void addAfterCommit(Collection<BloodComponent> components, String bloodGroup) {
+        List<Slot> slots = new ArrayList<>();
+        for (BloodComponent component : components) {
+            if (component.getId() != null && component.getExpiryDate() != null) {
+                slots.add(new Slot(component.getId(), component.getExpiryDate(),
+                    new Key(component.getComponentType(), bloodGroup)));
+            }
+        }
+        afterCommit(() -> slots.forEach(this::add));
+    }
+
+    /**
+     * Drop components that left AVAILABLE in the current transaction.
+     */
+    public void removeAfterCommit(Collection<Long> componentIds) {
+        List<Long> ids = new ArrayList<>(componentIds);
+        afterCommit(() -> ids.forEach(this::discard));
+    }
+
+    /**
+     * Drop a component immediately, e.g. a candidate found to be no longer available.
+     */
+    public void discard(Long componentId) {
+        synchronized (this) {
+            if (journal != null) {
+                journal.add(componentId);
+            }
+            state.remove(componentId, null);
+        }
+    }
+
+    /**
+     * Number of indexed components per (type, blood group) (for monitoring).
+     */
+    public Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new HashMap<>();
+        for (Slot slot : state.live.values()) {
+            sizes.merge(slot.key().type() + " " + slot.key().bloodGroup(), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    private void add(Slot slot) {
+        synchronized (this) {
+            if (journal != null) {
+                journal.add(slot);
+            }
+            state.add(slot);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Heaps per group plus the live map they are validated against, swapped as a unit on rebuild.
+     */
+    private static final class State {
+        private final Map<Key, PriorityQueue<Slot>> heaps = new ConcurrentHashMap<>();
+        private final Map<Long, Slot> live = new ConcurrentHashMap<>();
+        private final Map<Key, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        private void add(Slot slot) {
+            Slot previous = live.put(slot.id(), slot);
+            if (previous != null) {
+                counts.get(previous.key()).decrementAndGet();
+            }
+            counts.computeIfAbsent(slot.key(), k -> new AtomicInteger()).incrementAndGet();
+            PriorityQueue<Slot> heap = heaps.computeIfAbsent(slot.key(), k -> new PriorityQueue<>(FIRST_EXPIRY));
+            synchronized (heap) {
+                heap.add(slot);
+            }
+        }
+
+        /**
+         * Drop a component from the live map (only if it still maps to expected, when given).
+         */
+        private void remove(Long id, Slot expected) {
+            Slot removed;
+            if (expected == null) {
+                removed = live.remove(id);
+            } else {
+                removed = live.remove(id, expected) ? expected : null;
+            }
+            if (removed != null) {
+                counts.get(removed.key()).decrementAndGet();
+            }
+        }
+    }
+
+    private record Key(ComponentType type, String bloodGroup) {}
+
+    private record Slot(long id, LocalDate expiryDate, Key key) {}
+
+    /**
+     * An indexed component as seen by callers.
+     */
+    public record Available(long id, LocalDate expiryDate) {}
+}
@@ -0,0 +1,325 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import com.example.bloodchain.repository.BloodTrackingLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default audit store: the blood_tracking_log table.
+ * Writes are JDBC batches on the caller's connection, reads go through the repository
+ * (and plain JDBC for the batched latest-hash lookup and the chain-order scans).
+ */
+@Component
+@ConditionalOnProperty(name = "bloodchain.audit.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaAuditLogStore implements AuditLogStore {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO blood_tracking_log " +
+        "(blood_unit_id, action, performed_by, performed_by_role, previous_status, new_status, " +
+        "details, timestamp, previous_hash, hash, ip_address, chain_seq, link_scope, sequenced_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Newest entry per unit; ties on timestamp go to the later insert, like the chain order
+    private static final String LATEST_HASHES_SQL =
+        "SELECT blood_unit_id, hash FROM (" +
+        "SELECT blood_unit_id, hash, ROW_NUMBER() OVER (PARTITION BY blood_unit_id ORDER BY timestamp DESC, id DESC) AS rn " +
+        "FROM blood_tracking_log WHERE blood_unit_id IN (%s)) latest WHERE rn = 1";
+
+    // Newest entry of one unit in chain order: sequenced entries by chain_seq, then legacy ones by id
+    private static final String LATEST_UNIT_HASH_SQL =
+        "SELECT hash FROM blood_tracking_log WHERE blood_unit_id = ? " +
+        "ORDER BY chain_seq IS NULL, chain_seq DESC, id DESC LIMIT 1 FOR SHARE";
+
+    private static final String COLUMNS =
+        "SELECT id, blood_unit_id, action, performed_by, performed_by_role, previous_status, new_status, " +
+        "details, timestamp, previous_hash, hash, ip_address, chain_seq, link_scope, sequenced_at FROM blood_tracking_log ";
+
+    private static final String SEQUENCED_FROM_SQL =
+        COLUMNS + "WHERE chain_seq >= ? ORDER BY chain_seq LIMIT ?";
+
+    private static final String LEGACY_AFTER_SQL =
+        COLUMNS + "WHERE chain_seq IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    // Latest entry of a unit before a given sequence number (same chain order the writer links by)
+    private static final String UNIT_PREDECESSOR_SQL =
+        "SELECT hash FROM blood_tracking_log WHERE blood_unit_id = ? AND (chain_seq < ? OR chain_seq IS NULL) " +
+        "ORDER BY chain_seq IS NULL, chain_seq DESC, id DESC LIMIT 1";
+
+    private static final String GLOBAL_PREDECESSOR_SQL =
+        "SELECT hash FROM blood_tracking_log WHERE chain_seq < ? AND link_scope IS NULL " +
+        "ORDER BY chain_seq DESC LIMIT 1";
+
+    private static final String LEGACY_AT_SQL =
+        "SELECT hash FROM blood_tracking_log WHERE chain_seq IS NULL ORDER BY id LIMIT 1 OFFSET ?";
+
+    // Keeps original ids; a row that is already there fails the batch
+    private static final String IMPORT_SQL =
+        "INSERT INTO blood_tracking_log " +
+        "(id, blood_unit_id, action, performed_by, performed_by_role, previous_status, new_status, " +
+        "details, timestamp, previous_hash, hash, ip_address, chain_seq, link_scope, sequenced_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Units per IN list
+    private static final int LOOKUP_CHUNK = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BloodTrackingLogRepository trackingLogRepository;
+
+    @Value("${bloodchain.audit.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void appendAll(List<BloodTrackingLog> logs) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, logs, batchSize, (ps, log) -> {
+            ps.setString(1, log.getBloodUnitId());
+            ps.setString(2, log.getAction());
+            ps.setString(3, log.getPerformedBy());
+            ps.setString(4, log.getPerformedByRole());
+            ps.setString(5, log.getPreviousStatus());
+            ps.setString(6, log.getNewStatus());
+            ps.setString(7, log.getDetails());
+            // Same conversion Hibernate applies to LocalDateTime, so hashes verify on read-back
+            ps.setTimestamp(8, Timestamp.valueOf(log.getTimestamp()));
+            ps.setString(9, log.getPreviousHash());
+            ps.setString(10, log.getHash());
+            ps.setString(11, log.getIpAddress());
+            if (log.getChainSeq() != null) {
+                ps.setLong(12, log.getChainSeq());
+            } else {
+                ps.setNull(12, Types.BIGINT);
+            }
+            ps.setString(13, log.getLinkScope());
+            ps.setTimestamp(14, log.getSequencedAt() != null ? Timestamp.valueOf(log.getSequencedAt()) : null);
+        });
+    }
+
+    /**
+     * Inserted on the caller's connection; run it in a transaction so a failed batch leaves nothing behind.
+     * Drivers may report batched rows as SUCCESS_NO_INFO, so the rows are counted back.
+     */
+    @Override
+    public void importAll(List<BloodTrackingLog> logs) {
+        jdbcTemplate.batchUpdate(IMPORT_SQL, logs, batchSize, (ps, log) -> {
+            ps.setLong(1, log.getId());
+            ps.setString(2, log.getBloodUnitId());
+            ps.setString(3, log.getAction());
+            ps.setString(4, log.getPerformedBy());
+            ps.setString(5, log.getPerformedByRole());
+            ps.setString(6, log.getPreviousStatus());
+            ps.setString(7, log.getNewStatus());
+            ps.setString(8, log.getDetails());
+            ps.setTimestamp(9, Timestamp.valueOf(log.getTimestamp()));
+            ps.setString(10, log.getPreviousHash());
+            ps.setString(11, log.getHash());
+            ps.setString(12, log.getIpAddress());
+            if (log.getChainSeq() != null) {
+                ps.setLong(13, log.getChainSeq());
+            } else {
+                ps.setNull(13, Types.BIGINT);
+            }
+            ps.setString(14, log.getLinkScope());
+            ps.setTimestamp(15, log.getSequencedAt() != null ? Timestamp.valueOf(log.getSequencedAt()) : null);
+        });
+
+        long stored = 0;
+        for (int from = 0; from < logs.size(); from += LOOKUP_CHUNK) {
+            List<BloodTrackingLog> slice = logs.subList(from, Math.min(logs.size(), from + LOOKUP_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(slice.size(), "?"));
+            Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM blood_tracking_log WHERE id IN (" + placeholders + ")",
+                Long.class, slice.stream().map(BloodTrackingLog::getId).toArray());
+            stored += count != null ? count : 0;
+        }
+        if (stored != logs.size()) {
+            throw new IllegalStateException("Only " + stored + " of " + logs.size() + " archive records were stored");
+        }
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public Optional<BloodTrackingLog> findById(Long id) {
+        return trackingLogRepository.findById(id);
+    }
+
+    @Override
+    public long count() {
+        return trackingLogRepository.count();
+    }
+
+    @Override
+    public List<BloodTrackingLog> findByBloodUnitIdOrderByTimestampAsc(String bloodUnitId) {
+        return trackingLogRepository.findByBloodUnitIdOrderByTimestampAsc(bloodUnitId);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findBloodUnitPage(String bloodUnitId, LogCursor after, int limit) {
+        return after == null
+            ? trackingLogRepository.findByBloodUnitIdOrderByTimestampAscIdAsc(bloodUnitId, Limit.of(limit))
+            : trackingLogRepository.findByBloodUnitIdAfter(bloodUnitId, after.timestamp(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<BloodTrackingLog> findPerformedByPage(String performedBy, LogCursor after, int limit) {
+        return after == null
+            ? trackingLogRepository.findByPerformedByOrderByTimestampDescIdDesc(performedBy, Limit.of(limit))
+            : trackingLogRepository.findByPerformedByBefore(performedBy, after.timestamp(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<BloodTrackingLog> findActionPage(String action, LogCursor after, int limit) {
+        return after == null
+            ? trackingLogRepository.findByActionOrderByTimestampDescIdDesc(action, Limit.of(limit))
+            : trackingLogRepository.findByActionBefore(action, after.timestamp(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTimestampRangePage(LocalDateTime start, LocalDateTime end, LogCursor after, int limit) {
+        return after == null
+            ? trackingLogRepository.findByTimestampBetweenOrderByTimestampDescIdDesc(start, end, Limit.of(limit))
+            : trackingLogRepository.findByTimestampRangeBefore(start, after.timestamp(), after.id(), Limit.of(limit));
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTop100ByOrderByTimestampDesc() {
+        return trackingLogRepository.findTop100ByOrderByTimestampDesc();
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTop5ByOrderByIdDesc() {
+        return trackingLogRepository.findTop5ByOrderByIdDesc();
+    }
+
+    @Override
+    public BloodTrackingLog findTopByBloodUnitIdOrderByTimestampDesc(String bloodUnitId) {
+        return trackingLogRepository.findTopByBloodUnitIdOrderByTimestampDesc(bloodUnitId);
+    }
+
+    @Override
+    public String findLatestUnitHash(String bloodUnitId) {
+        // Locking read: sees the latest commit rather than the caller's snapshot
+        return jdbcTemplate.query(LATEST_UNIT_HASH_SQL,
+            rs -> rs.next() ? rs.getString("hash") : null, bloodUnitId);
+    }
+
+    @Override
+    public Map<String, String> findLatestHashes(Collection<String> bloodUnitIds) {
+        List<String> ids = new ArrayList<>(bloodUnitIds);
+        Map<String, String> hashes = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<String> slice = ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(slice.size(), "?"));
+            jdbcTemplate.query(String.format(LATEST_HASHES_SQL, placeholders), rs -> {
+                String hash = rs.getString("hash");
+                if (hash != null) {
+                    hashes.put(rs.getString("blood_unit_id"), hash);
+                }
+            }, slice.toArray());
+        }
+        return hashes;
+    }
+
+    @Override
+    public List<BloodTrackingLog> findSequencedFrom(long fromSeq, int limit) {
+        return jdbcTemplate.query(SEQUENCED_FROM_SQL, JpaAuditLogStore::mapRow, fromSeq, limit);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findLegacyAfterId(long afterId, int limit) {
+        return jdbcTemplate.query(LEGACY_AFTER_SQL, JpaAuditLogStore::mapRow, afterId, limit);
+    }
+
+    @Override
+    public long countLegacy() {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM blood_tracking_log WHERE chain_seq IS NULL", Long.class);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public String findUnitPredecessorHash(String bloodUnitId, long beforeSeq) {
+        return firstHash(jdbcTemplate.queryForList(UNIT_PREDECESSOR_SQL, String.class, bloodUnitId, beforeSeq));
+    }
+
+    @Override
+    public String findGlobalPredecessorHash(long beforePosition) {
+        List<String> hashes = jdbcTemplate.queryForList(GLOBAL_PREDECESSOR_SQL, String.class, beforePosition);
+        if (hashes.isEmpty()) {
+            // Otherwise the last legacy entry before the position, if there is one
+            long legacyBefore = Math.min(beforePosition, countLegacy());
+            if (legacyBefore > 0) {
+                hashes = jdbcTemplate.queryForList(LEGACY_AT_SQL, String.class, legacyBefore - 1);
+            }
+        }
+        return firstHash(hashes);
+    }
+
+    @Override
+    public BloodTrackingLog findTopByChainSeqNotNullOrderByChainSeqDesc() {
+        return trackingLogRepository.findTopByChainSeqNotNullOrderByChainSeqDesc();
+    }
+
+    @Override
+    public BloodTrackingLog findLatestGlobalEntry() {
+        return trackingLogRepository.findLatestGlobalEntry();
+    }
+
+    @Override
+    public BloodTrackingLog findTopByChainSeqIsNullOrderByIdDesc() {
+        return trackingLogRepository.findTopByChainSeqIsNullOrderByIdDesc();
+    }
+
+    // Stored hash of the first row; an entry without one links as genesis
+    private static String firstHash(List<String> hashes) {
+        if (hashes.isEmpty()) {
+            return null;
+        }
+        return hashes.get(0) != null ? hashes.get(0) : AuditChainHead.GENESIS_HASH;
+    }
+
+    private static BloodTrackingLog mapRow(ResultSet rs, int rowNum) throws SQLException {
+        BloodTrackingLog log = new BloodTrackingLog();
+        log.setId(rs.getLong("id"));
+        log.setBloodUnitId(rs.getString("blood_unit_id"));
+        log.setAction(rs.getString("action"));
+        log.setPerformedBy(rs.getString("performed_by"));
+        log.setPerformedByRole(rs.getString("performed_by_role"));
+        log.setPreviousStatus(rs.getString("previous_status"));
+        log.setNewStatus(rs.getString("new_status"));
+        log.setDetails(rs.getString("details"));
+        log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        log.setPreviousHash(rs.getString("previous_hash"));
+        log.setHash(rs.getString("hash"));
+        log.setIpAddress(rs.getString("ip_address"));
+        long seq = rs.getLong("chain_seq");
+        log.setChainSeq(rs.wasNull() ? null : seq);
+        log.setLinkScope(rs.getString("link_scope"));
+        Timestamp sequencedAt = rs.getTimestamp("sequenced_at");
+        log.setSequencedAt(sequencedAt != null ? sequencedAt.toLocalDateTime() : null);
+        return log;
+    }
+}
@@ -0,0 +1,500 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes live inventory and request changes to open dashboards over server-sent events.
+ *
+ * Dashboards subscribe to one topic:
+ * - "all": every change (blood bank staff);
+ * - "bank:{id}": stock changes of that bank plus all blood requests;
+ * - "hospital:{email}": that hospital's blood requests.
+ *
+ * Changes are published after their transaction commits and held per topic until
+ * the next flush, coalesced by key: inventory deltas for the same counter are
+ * summed, a unit or component that moves twice is sent once with its first and
+ * last status, and a request is sent with its latest state. Each flush sends one
+ * message per topic, serialized once for all its subscribers; a burst too large
+ * for one message is replaced by a single "refresh" event.
+ *
+ * Connections are held with async servlet requests (SseEmitter), so an open
+ * dashboard costs no thread. The flush and heartbeat tasks only queue events per
+ * connection; a small sender pool writes them, one connection at a time per thread
+ * and in order. A client that falls max-queued events behind is disconnected (its
+ * EventSource reconnects and reloads), so a stalled socket never holds up the
+ * scheduler or grows memory.
+ *
+ * A write to a stalled socket blocks its sender thread until the container's write
+ * timeout, and the emitter cannot be completed from elsewhere meanwhile (its methods
+ * share one monitor). A watchdog therefore drops a connection whose send has not
+ * returned within send-timeout-ms and adds a sender thread for as long as that send
+ * stays blocked, so stalled clients never take the pool away from the others.
+ *
+ * A topic's entry is dropped with its last subscriber, as hospital topics are
+ * named by client input.
+ */
+@Service
+public class LiveUpdateHub {
+
+    public static final String ALL = "all";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bloodchain.live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${bloodchain.live.max-batch:200}")
+    private int maxBatch;
+
+    @Value("${bloodchain.live.send-threads:2}")
+    private int sendThreads;
+
+    // Events a connection may have waiting before it is dropped as too slow
+    @Value("${bloodchain.live.max-queued:16}")
+    private int maxQueued;
+
+    // A send blocked for longer than this is treated as a stalled client
+    @Value("${bloodchain.live.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor sender;
+
+    // Sends the watchdog gave up on that have not returned yet (guarded by itself)
+    private final int[] stalledSends = new int[1];
+
+    // Changes waiting for the next flush: topic -> key -> change (guarded by this)
+    private Map<String, Map<String, Update>> pending = new HashMap<>();
+
+    @PostConstruct
+    public void start() {
+        sender = new ThreadPoolExecutor(sendThreads, sendThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live-update-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+
+    public static String bankTopic(int bankId) {
+        return "bank:" + bankId;
+    }
+
+    public static String hospitalTopic(String hospitalEmail) {
+        return "hospital:" + hospitalEmail.trim().toLowerCase();
+    }
+
+    /**
+     * Open a stream on a topic. The client's EventSource reconnects after the timeout.
+     */
+    public SseEmitter subscribe(String topic) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(topic, emitter);
+        // Added and removed inside compute, so a set is never dropped while a subscriber joins it
+        subscribers.compute(topic, (t, connections) -> {
+            Set<Connection> joined = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            joined.add(connection);
+            return joined;
+        });
+        emitter.onCompletion(() -> unsubscribe(connection));
+        emitter.onTimeout(() -> unsubscribe(connection));
+        emitter.onError(e -> unsubscribe(connection));
+
+        try {
+            emitter.send(SseEmitter.event().name("hello").data("{\"topic\":\"" + topic + "\"}"));
+        } catch (IOException e) {
+            unsubscribe(connection);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void unsubscribe(Connection connection) {
+        subscribers.computeIfPresent(connection.topic, (t, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    /**
+     * Queue changes for their topics once the current transaction commits (now if there is none).
+     */
+    public void publishAfterCommit(List<Update> updates) {
+        if (updates.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queue(updates);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                queue(updates);
+            }
+        });
+    }
+
+    /**
+     * A change in one inventory counter (see InventoryCounters).
+     */
+    public static Update inventory(int bankId, String item, String status, String componentType,
+                                   String bloodGroup, long delta) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", "inventory");
+        data.put("bankId", bankId);
+        data.put("item", item);
+        data.put("status", status);
+        data.put("componentType", componentType);
+        data.put("bloodGroup", bloodGroup);
+        data.put("delta", delta);
+        return new Update(String.join("|", "inventory", item, status, String.valueOf(bankId), componentType, bloodGroup),
+            data, List.of(ALL, bankTopic(bankId)));
+    }
+
+    /**
+     * A blood unit or component changing status (toStatus null = deleted).
+     *
+     * @param expiringSoon The unit counts towards the dashboard's expiring-soon figure while stored
+     */
+    public static Update status(int bankId, String item, long unitId, String componentType,
+                                String fromStatus, String toStatus, boolean expiringSoon) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", "status");
+        data.put("bankId", bankId);
+        data.put("item", item);
+        data.put("unitId", unitId);
+        data.put("componentType", componentType);
+        data.put("from", fromStatus);
+        data.put("to", toStatus);
+        data.put("expiringSoon", expiringSoon);
+        return new Update(String.join("|", "status", item, String.valueOf(unitId), String.valueOf(componentType)),
+            data, List.of(ALL, bankTopic(bankId)));
+    }
+
+    /**
+     * A blood request created or moved to a new status, with the fields the dashboards list.
+     */
+    public static Update request(BloodRequest request) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", "request");
+        data.put("id", request.getId());
+        data.put("requestNumber", request.getRequestNumber());
+        data.put("status", request.getStatus());
+        data.put("urgency", request.getUrgency());
+        data.put("componentType", request.getComponentType());
+        data.put("bloodGroup", request.getBloodGroup());
+        data.put("quantity", request.getQuantity());
+        data.put("approvedQuantity", request.getApprovedQuantity());
+        data.put("hospitalId", request.getHospitalId());
+        data.put("requestDate", request.getRequestDate() != null ? request.getRequestDate().toString() : null);
+        data.put("rejectionReason", request.getRejectionReason());
+
+        List<String> topics = new ArrayList<>(List.of(ALL));
+        if (request.getHospitalEmail() != null) {
+            topics.add(hospitalTopic(request.getHospitalEmail()));
+        }
+        // Requests are not addressed to a bank, so every bank topic gets them
+        return new Update("request|" + request.getId(), data, topics, true);
+    }
+
+    private synchronized void queue(List<Update> updates) {
+        for (Update update : updates) {
+            for (String topic : topicsFor(update)) {
+                if (!subscribers.containsKey(topic)) {
+                    continue;
+                }
+                pending.computeIfAbsent(topic, t -> new LinkedHashMap<>())
+                    .merge(update.key(), update, LiveUpdateHub::coalesce);
+            }
+        }
+    }
+
+    private List<String> topicsFor(Update update) {
+        if (!update.allBanks()) {
+            return update.topics();
+        }
+        List<String> topics = new ArrayList<>(update.topics());
+        for (String topic : subscribers.keySet()) {
+            if (topic.startsWith("bank:")) {
+                topics.add(topic);
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Merge a newer change into one still waiting for the same key.
+     */
+    private static Update coalesce(Update older, Update newer) {
+        Map<String, Object> data = new LinkedHashMap<>(newer.data());
+        switch ((String) newer.data().get("type")) {
+            case "inventory" -> data.put("delta", (Long) older.data().get("delta") + (Long) newer.data().get("delta"));
+            case "status" -> data.put("from", older.data().get("from"));
+            default -> { }  // latest state wins
+        }
+        return new Update(newer.key(), data, newer.topics(), newer.allBanks());
+    }
+
+    /**
+     * Send what each topic collected since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.live.flush-ms:500}")
+    public void flush() {
+        Map<String, Map<String, Update>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        for (Map.Entry<String, Map<String, Update>> entry : batch.entrySet()) {
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (Update update : entry.getValue().values()) {
+                if (!"inventory".equals(update.data().get("type")) || (Long) update.data().get("delta") != 0) {
+                    changes.add(update.data());
+                }
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+
+            try {
+                SseEmitter.SseEventBuilder event = changes.size() > maxBatch
+                    ? SseEmitter.event().name("refresh").data("{\"changes\":" + changes.size() + "}")
+                    : SseEmitter.event().name("changes").data(objectMapper.writeValueAsString(changes));
+                send(entry.getKey(), event.build());
+            } catch (JsonProcessingException e) {
+                System.err.println("❌ Live update not serialized: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies and drop the ones that went away.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (String topic : subscribers.keySet()) {
+            send(topic, SseEmitter.event().comment("ping").build());
+        }
+    }
+
+    /**
+     * Drop connections whose send has been blocked past the send timeout.
+     * Never touches their emitter (that would wait for the blocked send); the sender
+     * thread completes it once the send returns.
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.live.watchdog-ms:1000}")
+    public void dropStalledSends() {
+        long cutoff = System.currentTimeMillis() - sendTimeoutMs;
+        for (Set<Connection> connections : subscribers.values()) {
+            for (Connection connection : connections) {
+                if (connection.markStalled(cutoff)) {
+                    unsubscribe(connection);
+                    resizeSender(1);
+                    System.err.println("⚠️ Live update send to a " + connection.topic + " client stalled; dropping it");
+                }
+            }
+        }
+    }
+
+    /**
+     * Grow the sender pool while sends are stalled, and shrink it back as they return.
+     */
+    private void resizeSender(int delta) {
+        synchronized (stalledSends) {
+            stalledSends[0] += delta;
+            int size = sendThreads + stalledSends[0];
+            if (delta > 0) {
+                sender.setMaximumPoolSize(size);
+                sender.setCorePoolSize(size);
+            } else {
+                sender.setCorePoolSize(size);
+                sender.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Number of open streams per topic (for monitoring).
+     */
+    public Map<String, Integer> connections() {
+        Map<String, Integer> connections = new HashMap<>();
+        subscribers.forEach((topic, open) -> connections.put(topic, open.size()));
+        return connections;
+    }
+
+    /**
+     * Queue one built event (built once: the builder is not reusable) for every stream of a topic.
+     */
+    private void send(String topic, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        Set<Connection> connections = subscribers.get(topic);
+        if (connections == null) {
+            return;
+        }
+        for (Connection connection : connections) {
+            connection.enqueue(event);
+        }
+    }
+
+    /**
+     * One open stream with the events waiting to be written to it.
+     * At most one sender thread drains a connection at a time, so events keep their order.
+     */
+    private final class Connection {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> queued = new ArrayDeque<>();
+        private boolean draining;  // guarded by this
+        private boolean closed;    // guarded by this
+        private boolean stalled;   // guarded by this; the watchdog added a sender thread for it
+        private long sendingSince; // guarded by this; 0 while no send is in progress
+
+        private Connection(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queued.size() < maxQueued) {
+                    queued.add(event);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                } else {
+                    queued.clear();
+                    event = null;
+                }
+            }
+            if (event == null) {
+                close(new IOException("Live update client fell " + maxQueued + " events behind"));
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close(e);  // shutting down
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                synchronized (this) {
+                    event = closed ? null : queued.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                    sendingSince = System.currentTimeMillis();
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    if (!sendReturned()) {
+                        close(e);  // client gone or emitter already completed
+                    }
+                    return;
+                }
+                if (sendReturned()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Mark a send that started before the cutoff as stalled and close the connection.
+         *
+         * @return true if this call did so (once per connection)
+         */
+        private synchronized boolean markStalled(long cutoff) {
+            if (closed || sendingSince == 0 || sendingSince >= cutoff) {
+                return false;
+            }
+            closed = true;
+            stalled = true;
+            queued.clear();
+            return true;
+        }
+
+        /**
+         * Clear the send in progress; if the watchdog dropped the connection meanwhile,
+         * give back its extra sender thread and complete the emitter.
+         *
+         * @return true if the connection was dropped as stalled
+         */
+        private boolean sendReturned() {
+            boolean wasStalled;
+            synchronized (this) {
+                sendingSince = 0;
+                wasStalled = stalled;
+                stalled = false;
+            }
+            if (wasStalled) {
+                resizeSender(-1);
+                emitter.completeWithError(new IOException("Live update send stalled for over " + sendTimeoutMs + " ms"));
+            }
+            return wasStalled;
+        }
+
+        private void close(Exception cause) {
+            synchronized (this) {
+                closed = true;
+                queued.clear();
+            }
+            unsubscribe(this);
+            emitter.completeWithError(cause);
+        }
+    }
+
+    /**
+     * One change for one or more topics, coalesced with others of the same key.
+     *
+     * @param allBanks Also send to every bank topic
+     */
+    public record Update(String key, Map<String, Object> data, List<String> topics, boolean allBanks) {
+        Update(String key, Map<String, Object> data, List<String> topics) {
+            this(key, data, topics, false);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.InclusionProof;
+import com.example.bloodchain.model.AuditBlock;
+import com.example.bloodchain.model.BloodTrackingLog;
+import com.example.bloodchain.repository.AuditBlockRepository;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups sequenced audit log entries into blocks with a Merkle root per block.
+ * Blocks are chained through their hashes, and any single entry can be proven
+ * with the sibling hashes along its path (O(log n) for a block of n entries).
+ *
+ * Leaves and inner nodes are domain-separated (0x00 / 0x01 prefix) and an
+ * unpaired node is carried up to the next level unchanged.
+ *
+ * A block always covers a contiguous run of sequence numbers. A missing number
+ * ends the block before it; once old enough it is skipped and the next block
+ * starts after it, so an entry that still shows up with that number later lies
+ * between blocks and is reported as unsealed instead of corrupting a proof.
+ */
+@Service
+public class MerkleBlockService {
+
+    // A gap younger than this may still be committing and holds sealing back rather than being skipped
+    private static final long GAP_GRACE_SECONDS = 60;
+
+    @Autowired
+    private AuditBlockRepository blockRepository;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    @Value("${bloodchain.audit.block-size:256}")
+    private int blockSize;
+
+    // A partial block is sealed once its oldest entry is this old
+    @Value("${bloodchain.audit.block-max-age-seconds:300}")
+    private long blockMaxAgeSeconds;
+
+    /**
+     * Seal every block that is ready (full, or partial and old enough).
+     */
+    @Scheduled(fixedDelayString = "${bloodchain.audit.block-seal-interval-ms:10000}")
+    public void sealPendingBlocks() {
+        while (sealNextBlock()) {
+            // keep sealing while full blocks are waiting
+        }
+    }
+
+    /**
+     * Seal the next block if enough committed entries are available.
+     *
+     * @return true if a block was sealed
+     */
+    public synchronized boolean sealNextBlock() {
+        AuditBlock last = blockRepository.findTopByOrderByBlockNumberDesc();
+        long firstSeq;
+        if (last != null) {
+            firstSeq = last.getLastSeq() + 1;
+        } else {
+            List<BloodTrackingLog> first = logStore.findSequencedFrom(0, 1);
+            if (first.isEmpty()) {
+                return false;
+            }
+            firstSeq = first.get(0).getChainSeq();
+        }
+
+        LocalDateTime gapCutoff = LocalDateTime.now().minusSeconds(GAP_GRACE_SECONDS);
+        List<Long> seqs = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        LocalDateTime oldest = null;
+
+        for (BloodTrackingLog log : logStore.findSequencedFrom(firstSeq, blockSize)) {
+            long seq = log.getChainSeq();
+            long expected = seqs.isEmpty() ? firstSeq : seqs.get(seqs.size() - 1) + 1;
+            if (seq != expected && (!seqs.isEmpty() || AuditChainHead.sequencedAt(log).isAfter(gapCutoff))) {
+                break;  // block ends before the gap; an old gap is skipped by the next block
+            }
+            if (oldest == null) {
+                oldest = AuditChainHead.sequencedAt(log);
+            }
+            seqs.add(seq);
+            hashes.add(log.getHash());
+        }
+
+        if (seqs.isEmpty()) {
+            return false;
+        }
+        boolean full = seqs.size() == blockSize;
+        // A block cut short by a gap is sealed by age like a partial one
+        boolean stale = oldest.isBefore(LocalDateTime.now().minusSeconds(blockMaxAgeSeconds));
+        if (!full && !stale) {
+            return false;
+        }
+
+        AuditBlock block = new AuditBlock();
+        block.setBlockNumber(last != null ? last.getBlockNumber() + 1 : 0L);
+        block.setFirstSeq(seqs.get(0));
+        block.setLastSeq(seqs.get(seqs.size() - 1));
+        block.setEntryCount(seqs.size());
+        block.setMerkleRoot(Hex.encodeHexString(merkleRoot(leaves(hashes))));
+        block.setPreviousBlockHash(last != null ? last.getBlockHash() : AuditChainHead.GENESIS_HASH);
+        block.setBlockHash(blockHash(block));
+        block.setSealedAt(LocalDateTime.now());
+        blockRepository.save(block);
+        return true;
+    }
+
+    /**
+     * Build the inclusion proof for one log entry.
+     */
+    public InclusionProof proveLogEntry(Long logId) {
+        BloodTrackingLog log = logStore.findById(logId)
+            .orElseThrow(() -> new RuntimeException("Log entry not found: " + logId));
+        if (log.getChainSeq() == null) {
+            throw new IllegalStateException("Log entry " + log.getId() + " predates chain sequencing and is not part of any block");
+        }
+        InclusionProof proof = prove(log, new HashMap<>());
+        if (proof == null) {
+            throw new IllegalStateException("Log entry " + log.getId() + " is not sealed into a block");
+        }
+        return proof;
+    }
+
+    /**
+     * Build inclusion proofs for every sealed entry of a blood unit (oldest first).
+     * Entries that are not a leaf of a sealed block (not sealed yet, or committed
+     * after their sequence number was skipped) are left out.
+     */
+    public List<InclusionProof> proveBloodUnit(String bloodUnitId) {
+        AuditBlock lastSealed = blockRepository.findTopByOrderByBlockNumberDesc();
+        Map<Long, BlockLeaves> blockLeaves = new HashMap<>();
+        List<InclusionProof> proofs = new ArrayList<>();
+        if (lastSealed == null) {
+            return proofs;
+        }
+        for (BloodTrackingLog log : logStore.findByBloodUnitIdOrderByTimestampAsc(bloodUnitId)) {
+            if (log.getChainSeq() != null && log.getChainSeq() <= lastSealed.getLastSeq()) {
+                InclusionProof proof = prove(log, blockLeaves);
+                if (proof != null) {
+                    proofs.add(proof);
+                }
+            }
+        }
+        return proofs;
+    }
+
+    // Proof for a sequenced entry, or null if it is not a leaf of any sealed block
+    private InclusionProof prove(BloodTrackingLog log, Map<Long, BlockLeaves> blockLeaves) {
+        long seq = log.getChainSeq();
+        AuditBlock block = blockRepository.findByFirstSeqLessThanEqualAndLastSeqGreaterThanEqual(seq, seq).orElse(null);
+        if (block == null) {
+            return null;
+        }
+
+        BlockLeaves blockEntries = blockLeaves.computeIfAbsent(block.getBlockNumber(), number -> loadLeaves(block));
+        int index = blockEntries.seqs().indexOf(seq);
+        if (index < 0 || blockEntries.seqs().size() != block.getEntryCount()) {
+            return null;  // a leaf set that no longer matches the block cannot give a valid path
+        }
+
+        InclusionProof proof = new InclusionProof();
+        proof.setLogId(log.getId());
+        proof.setBloodUnitId(log.getBloodUnitId());
+        proof.setAction(log.getAction());
+        proof.setChainSeq(seq);
+        proof.setEntryHash(log.getHash());
+        proof.setLeafIndex(index);
+        proof.setBlockNumber(block.getBlockNumber());
+        proof.setBlockSize(block.getEntryCount());
+        proof.setMerkleRoot(block.getMerkleRoot());
+        proof.setPreviousBlockHash(block.getPreviousBlockHash());
+        proof.setBlockHash(block.getBlockHash());
+
+        List<byte[]> level = leaves(blockEntries.hashes());
+        int position = index;
+        while (level.size() > 1) {
+            int sibling = position ^ 1;
+            if (sibling < level.size()) {
+                proof.getPath().add(new InclusionProof.Step(
+                    Hex.encodeHexString(level.get(sibling)),
+                    sibling < position ? "LEFT" : "RIGHT"
+                ));
+            }
+            level = nextLevel(level);
+            position /= 2;
+        }
+
+        proof.setVerified(verify(proof) && blockHash(block).equals(block.getBlockHash()));
+        return proof;
+    }
+
+    /**
+     * Fold the entry hash with the proof path and compare against the Merkle root.
+     */
+    public boolean verify(InclusionProof proof) {
+        byte[] node = leafHash(decode(proof.getEntryHash()));
+        for (InclusionProof.Step step : proof.getPath()) {
+            byte[] sibling = decode(step.getHash());
+            node = "LEFT".equals(step.getPosition()) ? nodeHash(sibling, node) : nodeHash(node, sibling);
+        }
+        return MessageDigest.isEqual(node, decode(proof.getMerkleRoot()));
+    }
+
+    private BlockLeaves loadLeaves(AuditBlock block) {
+        List<Long> seqs = new ArrayList<>(block.getEntryCount());
+        List<String> hashes = new ArrayList<>(block.getEntryCount());
+        int span = (int) (block.getLastSeq() - block.getFirstSeq() + 1);
+        for (BloodTrackingLog log : logStore.findSequencedFrom(block.getFirstSeq(), span)) {
+            if (log.getChainSeq() > block.getLastSeq()) {
+                break;
+            }
+            seqs.add(log.getChainSeq());
+            hashes.add(log.getHash());
+        }
+        return new BlockLeaves(seqs, hashes);
+    }
+
+    private static String blockHash(AuditBlock block) {
+        return DigestUtils.sha256Hex(block.getBlockNumber() + "|" + block.getFirstSeq() + "|" +
+                                     block.getLastSeq() + "|" + block.getEntryCount() + "|" +
+                                     block.getMerkleRoot() + "|" + block.getPreviousBlockHash());
+    }
+
+    private static List<byte[]> leaves(List<String> entryHashes) {
+        List<byte[]> leaves = new ArrayList<>(entryHashes.size());
+        for (String hash : entryHashes) {
+            leaves.add(leafHash(decode(hash)));
+        }
+        return leaves;
+    }
+
+    private static byte[] merkleRoot(List<byte[]> leaves) {
+        List<byte[]> level = leaves;
+        while (level.size() > 1) {
+            level = nextLevel(level);
+        }
+        return level.get(0);
+    }
+
+    private static List<byte[]> nextLevel(List<byte[]> level) {
+        List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            next.add(i + 1 < level.size() ? nodeHash(level.get(i), level.get(i + 1)) : level.get(i));
+        }
+        return next;
+    }
+
+    private static byte[] leafHash(byte[] entryHash) {
+        byte[] data = new byte[entryHash.length + 1];
+        data[0] = 0x00;
+        System.arraycopy(entryHash, 0, data, 1, entryHash.length);
+        return DigestUtils.sha256(data);
+    }
+
+    private static byte[] nodeHash(byte[] left, byte[] right) {
+        byte[] data = new byte[left.length + right.length + 1];
+        data[0] = 0x01;
+        System.arraycopy(left, 0, data, 1, left.length);
+        System.arraycopy(right, 0, data, 1 + left.length, right.length);
+        return DigestUtils.sha256(data);
+    }
+
+    private static byte[] decode(String hex) {
+        try {
+            return Hex.decodeHex(hex != null ? hex : "");
+        } catch (DecoderException e) {
+            throw new IllegalStateException("Invalid hash value: " + hex, e);
+        }
+    }
+
+    /**
+     * Entry sequence numbers and hashes of one block, in leaf order.
+     */
+    private record BlockLeaves(List<Long> seqs, List<String> hashes) {}
+}
@@ -0,0 +1,170 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodRequest;
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.model.ComponentStatus;
+import com.example.bloodchain.model.ComponentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves every component of a blood request through one step (dispatch, receipt) in bulk.
+ *
+ * The request's mappings, components and blood units are read with three queries
+ * (components and units locked FOR UPDATE), the new statuses are worked out in
+ * memory and written with one UPDATE per table, whatever the request size. Audit
+ * entries go through BloodTrackingService and are appended as one batch at commit;
+ * inventory counters and the inventory index are told about every status change.
+ * Must run inside the caller's transaction.
+ */
+@Service
+public class RequestTransitionService {
+
+    private static final String MAPPINGS =
+        "SELECT blood_component_id FROM blood_request_components WHERE blood_request_id = ?";
+
+    private static final String COMPONENTS =
+        "SELECT id, blood_unit_id, component_type, status FROM blood_components WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    private static final String UNITS =
+        "SELECT id, blood_unit_id, status FROM blood_units WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BloodTrackingService trackingService;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private InventoryCounters inventoryCounters;
+
+    /**
+     * Mark the request's components dispatched and stamp the mappings' dispatch date.
+     *
+     * @return Number of components moved
+     */
+    public int dispatch(BloodRequest request, String performedBy) {
+        return apply(request, "dispatch_date", ComponentStatus.DISPATCHED, null, null, performedBy, "ROLE_BLOODBANK");
+    }
+
+    /**
+     * Mark the request's components and their blood units received by the hospital.
+     *
+     * @return Number of components moved
+     */
+    public int receive(BloodRequest request, String performedBy) {
+        return apply(request, "received_date", ComponentStatus.RECEIVED, BloodUnitStatus.RECEIVED,
+            "BLOOD_RECEIVED", performedBy, "ROLE_HOSPITAL");
+    }
+
+    private int apply(BloodRequest request, String mappingDateColumn, ComponentStatus componentStatus,
+                      BloodUnitStatus unitStatus, String unitAction, String performedBy, String role) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // 1. Mappings
+        List<Long> componentIds = jdbcTemplate.queryForList(MAPPINGS, Long.class, request.getId());
+        jdbcTemplate.update("UPDATE blood_request_components SET " + mappingDateColumn + " = ? WHERE blood_request_id = ?",
+            now, request.getId());
+        if (componentIds.isEmpty()) {
+            return 0;
+        }
+
+        // 2. Components
+        List<ComponentRow> components = jdbcTemplate.query(String.format(COMPONENTS, placeholders(componentIds.size())),
+            (rs, rowNum) -> new ComponentRow(
+                rs.getLong("id"),
+                rs.getLong("blood_unit_id"),
+                ComponentType.valueOf(rs.getString("component_type")),
+                rs.getString("status")
+            ),
+            componentIds.toArray());
+        if (components.isEmpty()) {
+            return 0;
+        }
+
+        // 3. Blood units (for audit IDs, and their own status on receipt)
+        List<Long> unitIds = components.stream().map(ComponentRow::unitId).distinct().toList();
+        Map<Long, UnitRow> units = new LinkedHashMap<>();
+        jdbcTemplate.query(String.format(UNITS, placeholders(unitIds.size())), rs -> {
+            units.put(rs.getLong("id"), new UnitRow(rs.getLong("id"), rs.getString("blood_unit_id"), rs.getString("status")));
+        }, unitIds.toArray());
+
+        // Writes: one statement per table
+        List<Long> ids = components.stream().map(ComponentRow::id).toList();
+        jdbcTemplate.update("UPDATE blood_components SET status = ?, updated_at = ? WHERE id IN (" + placeholders(ids.size()) + ")",
+            args(componentStatus.name(), now, ids));
+        if (unitStatus != null && !units.isEmpty()) {
+            jdbcTemplate.update("UPDATE blood_units SET status = ?, updated_at = ? WHERE id IN (" + placeholders(units.size()) + ")",
+                args(unitStatus.name(), now, units.keySet()));
+        }
+
+        // Side effects per component, then per unit
+        List<Long> leftAvailable = new ArrayList<>();
+        for (ComponentRow component : components) {
+            inventoryCounters.componentChanged(component.unitId(), component.componentType(),
+                component.status(), componentStatus.name());
+            if (ComponentStatus.AVAILABLE.name().equals(component.status())) {
+                leftAvailable.add(component.id());
+            }
+            UnitRow unit = units.get(component.unitId());
+            if (unit != null) {
+                trackingService.logAction(
+                    unit.bloodUnitId(),
+                    "COMPONENT_STATUS_CHANGED",
+                    performedBy,
+                    role,
+                    String.format("%s component status changed from %s to %s",
+                        component.componentType(), component.status(), componentStatus)
+                );
+            }
+        }
+        if (!leftAvailable.isEmpty()) {
+            inventoryIndex.removeAfterCommit(leftAvailable);
+        }
+
+        if (unitStatus != null) {
+            for (UnitRow unit : units.values()) {
+                inventoryCounters.unitChanged(unit.id(), unit.status(), unitStatus.name());
+                trackingService.logStatusChange(
+                    unit.bloodUnitId(),
+                    unitAction,
+                    performedBy,
+                    role,
+                    BloodUnitStatus.DISPATCHED.toString(),
+                    unitStatus.toString(),
+                    String.format("Received by hospital for request: %s", request.getRequestNumber())
+                );
+            }
+        }
+        return components.size();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] args(String status, Timestamp now, Collection<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(status);
+        args.add(now);
+        args.addAll(ids);
+        return args.toArray();
+    }
+
+    private record ComponentRow(long id, long unitId, ComponentType componentType, String status) {}
+
+    private record UnitRow(long id, String bloodUnitId, String status) {}
+}
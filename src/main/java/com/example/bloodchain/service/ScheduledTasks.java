@@ -19,7 +19,7 @@ public class ScheduledTasks {
 
     /**
      * Mark expired blood units.
-     * Runs daily at 2:00 AM.
+     * Runs daily at 2:00 AM as a backstop; ExpiryScheduler expires items as they lapse.
      */
     @Scheduled(cron = "0 0 2 * * *")
     public void markExpiredBloodUnits() {
@@ -29,7 +29,7 @@ public class ScheduledTasks {
 
     /**
      * Mark expired blood components.
-     * Runs daily at 2:00 AM.
+     * Runs daily at 2:00 AM as a backstop; ExpiryScheduler expires items as they lapse.
      */
     @Scheduled(cron = "0 0 2 * * *")
     public void markExpiredComponents() {
@@ -37,7 +37,5 @@ public class ScheduledTasks {
         componentService.markExpiredComponents();
     }
 
-    // TODO: Add email alerts for expiring blood (3 days before expiry)
-    // @Scheduled(cron = "0 0 9 * * *")  // Daily at 9 AM
-    // public void sendExpiryAlerts() { ... }
+    // Email alerts for expiring blood (3 days before expiry) are sent by ExpiryScheduler
 }
@@ -0,0 +1,672 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Audit store on memory-mapped, append-only segment files.
+ *
+ * Each segment is a fixed-size file of records laid out as
+ * [length][crc32][payload] (payload per AuditRecordCodec); a zero length marks
+ * the end of written data. A full segment is left as is and the next one is
+ * created, so written bytes are never modified.
+ *
+ * Indexes are kept in memory and rebuilt by one sequential scan on startup:
+ * a sparse id and sequence number index (every SPARSE_INTERVAL-th record) and the
+ * record positions of each blood unit. Entries are appended in chain order (their
+ * sequence numbers are taken under the same lock as the write), so ids and sequence
+ * numbers both grow with the position. Queries on other fields walk the segments
+ * backwards from the page cursor, one sparse interval at a time, and stop as soon as
+ * the page is full.
+ *
+ * The per-unit position lists hold one long for every record, so they grow with the
+ * log (about 8 bytes per entry plus one map entry per blood unit) and are never
+ * trimmed; a log too large for that to fit in the heap belongs in the jpa store.
+ */
+@Component
+@ConditionalOnProperty(name = "bloodchain.audit.store", havingValue = "segment")
+public class SegmentAuditLogStore implements AuditLogStore {
+
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int SPARSE_INTERVAL = 64;
+    private static final int RECENT = 256;  // newest records kept for the dashboard finders
+
+    private static final Comparator<BloodTrackingLog> OLDEST_FIRST =
+        Comparator.comparing(BloodTrackingLog::getTimestamp).thenComparing(BloodTrackingLog::getId);
+
+    @Value("${bloodchain.audit.segment-dir:./audit-segments}")
+    private String segmentDir;
+
+    @Value("${bloodchain.audit.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    // Force each batch to disk before the transaction that logged it commits
+    @Value("${bloodchain.audit.segment-fsync:true}")
+    private boolean fsync;
+
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AuditRecordCodec codec = new AuditRecordCodec();
+    private final CRC32 crc = new CRC32();
+
+    // Guarded by lock
+    private int writeOffset;
+    private long nextId = 1;
+    private long recordCount;
+    private final LongList sparseIds = new LongList();
+    private final LongList sparseSeqs = new LongList();
+    private final LongList sparsePositions = new LongList();
+    private final Map<String, LongList> unitPositions = new HashMap<>();  // unbounded, see class doc
+    private final long[] recent = new long[RECENT];
+    private long lastSequencedPosition = -1;
+    private long lastSequencedSeq = -1;
+    private long lastGlobalPosition = -1;
+    private long lastGlobalSeq = -1;
+
+    @PostConstruct
+    public void open() {
+        try {
+            Path dir = Paths.get(segmentDir);
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(dir)) {
+                files = listing.filter(path -> path.getFileName().toString().matches("segment-\\d{6}\\.log"))
+                               .sorted()
+                               .toList();
+            }
+            for (Path file : files) {
+                segments.add(map(file));
+                writeOffset = recover(segments.size() - 1);
+            }
+            if (segments.isEmpty()) {
+                rotate();
+            }
+            System.out.println("🗂️ Audit segment store opened: " + recordCount + " entries in " + segments.size() + " segment(s)");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit segment store in " + segmentDir, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Failed to close audit segments: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void appendAll(List<BloodTrackingLog> logs) {
+        lock.writeLock().lock();
+        try {
+            int firstSegment = Math.max(segments.size() - 1, 0);
+            for (BloodTrackingLog log : logs) {
+                if (log.getId() == null) {
+                    log.setId(nextId);
+                }
+                ByteBuffer record = codec.encode(log);
+                int payloadLength = record.remaining() - Integer.BYTES;
+                if (RECORD_HEADER + payloadLength > segmentBytes()) {
+                    throw new IllegalStateException("Audit entry of " + payloadLength + " bytes does not fit in a segment");
+                }
+                if (writeOffset + RECORD_HEADER + payloadLength > segmentBytes()) {
+                    rotate();
+                }
+
+                record.position(Integer.BYTES);
+                crc.reset();
+                crc.update(record.duplicate());
+                MappedByteBuffer segment = segments.get(segments.size() - 1);
+                int offset = writeOffset;
+                segment.putInt(offset + Integer.BYTES, (int) crc.getValue());
+                segment.put(offset + RECORD_HEADER, record, record.position(), payloadLength);
+                segment.putInt(offset, payloadLength);  // written last: the record exists once its length does
+
+                writeOffset = offset + RECORD_HEADER + payloadLength;
+                index(log, position(segments.size() - 1, offset));
+            }
+            if (fsync) {
+                for (int i = firstSegment; i < segments.size(); i++) {
+                    segments.get(i).force();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void importAll(List<BloodTrackingLog> logs) {
+        lock.writeLock().lock();
+        try {
+            // The sparse indexes need ids and sequence numbers above everything stored
+            long lastId = nextId - 1;
+            long lastSeq = lastSequencedSeq;
+            for (BloodTrackingLog log : logs) {
+                if (log.getChainSeq() == null) {
+                    throw new IllegalStateException("Entry " + log.getId() + " predates chain sequencing and cannot be imported into a segment store");
+                }
+                if (log.getId() <= lastId || log.getChainSeq() <= lastSeq) {
+                    throw new IllegalStateException("Archive entry " + log.getId() + " (chain #" + log.getChainSeq() + ") conflicts with stored entries");
+                }
+                lastId = log.getId();
+                lastSeq = log.getChainSeq();
+            }
+            appendAll(logs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public Optional<BloodTrackingLog> findById(Long id) {
+        long position;
+        long end;
+        lock.readLock().lock();
+        try {
+            int slot = sparseIds.floorIndex(id);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            position = sparsePositions.get(slot);
+            end = endPosition();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Ids grow with append order, so the entry is at most SPARSE_INTERVAL records further on
+        for (int i = 0; i < SPARSE_INTERVAL && position >= 0 && position < end; i++) {
+            BloodTrackingLog log = read(position);
+            if (log.getId().equals(id)) {
+                return Optional.of(log);
+            }
+            position = next(position, end);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<BloodTrackingLog> findByBloodUnitIdOrderByTimestampAsc(String bloodUnitId) {
+        List<BloodTrackingLog> logs = new ArrayList<>();
+        for (long position : positionsOf(bloodUnitId)) {
+            logs.add(read(position));
+        }
+        logs.sort(Comparator.comparing(BloodTrackingLog::getTimestamp));
+        return logs;
+    }
+
+    @Override
+    public List<BloodTrackingLog> findBloodUnitPage(String bloodUnitId, LogCursor after, int limit) {
+        List<BloodTrackingLog> logs = findByBloodUnitIdOrderByTimestampAsc(bloodUnitId);
+        logs.sort(OLDEST_FIRST);
+        return page(logs, after, OLDEST_FIRST, limit);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findPerformedByPage(String performedBy, LogCursor after, int limit) {
+        return scanNewestFirst(log -> performedBy.equals(log.getPerformedBy()), after, limit);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findActionPage(String action, LogCursor after, int limit) {
+        return scanNewestFirst(log -> action.equals(log.getAction()), after, limit);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTimestampRangePage(LocalDateTime start, LocalDateTime end, LogCursor after, int limit) {
+        return scanNewestFirst(log -> !log.getTimestamp().isBefore(start) && !log.getTimestamp().isAfter(end), after, limit);
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTop100ByOrderByTimestampDesc() {
+        List<BloodTrackingLog> logs = recentLogs();
+        logs.sort(Comparator.comparing(BloodTrackingLog::getTimestamp).reversed());
+        return logs.subList(0, Math.min(100, logs.size()));
+    }
+
+    @Override
+    public List<BloodTrackingLog> findTop5ByOrderByIdDesc() {
+        List<BloodTrackingLog> logs = recentLogs();
+        logs.sort(Comparator.comparing(BloodTrackingLog::getId).reversed());
+        return logs.subList(0, Math.min(5, logs.size()));
+    }
+
+    @Override
+    public BloodTrackingLog findTopByBloodUnitIdOrderByTimestampDesc(String bloodUnitId) {
+        List<BloodTrackingLog> logs = findByBloodUnitIdOrderByTimestampAsc(bloodUnitId);
+        return logs.isEmpty() ? null : logs.get(logs.size() - 1);
+    }
+
+    @Override
+    public String findLatestUnitHash(String bloodUnitId) {
+        // Segments are appended in sequence order
+        long[] positions = positionsOf(bloodUnitId);
+        return positions.length > 0 ? read(positions[positions.length - 1]).getHash() : null;
+    }
+
+    @Override
+    public Map<String, String> findLatestHashes(Collection<String> bloodUnitIds) {
+        // Per-unit positions are indexed in memory, so this is no scan
+        Map<String, String> hashes = new HashMap<>();
+        for (String bloodUnitId : bloodUnitIds) {
+            BloodTrackingLog latest = findTopByBloodUnitIdOrderByTimestampDesc(bloodUnitId);
+            if (latest != null && latest.getHash() != null) {
+                hashes.put(bloodUnitId, latest.getHash());
+            }
+        }
+        return hashes;
+    }
+
+    @Override
+    public BloodTrackingLog findTopByChainSeqNotNullOrderByChainSeqDesc() {
+        long position;
+        lock.readLock().lock();
+        try {
+            position = lastSequencedPosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return position >= 0 ? read(position) : null;
+    }
+
+    @Override
+    public BloodTrackingLog findLatestGlobalEntry() {
+        long position;
+        lock.readLock().lock();
+        try {
+            position = lastGlobalPosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return position >= 0 ? read(position) : null;
+    }
+
+    @Override
+    public BloodTrackingLog findTopByChainSeqIsNullOrderByIdDesc() {
+        return null;  // every entry in a segment store is sequenced
+    }
+
+    @Override
+    public List<BloodTrackingLog> findSequencedFrom(long fromSeq, int limit) {
+        long position;
+        long end;
+        lock.readLock().lock();
+        try {
+            if (recordCount == 0) {
+                return new ArrayList<>();
+            }
+            int slot = sparseSeqs.floorIndex(fromSeq);
+            position = slot >= 0 ? sparsePositions.get(slot) : 0;
+            end = endPosition();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<BloodTrackingLog> logs = new ArrayList<>(Math.min(limit, 1024));
+        for (; position >= 0 && position < end && logs.size() < limit; position = next(position, end)) {
+            BloodTrackingLog log = read(position);
+            if (log.getChainSeq() != null && log.getChainSeq() >= fromSeq) {
+                logs.add(log);
+            }
+        }
+        return logs;
+    }
+
+    @Override
+    public List<BloodTrackingLog> findLegacyAfterId(long afterId, int limit) {
+        return new ArrayList<>();  // every entry in a segment store is sequenced
+    }
+
+    @Override
+    public long countLegacy() {
+        return 0;
+    }
+
+    @Override
+    public String findUnitPredecessorHash(String bloodUnitId, long beforeSeq) {
+        long[] positions = positionsOf(bloodUnitId);
+        for (int i = positions.length - 1; i >= 0; i--) {
+            BloodTrackingLog log = read(positions[i]);
+            if (log.getChainSeq() != null && log.getChainSeq() < beforeSeq) {
+                return log.getHash() != null ? log.getHash() : AuditChainHead.GENESIS_HASH;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String findGlobalPredecessorHash(long beforePosition) {
+        long globalPosition;
+        long globalSeq;
+        int slot;
+        lock.readLock().lock();
+        try {
+            globalPosition = lastGlobalPosition;
+            globalSeq = lastGlobalSeq;
+            slot = sparseSeqs.floorIndex(beforePosition - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (globalSeq < 0) {
+            return null;  // unit chain mode only: nothing on the global chain
+        }
+        if (globalSeq < beforePosition) {
+            return read(globalPosition).getHash();
+        }
+
+        // Walk back one sparse interval at a time; the newest match in an interval wins
+        for (; slot >= 0; slot--) {
+            long position;
+            long stop;
+            lock.readLock().lock();
+            try {
+                position = sparsePositions.get(slot);
+                stop = slot + 1 < sparsePositions.size ? sparsePositions.get(slot + 1) : endPosition();
+            } finally {
+                lock.readLock().unlock();
+            }
+            String found = null;
+            for (; position >= 0 && position < stop; position = next(position, stop)) {
+                BloodTrackingLog log = read(position);
+                if (log.getChainSeq() != null && log.getChainSeq() < beforePosition && log.getLinkScope() == null) {
+                    found = log.getHash();
+                }
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    // ---- internals ----
+
+    private long segmentBytes() {
+        return segmentSizeMb * 1024L * 1024L;
+    }
+
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xffffffffL);
+    }
+
+    private long endPosition() {
+        return position(segments.size() - 1, writeOffset);
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes());
+    }
+
+    private void rotate() {
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).force();
+        }
+        Path file = Paths.get(segmentDir, String.format("segment-%06d.log", segments.size()));
+        try {
+            segments.add(map(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create audit segment " + file, e);
+        }
+        writeOffset = 0;
+    }
+
+    /**
+     * Index every intact record of a segment and return where writing continues.
+     * A torn record (bad checksum) and anything after it in the last segment is cleared.
+     */
+    private int recover(int segmentIndex) {
+        MappedByteBuffer segment = segments.get(segmentIndex);
+        int offset = 0;
+        while (offset + RECORD_HEADER <= segment.capacity()) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER + length > segment.capacity()) {
+                break;
+            }
+            ByteBuffer payload = segment.slice(offset + RECORD_HEADER, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != segment.getInt(offset + Integer.BYTES)) {
+                System.err.println("⚠️ Torn audit record in segment " + segmentIndex + " at offset " + offset + "; truncating");
+                for (int i = offset; i < segment.capacity(); i++) {
+                    segment.put(i, (byte) 0);
+                }
+                break;
+            }
+            BloodTrackingLog log = AuditRecordCodec.decode(payload);
+            index(log, position(segmentIndex, offset));
+            offset += RECORD_HEADER + length;
+        }
+        return offset;
+    }
+
+    private void index(BloodTrackingLog log, long position) {
+        if (recordCount % SPARSE_INTERVAL == 0) {
+            sparseIds.add(log.getId());
+            sparseSeqs.add(log.getChainSeq() != null ? log.getChainSeq() : lastSequencedSeq);
+            sparsePositions.add(position);
+        }
+        unitPositions.computeIfAbsent(log.getBloodUnitId(), unit -> new LongList()).add(position);
+        recent[(int) (recordCount % RECENT)] = position;
+        recordCount++;
+        nextId = Math.max(nextId, log.getId() + 1);
+
+        if (log.getChainSeq() != null) {
+            if (log.getChainSeq() > lastSequencedSeq) {
+                lastSequencedSeq = log.getChainSeq();
+                lastSequencedPosition = position;
+            }
+            if (log.getLinkScope() == null && log.getChainSeq() > lastGlobalSeq) {
+                lastGlobalSeq = log.getChainSeq();
+                lastGlobalPosition = position;
+            }
+        }
+    }
+
+    private long[] positionsOf(String bloodUnitId) {
+        lock.readLock().lock();
+        try {
+            LongList positions = unitPositions.get(bloodUnitId);
+            return positions != null ? positions.toArray() : new long[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<BloodTrackingLog> recentLogs() {
+        long[] positions;
+        lock.readLock().lock();
+        try {
+            int size = (int) Math.min(recordCount, RECENT);
+            positions = new long[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = recent[(int) ((recordCount - 1 - i) % RECENT)];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<BloodTrackingLog> logs = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            logs.add(read(position));
+        }
+        return logs;
+    }
+
+    /**
+     * Matching records newest first, strictly before the cursor, at most limit of them.
+     * Newest means last appended (descending id): records are read one sparse interval
+     * at a time from the cursor's interval backwards, so a page costs the records
+     * between the cursor and its last match, not the whole log. Timestamps follow
+     * append order except for entries logged early in a long transaction, so the
+     * order can differ from the table's (timestamp, id) order by that much.
+     * Records appended during the scan are not seen.
+     */
+    private List<BloodTrackingLog> scanNewestFirst(Predicate<BloodTrackingLog> filter, LogCursor after, int limit) {
+        long end;
+        int slot;
+        lock.readLock().lock();
+        try {
+            if (recordCount == 0) {
+                return new ArrayList<>();
+            }
+            end = endPosition();
+            slot = after != null ? sparseIds.floorIndex(after.id()) : sparseIds.size - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long beforeId = after != null ? after.id() : Long.MAX_VALUE;
+        List<BloodTrackingLog> matches = new ArrayList<>(Math.min(limit, 1024));
+        List<BloodTrackingLog> interval = new ArrayList<>(SPARSE_INTERVAL);
+        for (; slot >= 0 && matches.size() < limit; slot--) {
+            long position;
+            long stop;
+            lock.readLock().lock();
+            try {
+                position = sparsePositions.get(slot);
+                stop = slot + 1 < sparsePositions.size ? Math.min(sparsePositions.get(slot + 1), end) : end;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            interval.clear();
+            for (; position >= 0 && position < stop; position = next(position, stop)) {
+                BloodTrackingLog log = read(position);
+                if (log.getId() < beforeId && filter.test(log)) {
+                    interval.add(log);
+                }
+            }
+            for (int i = interval.size() - 1; i >= 0 && matches.size() < limit; i--) {
+                matches.add(interval.get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows strictly after the cursor in the given order, at most limit of them.
+     * Used for one unit's trail, which is small and read through its position list.
+     */
+    private static List<BloodTrackingLog> page(List<BloodTrackingLog> sorted, LogCursor after,
+                                               Comparator<BloodTrackingLog> order, int limit) {
+        int from = 0;
+        if (after != null) {
+            BloodTrackingLog key = new BloodTrackingLog();
+            key.setTimestamp(after.timestamp());
+            key.setId(after.id());
+            while (from < sorted.size() && order.compare(sorted.get(from), key) <= 0) {
+                from++;
+            }
+        }
+        return new ArrayList<>(sorted.subList(from, Math.min(sorted.size(), from + limit)));
+    }
+
+    private BloodTrackingLog read(long position) {
+        MappedByteBuffer segment = segments.get((int) (position >>> 32));
+        int offset = (int) position;
+        int length = segment.getInt(offset);
+        return AuditRecordCodec.decode(segment.slice(offset + RECORD_HEADER, length));
+    }
+
+    /**
+     * Position of the record after the given one, or -1 past the end.
+     */
+    private long next(long position, long end) {
+        int segmentIndex = (int) (position >>> 32);
+        int offset = (int) position;
+        MappedByteBuffer segment = segments.get(segmentIndex);
+        int nextOffset = offset + RECORD_HEADER + segment.getInt(offset);
+
+        long next = position(segmentIndex, nextOffset);
+        boolean segmentEnds = nextOffset + RECORD_HEADER > segment.capacity() || segment.getInt(nextOffset) <= 0;
+        if (next < end && segmentEnds) {
+            next = position(segmentIndex + 1, 0);
+        }
+        return next < end ? next : -1;
+    }
+
+    /**
+     * Growable array of primitive longs.
+     */
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long get(int index) {
+            return values[index];
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Index of the largest value <= key (values are ascending), or -1.
+         */
+        private int floorIndex(long key) {
+            int index = Arrays.binarySearch(values, 0, size, key);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.bloodchain.service;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Reusable SHA-256 hasher for audit and blood unit hashes.
+ * One instance per thread holds its digest, a byte buffer and the hex output buffer,
+ * so hashing an entry allocates nothing but the returned hex String.
+ *
+ * Fields are fed in as UTF-8 bytes exactly as String.getBytes(UTF_8) would encode
+ * their concatenation, so hashes stay identical to the ones already stored.
+ *
+ * Usage: {@code Sha256.begin().add(a).add(b).hex()}
+ */
+final class Sha256 {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Sha256> LOCAL = ThreadLocal.withInitial(Sha256::new);
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[512];
+    private final byte[] hash = new byte[32];
+    private final char[] hex = new char[64];
+    private int length;
+    private char pendingHighSurrogate;
+
+    private Sha256() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    /**
+     * Start a new hash on this thread's hasher.
+     */
+    static Sha256 begin() {
+        Sha256 hasher = LOCAL.get();
+        hasher.digest.reset();
+        hasher.length = 0;
+        hasher.pendingHighSurrogate = 0;
+        return hasher;
+    }
+
+    /**
+     * Append text; null is skipped (callers decide how null is spelled).
+     */
+    Sha256 add(CharSequence text) {
+        if (text == null) {
+            return this;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            addChar(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Append the decimal form of a number, as string concatenation would.
+     */
+    Sha256 add(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return add(Long.toString(value));
+            }
+            addChar('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            addChar((char) ('0' + (value / divisor) % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Append a number, or "null" when absent (same as string concatenation).
+     */
+    Sha256 add(Integer value) {
+        return value != null ? add(value.longValue()) : add("null");
+    }
+
+    /**
+     * Append a date in LocalDate.toString() form (yyyy-MM-dd).
+     */
+    Sha256 add(LocalDate date) {
+        if (date == null) {
+            return add("null");
+        }
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            return add(date.toString());
+        }
+        addDigits(date.getYear(), 4).addChar('-');
+        addDigits(date.getMonthValue(), 2).addChar('-');
+        return addDigits(date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Append a timestamp in LocalDateTime.toString() form
+     * (seconds and fraction only when non-zero, fraction in groups of three digits).
+     */
+    Sha256 add(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return add("null");
+        }
+        add(dateTime.toLocalDate()).addChar('T');
+
+        LocalTime time = dateTime.toLocalTime();
+        addDigits(time.getHour(), 2).addChar(':');
+        addDigits(time.getMinute(), 2);
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second > 0 || nano > 0) {
+            addChar(':');
+            addDigits(second, 2);
+            if (nano > 0) {
+                addChar('.');
+                if (nano % 1_000_000 == 0) {
+                    addDigits(nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    addDigits(nano / 1000, 6);
+                } else {
+                    addDigits(nano, 9);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Finish the hash and return it as lowercase hex.
+     */
+    String hex() {
+        if (pendingHighSurrogate != 0) {
+            put((byte) '?');  // unpaired surrogate, as String.getBytes encodes it
+            pendingHighSurrogate = 0;
+        }
+        digest.update(buffer, 0, length);
+        length = 0;
+        try {
+            digest.digest(hash, 0, hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0x0f];
+            hex[2 * i + 1] = HEX[hash[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private Sha256 addDigits(int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            addChar((char) ('0' + (value / divisor) % 10));
+        }
+        return this;
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private Sha256 addChar(char c) {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                put((byte) (0xf0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                put((byte) (0x80 | (codePoint & 0x3f)));
+                return this;
+            }
+            put((byte) '?');
+        }
+
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            put((byte) (0xc0 | (c >> 6)));
+            put((byte) (0x80 | (c & 0x3f)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            put((byte) '?');
+        } else {
+            put((byte) (0xe0 | (c >> 12)));
+            put((byte) (0x80 | ((c >> 6) & 0x3f)));
+            put((byte) (0x80 | (c & 0x3f)));
+        }
+        return this;
+    }
+
+    private void put(byte b) {
+        if (length == buffer.length) {
+            digest.update(buffer, 0, length);
+            length = 0;
+        }
+        buffer[length++] = b;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heads of the per-blood-unit audit sub-chains.
+ * In unit chain mode each entry links to the previous entry of the same blood unit
+ * instead of the previous entry system-wide. Entries still take a global sequence
+ * number for ordering, blocks and verification.
+ *
+ * Linking happens in AuditChainHead's commit step. The committing transaction locks
+ * the units it logs and keeps them locked until it completes, so a unit's links always
+ * follow its commit order and a rollback restores the heads it moved before anyone else
+ * can link to them. Units share a fixed set of lock stripes, so commits on different
+ * units only wait for each other when their units land on the same stripe.
+ */
+@Component
+public class UnitChainHeads {
+
+    static final String UNIT_SCOPE = "UNIT";
+
+    // Heads untouched for this long are dropped and reloaded from the store on next use
+    private static final long IDLE_MILLIS = 10 * 60 * 1000;
+
+    private static final int LOCK_STRIPES = 1024;
+
+    @Autowired
+    private AuditLogStore logStore;
+
+    private final ConcurrentHashMap<String, UnitHead> heads = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public UnitChainHeads() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock the blood units of the unit-scoped entries, on top of the stripes already held.
+     * New stripes are taken in ascending order; one that stays busy past the timeout
+     * fails the commit instead of waiting on a commit that may be waiting for us.
+     *
+     * @param logs Entries about to be linked
+     * @param held Stripes held by the caller's commit; newly taken ones are added
+     * @param timeoutMs How long to wait for each stripe
+     */
+    void lock(List<BloodTrackingLog> logs, Set<Integer> held, long timeoutMs) {
+        Set<Integer> wanted = new TreeSet<>();
+        for (BloodTrackingLog log : logs) {
+            if (UNIT_SCOPE.equals(log.getLinkScope())) {
+                int stripe = stripeOf(log.getBloodUnitId());
+                if (!held.contains(stripe)) {
+                    wanted.add(stripe);
+                }
+            }
+        }
+        for (int stripe : wanted) {
+            try {
+                if (!locks[stripe].tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Audit chain is busy: timed out waiting for another commit on the same blood unit");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a blood unit's audit chain", e);
+            }
+            held.add(stripe);
+        }
+    }
+
+    /**
+     * Release stripes taken by lock() for one commit.
+     */
+    void unlock(Set<Integer> held) {
+        for (int stripe : held) {
+            locks[stripe].unlock();
+        }
+        held.clear();
+    }
+
+    /**
+     * Link an entry to the previous entry of its blood unit and make it the unit's head.
+     * Sets previousHash and hash on the entry. Called by AuditChainHead with the unit locked.
+     *
+     * @param log Entry to link (all hashed fields must already be set)
+     * @param undo Collects each unit's head before its first link, for restore()
+     */
+    void link(BloodTrackingLog log, Map<String, String> undo) {
+        String unitId = log.getBloodUnitId();
+        UnitHead current = heads.get(unitId);
+        String previous = current != null ? current.hash() : loadHash(unitId);
+        undo.putIfAbsent(unitId, previous);
+
+        log.setPreviousHash(previous);
+        log.setHash(BloodTrackingService.calculateHash(log));
+        heads.put(unitId, new UnitHead(log.getHash(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Put back the heads recorded by link() when the linked entries were not stored.
+     * Called by AuditChainHead with the units still locked.
+     */
+    void restore(Map<String, String> undo) {
+        long now = System.currentTimeMillis();
+        undo.forEach((unitId, hash) -> heads.put(unitId, new UnitHead(hash, now)));
+    }
+
+    /**
+     * Drop heads whose stored state is uncertain; they are reloaded on next use.
+     */
+    void forget(Collection<String> unitIds) {
+        unitIds.forEach(heads::remove);
+    }
+
+    /**
+     * Drop heads that have not been used recently to keep memory bounded.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleHeads() {
+        long cutoff = System.currentTimeMillis() - IDLE_MILLIS;
+        heads.entrySet().removeIf(entry -> entry.getValue().touchedAt() < cutoff);
+    }
+
+    private static int stripeOf(String unitId) {
+        return Math.floorMod(Objects.hashCode(unitId), LOCK_STRIPES);
+    }
+
+    // Latest entry of the unit in chain order, as committed
+    private String loadHash(String unitId) {
+        String last = logStore.findLatestUnitHash(unitId);
+        return last != null ? last : AuditChainHead.GENESIS_HASH;
+    }
+
+    private record UnitHead(String hash, long touchedAt) {}
+}
@@ -7,10 +7,68 @@ document.addEventListener('DOMContentLoaded', function () {
     loadDashboardData();
     setupEventListeners();
 
-    // Auto-refresh every 30 seconds
-    setInterval(loadDashboardData, 30000);
+    // Live updates pushed by the server; polling only while the stream is down
+    connectLiveUpdates();
+    setInterval(function () {
+        if (!liveConnected) {
+            loadDashboardData();
+        }
+    }, 30000);
 });
 
+// Live update stream (server-sent events): changes are applied to the page as they come,
+// only a "refresh" (or a reconnect, which may have missed changes) reloads
+let liveConnected = false;
+let liveDropped = false;
+
+function connectLiveUpdates() {
+    if (!window.EventSource) {
+        return;
+    }
+    const source = new EventSource('http://localhost:8080/api/live/stream');
+    source.addEventListener('hello', function () {
+        liveConnected = true;
+        if (liveDropped) {
+            liveDropped = false;
+            loadDashboardData();
+        }
+    });
+    source.addEventListener('changes', function (event) {
+        JSON.parse(event.data).forEach(applyLiveChange);
+    });
+    source.addEventListener('refresh', function () {
+        loadDashboardData();
+    });
+    source.onerror = function () {
+        // EventSource reconnects by itself; poll meanwhile
+        liveConnected = false;
+        liveDropped = true;
+    };
+}
+
+function applyLiveChange(change) {
+    if (change.type === 'inventory') {
+        // Stored whole units make up both the inventory table and the Total Units card
+        if (change.item === 'UNIT' && change.status === 'STORED') {
+            adjustStoredUnits(change.bloodGroup, change.delta);
+            adjustElementNumber('totalUnits', change.delta);
+        }
+    } else if (change.type === 'status') {
+        if (change.item === 'UNIT' && change.expiringSoon) {
+            adjustElementNumber('expiringSoon', (change.to === 'STORED' ? 1 : 0) - (change.from === 'STORED' ? 1 : 0));
+        }
+    } else if (change.type === 'request') {
+        applyRequestChange(change);
+    }
+}
+
+function adjustElementNumber(id, delta) {
+    const element = document.getElementById(id);
+    if (element && delta) {
+        element.textContent = (parseInt(element.textContent, 10) || 0) + delta;
+    }
+}
+
 // Setup event listeners
 function setupEventListeners() {
     // Refresh button
@@ -65,44 +123,68 @@ function updateElementText(id, value) {
 }
 
 // [2] Load blood inventory (Updated for Table)
+// Rows as last rendered, kept so live changes can adjust them in place
+let inventoryRows = [];
+
 async function loadBloodInventory() {
     try {
         const response = await fetch(`${API_BASE_URL}/inventory`);
-        const inventory = await response.json();
-
-        const tbody = document.getElementById('inventoryTableBody');
-        if (!tbody) return;
-
-        tbody.innerHTML = ''; // Clear existing
-
-        if (inventory.length === 0) {
-            tbody.innerHTML = '<tr><td colspan="4" style="text-align: center;">No inventory data</td></tr>';
-            return;
-        }
+        inventoryRows = await response.json();
+        renderBloodInventory();
+    } catch (error) {
+        console.error('Error loading blood inventory:', error);
+    }
+}
 
-        inventory.forEach(item => {
-            const row = document.createElement('tr');
-            row.style.borderBottom = '1px solid #eee';
+// Same thresholds as the server's inventory endpoint
+function adjustStoredUnits(bloodGroup, delta) {
+    const item = inventoryRows.find(row => row.bloodGroup === bloodGroup);
+    if (!item) return;
+
+    item.units = Math.max(0, item.units + delta);
+    if (item.units >= 20) {
+        item.status = 'Safe';
+        item.statusClass = 'status-safe';
+    } else if (item.units >= 5) {
+        item.status = 'Low';
+        item.statusClass = 'status-low';
+    } else {
+        item.status = 'Critical';
+        item.statusClass = 'status-critical';
+    }
+    renderBloodInventory();
+}
 
-            // Status badge class mapping handled by backend or mapped here
-            // Backend sends statusClass: 'status-safe', 'status-low', 'status-critical'
+function renderBloodInventory() {
+    const tbody = document.getElementById('inventoryTableBody');
+    if (!tbody) return;
 
-            row.innerHTML = `
-                <td style="padding: 10px; font-weight: bold;">${item.bloodGroup}</td>
-                <td style="padding: 10px;">${item.units} Units</td>
-                <td style="padding: 10px;">
-                    <span class="status-badge ${item.statusClass || getStatusClass(item.status)}">${item.status}</span>
-                </td>
-                <td style="padding: 10px;">
-                    <button class="btn small" style="padding: 5px 10px; font-size: 0.8rem;">Details</button>
-                </td>
-            `;
-            tbody.appendChild(row);
-        });
+    tbody.innerHTML = ''; // Clear existing
 
-    } catch (error) {
-        console.error('Error loading blood inventory:', error);
+    if (inventoryRows.length === 0) {
+        tbody.innerHTML = '<tr><td colspan="4" style="text-align: center;">No inventory data</td></tr>';
+        return;
     }
+
+    inventoryRows.forEach(item => {
+        const row = document.createElement('tr');
+        row.style.borderBottom = '1px solid #eee';
+
+        // Status badge class mapping handled by backend or mapped here
+        // Backend sends statusClass: 'status-safe', 'status-low', 'status-critical'
+
+        row.innerHTML = `
+            <td style="padding: 10px; font-weight: bold;">${item.bloodGroup}</td>
+            <td style="padding: 10px;">${item.units} Units</td>
+            <td style="padding: 10px;">
+                <span class="status-badge ${item.statusClass || getStatusClass(item.status)}">${item.status}</span>
+            </td>
+            <td style="padding: 10px;">
+                <button class="btn small" style="padding: 5px 10px; font-size: 0.8rem;">Details</button>
+            </td>
+        `;
+        tbody.appendChild(row);
+    });
 }
 
 function getStatusClass(status) {
@@ -113,22 +195,58 @@ function getStatusClass(status) {
 }
 
 // [3] Load Hospital Requests (New)
+// Open (REQUESTED) hospital requests by id, kept current by live changes
+let hospitalRequests = new Map();
+
 async function loadHospitalRequests() {
     try {
         const response = await fetch(`${API_BASE_URL}/hospital-requests`);
         const requests = await response.json();
+        hospitalRequests = new Map(requests.map(req => [req.requestId, req]));
+        renderHospitalRequests();
+    } catch (error) {
+        console.error('Error loading hospital requests:', error);
+    }
+}
 
-        const container = document.getElementById('hospitalRequestsList');
-        if (!container) return; // Exit if not on page
+// A request entering or leaving REQUESTED joins or leaves the list and the active requests card
+function applyRequestChange(change) {
+    const open = change.status === 'REQUESTED';
+    const listed = hospitalRequests.has(change.id);
+    if (open) {
+        hospitalRequests.set(change.id, {
+            requestId: change.id,
+            hospitalName: 'Hospital ID: ' + change.hospitalId,
+            bloodGroup: change.bloodGroup,
+            componentType: change.componentType || 'WHOLE_BLOOD',
+            quantity: change.quantity,
+            urgency: change.urgency,
+            requestDate: change.requestDate
+        });
+    } else if (listed) {
+        hospitalRequests.delete(change.id);
+    }
+    if (open !== listed) {
+        adjustElementNumber('emergencyRequests', open ? 1 : -1);
+    }
+    renderHospitalRequests();
+}
 
-        container.innerHTML = '';
+function renderHospitalRequests() {
+    const container = document.getElementById('hospitalRequestsList');
+    if (!container) return; // Exit if not on page
 
-        if (requests.length === 0) {
-            container.innerHTML = '<div style="text-align: center; color: #777;">No active requests</div>';
-            return;
-        }
+    container.innerHTML = '';
+
+    if (hospitalRequests.size === 0) {
+        container.innerHTML = '<div style="text-align: center; color: #777;">No active requests</div>';
+        return;
+    }
 
-        requests.forEach(req => {
+    // Newest first, like the endpoint
+    [...hospitalRequests.values()]
+        .sort((a, b) => b.requestDate.localeCompare(a.requestDate))
+        .forEach(req => {
             const item = document.createElement('div');
             item.className = 'request-item';
             item.style.padding = '10px';
@@ -156,10 +274,6 @@ async function loadHospitalRequests() {
             `;
             container.appendChild(item);
         });
-
-    } catch (error) {
-        console.error('Error loading hospital requests:', error);
-    }
 }
 
 // [4] Load Pending Donations (Updated for List)
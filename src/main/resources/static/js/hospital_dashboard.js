@@ -23,6 +23,32 @@ document.addEventListener("DOMContentLoaded", async () => {
         loadUsageTrends()
     ]);
 
+    // ✅ Live updates for this hospital's requests: applied in place, reloaded only on "refresh"
+    // or after a reconnect (changes sent while the stream was down are lost)
+    if (window.EventSource) {
+        const source = new EventSource(`http://localhost:8080/api/live/stream?hospitalEmail=${encodeURIComponent(userEmail)}`);
+        let dropped = false;
+        const reload = () => {
+            loadMyRequests();
+            loadBloodInventory();
+        };
+        source.addEventListener("hello", () => {
+            if (dropped) {
+                dropped = false;
+                reload();
+            }
+        });
+        source.addEventListener("changes", (event) => {
+            JSON.parse(event.data)
+                .filter(change => change.type === "request")
+                .forEach(applyRequestChange);
+        });
+        source.addEventListener("refresh", reload);
+        source.onerror = () => {
+            dropped = true;
+        };
+    }
+
     // ✅ Logout functionality
     const logoutBtn = document.querySelector(".logout");
     if (logoutBtn) {
@@ -277,7 +303,9 @@ document.getElementById('usageForm')?.addEventListener('submit', async (e) => {
 });
 
 // 🧫 Blood Inventory (Updated to show real split data)
-// 🧫 Blood Inventory (Updated to show real split data)
+// Cards as last rendered, kept so received requests can add to them in place
+let inventoryCards = [];
+
 async function loadBloodInventory() {
     const userEmail = sessionStorage.getItem("userEmail");
     if (!userEmail) return;
@@ -286,32 +314,46 @@ async function loadBloodInventory() {
         const res = await fetch(`http://localhost:8080/api/hospital/inventory/summary?email=${userEmail}`);
         if (!res.ok) throw new Error("Failed to load inventory");
 
-        const inventory = await res.json();
-
-        const grid = document.querySelector("#inventory .blood-group-grid");
-        if (!grid) return; // Exit if not on inventory page
-
-        grid.innerHTML = ""; // Clear existing hardcoded cards
-
-        inventory.forEach(item => {
-            const card = document.createElement("div");
-            card.className = "blood-group-card";
-            card.innerHTML = `
-                <div class="blood-group">${item.bloodGroup}</div>
-                <div class="blood-units">${item.units} Units</div>
-                <div class="blood-status ${item.statusClass}">${item.status}</div>
-            `;
-            grid.appendChild(card);
-        });
-
-
-
+        inventoryCards = await res.json();
+        renderBloodInventory();
     } catch (err) {
         console.error("❌ Error loading inventory:", err);
     }
 }
 
+// Same thresholds as the server's inventory summary
+function addInventoryUnits(bloodGroup, units) {
+    const item = inventoryCards.find(card => card.bloodGroup === bloodGroup);
+    if (!item || !units) return;
+
+    item.units += units;
+    item.status = item.units >= 10 ? "Adequate" : (item.units >= 5 ? "Low" : "Critical");
+    item.statusClass = item.units >= 10 ? "status-adequate" : (item.units >= 5 ? "status-low" : "status-critical");
+    renderBloodInventory();
+}
+
+function renderBloodInventory() {
+    const grid = document.querySelector("#inventory .blood-group-grid");
+    if (!grid) return; // Exit if not on inventory page
+
+    grid.innerHTML = ""; // Clear existing hardcoded cards
+
+    inventoryCards.forEach(item => {
+        const card = document.createElement("div");
+        card.className = "blood-group-card";
+        card.innerHTML = `
+            <div class="blood-group">${item.bloodGroup}</div>
+            <div class="blood-units">${item.units} Units</div>
+            <div class="blood-status ${item.statusClass}">${item.status}</div>
+        `;
+        grid.appendChild(card);
+    });
+}
+
 // 📋 Load My Requests (Hospital)
+// This hospital's requests by id, kept current by live changes
+let myRequests = new Map();
+
 async function loadMyRequests() {
     const userEmail = sessionStorage.getItem("userEmail");
     if (!userEmail) return;
@@ -321,18 +363,49 @@ async function loadMyRequests() {
         if (!res.ok) throw new Error("Failed to load requests");
 
         const requests = await res.json();
+        myRequests = new Map(requests.map(r => [r.id, r]));
+        renderMyRequests();
+    } catch (err) {
+        console.error("❌ Error loading requests:", err);
+    }
+}
 
-        const tbody = document.querySelector("#requestsTable tbody");
-        if (!tbody) return; // Exit if not on requests page
+// A new request is added, a known one updated; a receipt adds its units to the inventory
+function applyRequestChange(change) {
+    const known = myRequests.get(change.id);
+    if (change.status === "COMPLETED" && known && known.status !== "COMPLETED") {
+        addInventoryUnits(change.bloodGroup, change.approvedQuantity ?? change.quantity);
+    }
+    myRequests.set(change.id, {
+        ...known,
+        id: change.id,
+        requestNumber: change.requestNumber,
+        componentType: change.componentType,
+        bloodGroup: change.bloodGroup,
+        quantity: change.quantity,
+        urgency: change.urgency,
+        requestDate: change.requestDate,
+        status: change.status,
+        rejectionReason: change.rejectionReason
+    });
+    renderMyRequests();
+}
 
-        tbody.innerHTML = "";
+function renderMyRequests() {
+    const tbody = document.querySelector("#requestsTable tbody");
+    if (!tbody) return; // Exit if not on requests page
 
-        if (requests.length === 0) {
-            tbody.innerHTML = `<tr><td colspan="7" style="text-align:center;">No requests found.</td></tr>`;
-            return;
-        }
+    tbody.innerHTML = "";
+
+    if (myRequests.size === 0) {
+        tbody.innerHTML = `<tr><td colspan="7" style="text-align:center;">No requests found.</td></tr>`;
+        return;
+    }
 
-        requests.forEach(r => {
+    // Newest first, like the endpoint
+    [...myRequests.values()]
+        .sort((a, b) => String(b.requestDate).localeCompare(String(a.requestDate)))
+        .forEach(r => {
             let actionBtn = "";
             let statusBadge = `<span class="status-pending">${r.status}</span>`;
             let reasonHtml = "";
@@ -367,10 +440,6 @@ async function loadMyRequests() {
             `;
             tbody.insertAdjacentHTML("beforeend", row);
         });
-
-    } catch (err) {
-        console.error("❌ Error loading requests:", err);
-    }
 }
 
 // 🚚 Confirm Receipt
@@ -0,0 +1,93 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.ComponentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The precomputed donor bitmaps against the documented ABO/Rh rules, written out
+ * in full: one row per recipient, one column per donor, both in the order
+ * O-, O+, A-, A+, B-, B+, AB-, AB+ ('X' = may be given).
+ */
+class BloodCompatibilityTest {
+
+    private static final Map<ComponentType, String[]> EXPECTED = Map.of(
+        // No ABO antigen the recipient lacks; Rh+ only to Rh+
+        ComponentType.RBC, new String[] {
+            "X.......",  // O-
+            "XX......",  // O+
+            "X.X.....",  // A-
+            "XXXX....",  // A+
+            "X...X...",  // B-
+            "XX..XX..",  // B+
+            "X.X.X.X.",  // AB-
+            "XXXXXXXX",  // AB+
+        },
+        // ABO-identical; Rh+ only to Rh+
+        ComponentType.WHOLE_BLOOD, new String[] {
+            "X.......",
+            "XX......",
+            "..X.....",
+            "..XX....",
+            "....X...",
+            "....XX..",
+            "......X.",
+            "......XX",
+        },
+        // Reversed: donor antigens include the recipient's; Rh does not apply
+        ComponentType.PLASMA, new String[] {
+            "XXXXXXXX",
+            "XXXXXXXX",
+            "..XX..XX",
+            "..XX..XX",
+            "....XXXX",
+            "....XXXX",
+            "......XX",
+            "......XX",
+        },
+        // Any ABO; Rh+ only to Rh+
+        ComponentType.PLATELETS, new String[] {
+            "X.X.X.X.",
+            "XXXXXXXX",
+            "X.X.X.X.",
+            "XXXXXXXX",
+            "X.X.X.X.",
+            "XXXXXXXX",
+            "X.X.X.X.",
+            "XXXXXXXX",
+        });
+
+    @Test
+    void donorMasksMatchTheRules() {
+        assertEquals(ComponentType.values().length, EXPECTED.size());
+        for (ComponentType type : ComponentType.values()) {
+            String[] rows = EXPECTED.get(type);
+            for (int recipient = 0; recipient < BloodCompatibility.GROUPS; recipient++) {
+                int expected = 0;
+                for (int donor = 0; donor < BloodCompatibility.GROUPS; donor++) {
+                    boolean allowed = rows[recipient].charAt(donor) == 'X';
+                    if (allowed) {
+                        expected |= 1 << donor;
+                    }
+                    assertEquals(allowed, BloodCompatibility.isCompatible(type, donor, recipient),
+                        type + " " + BloodCompatibility.name(donor) + " -> " + BloodCompatibility.name(recipient));
+                }
+                assertEquals(expected, BloodCompatibility.donorMask(type, recipient),
+                    type + " donors of " + BloodCompatibility.name(recipient));
+            }
+        }
+    }
+
+    @Test
+    void groupNamesRoundTrip() {
+        for (int group = 0; group < BloodCompatibility.GROUPS; group++) {
+            assertEquals(group, BloodCompatibility.index(BloodCompatibility.name(group)));
+        }
+        assertEquals(6, BloodCompatibility.index(" ab- "));
+        assertEquals(-1, BloodCompatibility.index("C+"));
+        assertEquals(-1, BloodCompatibility.index(null));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.RequestUrgency;
+import com.example.bloodchain.model.SubstitutionPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * How far each substitution policy lets matching move away from the requested group.
+ *
+ * An A+ request with one A+ unit (late expiry, little stock) in the index, and
+ * A- and O- units close to expiry. Scored on its own merits, the A- unit beats
+ * the exact match, and the O- unit (universal donor) comes after the A- unit.
+ */
+class CompatibilityMatcherTest {
+
+    private static final long EXACT = 1;
+    private static final long A_NEG = 2;
+    private static final long O_NEG = 3;
+
+    private final CompatibilityMatcher matcher = new CompatibilityMatcher();
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now();
+        InventoryIndex index = Mockito.mock(InventoryIndex.class);
+        stock(index, "A+", 1, new InventoryIndex.Available(EXACT, today.plusDays(42)));
+        stock(index, "A-", 5, new InventoryIndex.Available(A_NEG, today.plusDays(1)));
+        stock(index, "O-", 5, new InventoryIndex.Available(O_NEG, today.plusDays(1)));
+
+        ReflectionTestUtils.setField(matcher, "inventoryIndex", index);
+        ReflectionTestUtils.setField(matcher, "routinePolicy", SubstitutionPolicy.EXACT_ONLY);
+        ReflectionTestUtils.setField(matcher, "urgentPolicy", SubstitutionPolicy.COMPATIBLE_IF_SHORT);
+        ReflectionTestUtils.setField(matcher, "emergencyPolicy", SubstitutionPolicy.COMPATIBLE);
+    }
+
+    private static void stock(InventoryIndex index, String group, int count, InventoryIndex.Available available) {
+        when(index.firstToExpireWithDates(eq(ComponentType.RBC), eq(group), anyInt())).thenReturn(List.of(available));
+        when(index.count(ComponentType.RBC, group)).thenReturn(count);
+    }
+
+    @Test
+    void exactOnlyNeverSubstitutes() {
+        assertEquals(List.of(EXACT), match(RequestUrgency.ROUTINE, 1));
+        assertEquals(List.of(EXACT), match(RequestUrgency.ROUTINE, 3));
+    }
+
+    @Test
+    void compatibleIfShortKeepsExactMatchesFirst() {
+        assertEquals(List.of(EXACT), match(RequestUrgency.URGENT, 1));
+        assertEquals(List.of(EXACT, A_NEG), match(RequestUrgency.URGENT, 2));
+        assertEquals(List.of(EXACT, A_NEG, O_NEG), match(RequestUrgency.URGENT, 3));
+    }
+
+    @Test
+    void compatibleRanksAllGroupsByScore() {
+        assertEquals(List.of(A_NEG), match(RequestUrgency.EMERGENCY, 1));
+        assertEquals(List.of(A_NEG, O_NEG, EXACT), match(RequestUrgency.EMERGENCY, 3));
+    }
+
+    @Test
+    void excludedComponentsAreNotProposed() {
+        assertEquals(List.of(A_NEG), match(RequestUrgency.URGENT, 1, Set.of(EXACT)));
+    }
+
+    private List<Long> match(RequestUrgency urgency, int quantity) {
+        return match(urgency, quantity, Set.of());
+    }
+
+    private List<Long> match(RequestUrgency urgency, int quantity, Set<Long> exclude) {
+        return matcher.match(ComponentType.RBC, "A+", quantity, urgency, exclude).stream()
+            .map(CompatibilityMatcher.Match::componentId)
+            .toList();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.BloodChainApplication;
+import com.example.bloodchain.dto.CompletionData;
+import com.example.bloodchain.model.BloodUnit;
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.DonationRequest;
+import com.example.bloodchain.model.DonationRequestStatus;
+import com.example.bloodchain.model.TestStatus;
+import com.example.bloodchain.repository.BloodUnitRepository;
+import com.example.bloodchain.repository.DonationRequestRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of donation completion and component separation, with blood
+ * unit and component IDs from auto-increment columns (IDENTITY) or leased from
+ * id_sequences (TABLE), and JDBC batching off (batch size 1) or on.
+ *
+ * IDENTITY is mapped over the entity annotations by META-INF/identity-ids.xml; it
+ * makes Hibernate insert each row on persist to read its key back, so batching has
+ * nothing to group. Each combination runs in its own fork against a fresh MySQL
+ * container. Not part of the test run (needs Docker); start main() from the IDE
+ * (test classpath). StatementCountTest checks the statement counts behind the numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsertThroughputBenchmark {
+
+    @Param({ "IDENTITY", "TABLE" })
+    public String idGeneration;
+
+    @Param({ "1", "50" })
+    public int batchSize;
+
+    private MySQLContainer<?> mysql;
+
+    private ConfigurableApplicationContext context;
+
+    private DonationCompletionService completionService;
+
+    private BloodComponentService componentService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        mysql = new MySQLContainer<>("mysql:8.0").withUrlParam("rewriteBatchedStatements", "true");
+        mysql.start();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", mysql.getJdbcUrl());
+        properties.put("spring.datasource.username", mysql.getUsername());
+        properties.put("spring.datasource.password", mysql.getPassword());
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        properties.put("server.port", "0");
+        if ("IDENTITY".equals(idGeneration)) {
+            properties.put("spring.jpa.mapping-resources", "META-INF/identity-ids.xml");
+        }
+        context = new SpringApplicationBuilder(BloodChainApplication.class).properties(properties).run();
+        completionService = context.getBean(DonationCompletionService.class);
+        componentService = context.getBean(BloodComponentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        mysql.stop();
+    }
+
+    /**
+     * An approved donation request, saved outside the measured call.
+     */
+    @State(Scope.Thread)
+    public static class ApprovedRequest {
+        private Long requestId;
+
+        @Setup(Level.Invocation)
+        public void create(InsertThroughputBenchmark benchmark) {
+            DonationRequest request = new DonationRequest();
+            request.setDonorId(1);
+            request.setDonorEmail("donor-" + UUID.randomUUID() + "@example.com");
+            request.setBloodGroup("O+");
+            request.setBloodBankId(1);
+            request.setDonationType(ComponentType.WHOLE_BLOOD);
+            request.setStatus(DonationRequestStatus.APPROVED);
+            requestId = benchmark.context.getBean(DonationRequestRepository.class).save(request).getRequestId();
+        }
+    }
+
+    /**
+     * A tested whole blood unit, saved outside the measured call.
+     */
+    @State(Scope.Thread)
+    public static class TestedUnit {
+        private Long unitId;
+
+        @Setup(Level.Invocation)
+        public void create(InsertThroughputBenchmark benchmark) {
+            BloodUnit unit = new BloodUnit();
+            unit.setBloodUnitId("BENCH-" + UUID.randomUUID());
+            unit.setDonorId(1);
+            unit.setBloodBankId(1);
+            unit.setBloodGroup("A+");
+            unit.setDonationType(ComponentType.WHOLE_BLOOD);
+            unit.setCollectionDate(LocalDate.now());
+            unit.setExpiryDate(LocalDate.now().plusDays(42));
+            unit.setStatus(BloodUnitStatus.TESTED);
+            unit.setTestStatus(TestStatus.PASSED);
+            unit.setVolumeMl(450);
+            unitId = benchmark.context.getBean(BloodUnitRepository.class).save(unit).getId();
+        }
+    }
+
+    @Benchmark
+    public BloodUnit completeDonation(ApprovedRequest request) {
+        return completionService.completeDonation(request.requestId, new CompletionData(1, "Test Blood Bank", 450));
+    }
+
+    @Benchmark
+    public List<?> separateComponents(TestedUnit unit) {
+        return componentService.separateComponents(unit.unitId, "benchmark");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InsertThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.InclusionProof;
+import com.example.bloodchain.model.AuditBlock;
+import com.example.bloodchain.model.BloodTrackingLog;
+import com.example.bloodchain.repository.AuditBlockRepository;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sealing blocks and proving their entries, against an in-memory audit store and
+ * block table: every leaf of blocks of 1, 2, 3 and 256 entries must verify, a
+ * tampered hash must not, blocks must chain, and a gap must cut a block short.
+ */
+class MerkleBlockServiceTest {
+
+    private final MerkleBlockService service = new MerkleBlockService();
+
+    // Entries by sequence number (stands in for the audit store)
+    private final TreeMap<Long, BloodTrackingLog> entries = new TreeMap<>();
+
+    private final List<AuditBlock> blocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        AuditLogStore logStore = Mockito.mock(AuditLogStore.class);
+        when(logStore.findSequencedFrom(anyLong(), anyInt())).thenAnswer(call -> {
+            long from = call.getArgument(0);
+            int limit = call.getArgument(1);
+            return entries.tailMap(from).values().stream().limit(limit).toList();
+        });
+        when(logStore.findById(any())).thenAnswer(call -> entries.values().stream()
+            .filter(log -> log.getId().equals(call.getArgument(0)))
+            .findFirst());
+
+        AuditBlockRepository blockRepository = Mockito.mock(AuditBlockRepository.class);
+        when(blockRepository.findTopByOrderByBlockNumberDesc())
+            .thenAnswer(call -> blocks.isEmpty() ? null : blocks.get(blocks.size() - 1));
+        when(blockRepository.findByFirstSeqLessThanEqualAndLastSeqGreaterThanEqual(anyLong(), anyLong()))
+            .thenAnswer(call -> {
+                long seq = call.getArgument(0);
+                return blocks.stream().filter(block -> block.getFirstSeq() <= seq && block.getLastSeq() >= seq).findFirst();
+            });
+        when(blockRepository.save(any(AuditBlock.class))).thenAnswer(call -> {
+            blocks.add(call.getArgument(0));
+            return call.getArgument(0);
+        });
+
+        ReflectionTestUtils.setField(service, "logStore", logStore);
+        ReflectionTestUtils.setField(service, "blockRepository", blockRepository);
+        ReflectionTestUtils.setField(service, "blockMaxAgeSeconds", 300L);
+    }
+
+    @Test
+    void everyLeafOfFullBlocksVerifies() {
+        int[] sizes = { 1, 2, 3, 256 };
+        long seq = 0;
+        for (int size : sizes) {
+            for (int i = 0; i < size; i++) {
+                add(seq++, LocalDateTime.now());
+            }
+        }
+
+        for (int size : sizes) {
+            ReflectionTestUtils.setField(service, "blockSize", size);
+            assertTrue(service.sealNextBlock(), "block of " + size);
+        }
+        assertFalse(service.sealNextBlock());
+
+        assertEquals(sizes.length, blocks.size());
+        assertEquals(AuditChainHead.GENESIS_HASH, blocks.get(0).getPreviousBlockHash());
+        for (int b = 0; b < sizes.length; b++) {
+            assertEquals(sizes[b], blocks.get(b).getEntryCount());
+            if (b > 0) {
+                assertEquals(blocks.get(b - 1).getBlockHash(), blocks.get(b).getPreviousBlockHash());
+            }
+        }
+
+        for (BloodTrackingLog log : entries.values()) {
+            InclusionProof proof = service.proveLogEntry(log.getId());
+            assertTrue(proof.isVerified(), "seq " + log.getChainSeq());
+            assertTrue(service.verify(proof), "seq " + log.getChainSeq());
+
+            proof.setEntryHash(DigestUtils.sha256Hex("tampered"));
+            assertFalse(service.verify(proof), "tampered seq " + log.getChainSeq());
+        }
+    }
+
+    @Test
+    void unpairedNodeIsCarriedUp() {
+        for (long seq = 0; seq < 3; seq++) {
+            add(seq, LocalDateTime.now());
+        }
+        ReflectionTestUtils.setField(service, "blockSize", 3);
+        service.sealNextBlock();
+
+        byte[] l0 = leaf(entries.get(0L).getHash());
+        byte[] l1 = leaf(entries.get(1L).getHash());
+        byte[] l2 = leaf(entries.get(2L).getHash());
+        byte[] left = node(l0, l1);
+        assertEquals(Hex.encodeHexString(node(left, l2)), blocks.get(0).getMerkleRoot());
+
+        // Leaf 0: its pair, then the carried-up leaf 2 on its right
+        List<InclusionProof.Step> first = service.proveLogEntry(entries.get(0L).getId()).getPath();
+        assertEquals(2, first.size());
+        assertStep(first.get(0), l1, "RIGHT");
+        assertStep(first.get(1), l2, "RIGHT");
+
+        // Leaf 1: its pair on the left
+        assertStep(service.proveLogEntry(entries.get(1L).getId()).getPath().get(0), l0, "LEFT");
+
+        // Leaf 2: no sibling on the first level, then the left pair's node
+        List<InclusionProof.Step> last = service.proveLogEntry(entries.get(2L).getId()).getPath();
+        assertEquals(1, last.size());
+        assertStep(last.get(0), left, "LEFT");
+    }
+
+    @Test
+    void swappedSiblingOrderFailsVerification() {
+        for (long seq = 0; seq < 2; seq++) {
+            add(seq, LocalDateTime.now());
+        }
+        ReflectionTestUtils.setField(service, "blockSize", 2);
+        service.sealNextBlock();
+
+        InclusionProof proof = service.proveLogEntry(entries.get(0L).getId());
+        proof.getPath().get(0).setPosition("LEFT");
+        assertFalse(service.verify(proof));
+    }
+
+    @Test
+    void tamperedBlockChainIsNotVerified() {
+        for (long seq = 0; seq < 4; seq++) {
+            add(seq, LocalDateTime.now());
+        }
+        ReflectionTestUtils.setField(service, "blockSize", 2);
+        service.sealNextBlock();
+        service.sealNextBlock();
+
+        blocks.get(1).setPreviousBlockHash(DigestUtils.sha256Hex("forged"));
+        assertTrue(service.proveLogEntry(entries.get(0L).getId()).isVerified());
+        assertFalse(service.proveLogEntry(entries.get(2L).getId()).isVerified());
+    }
+
+    @Test
+    void oldGapCutsBlockShortAndIsSkipped() {
+        LocalDateTime old = LocalDateTime.now().minusMinutes(10);
+        for (long seq = 0; seq < 10; seq++) {
+            if (seq != 5) {
+                add(seq, old);
+            }
+        }
+        ReflectionTestUtils.setField(service, "blockSize", 8);
+
+        assertTrue(service.sealNextBlock());
+        assertTrue(service.sealNextBlock());
+        assertFalse(service.sealNextBlock());
+
+        assertEquals(0L, blocks.get(0).getFirstSeq());
+        assertEquals(4L, blocks.get(0).getLastSeq());
+        assertEquals(6L, blocks.get(1).getFirstSeq());
+        assertEquals(9L, blocks.get(1).getLastSeq());
+        for (BloodTrackingLog log : entries.values()) {
+            assertTrue(service.proveLogEntry(log.getId()).isVerified(), "seq " + log.getChainSeq());
+        }
+    }
+
+    @Test
+    void recentGapHoldsSealingBack() {
+        LocalDateTime old = LocalDateTime.now().minusMinutes(10);
+        for (long seq = 0; seq < 5; seq++) {
+            add(seq, old);
+        }
+        // Numbered after seq 5, which may still be committing
+        add(6, LocalDateTime.now());
+        ReflectionTestUtils.setField(service, "blockSize", 8);
+
+        assertTrue(service.sealNextBlock());
+        assertFalse(service.sealNextBlock());
+        assertEquals(4L, blocks.get(0).getLastSeq());
+    }
+
+    private void add(long seq, LocalDateTime sequencedAt) {
+        BloodTrackingLog log = new BloodTrackingLog("BU-" + (seq % 7), "TEST", "test@example.com", "SYSTEM", null);
+        log.setId(1000 + seq);
+        log.setChainSeq(seq);
+        log.setSequencedAt(sequencedAt);
+        log.setHash(DigestUtils.sha256Hex("entry " + seq));
+        entries.put(seq, log);
+    }
+
+    private static byte[] leaf(String entryHash) {
+        return DigestUtils.sha256(concat(new byte[] { 0x00 }, hex(entryHash)));
+    }
+
+    private static byte[] node(byte[] left, byte[] right) {
+        return DigestUtils.sha256(concat(new byte[] { 0x01 }, left, right));
+    }
+
+    private static void assertStep(InclusionProof.Step step, byte[] sibling, String position) {
+        assertEquals(Hex.encodeHexString(sibling), step.getHash());
+        assertEquals(position, step.getPosition());
+    }
+
+    private static byte[] hex(String value) {
+        try {
+            return Hex.decodeHex(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(value, e);
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] joined = new byte[length];
+        int at = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, at, part.length);
+            at += part.length;
+        }
+        return joined;
+    }
+}
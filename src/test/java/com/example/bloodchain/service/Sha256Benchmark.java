@@ -0,0 +1,88 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing a typical audit entry: Sha256 against the String concatenation path it replaced.
+ * Not part of the test run; start main() from the IDE (test classpath), and add
+ * -prof gc to the options to see the allocation per hash.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Sha256Benchmark {
+
+    private BloodTrackingLog log;
+
+    @Setup
+    public void setUp() {
+        log = new BloodTrackingLog();
+        log.setBloodUnitId("BU-2025-000123");
+        log.setAction("COMPONENT_STATUS_CHANGED");
+        log.setTimestamp(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000));
+        log.setPreviousHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        log.setDetails("Component RED_CELLS of blood unit BU-2025-000123 reserved for request BR-2025-000042");
+    }
+
+    @Benchmark
+    public String sha256() {
+        return BloodTrackingService.calculateHash(log);
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return calculateHashByConcatenation(log);
+    }
+
+    // The original BloodTrackingService.calculateHash and bytesToHex, unchanged
+    private String calculateHashByConcatenation(BloodTrackingLog log) {
+        try {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            String data = (log.getBloodUnitId() != null ? log.getBloodUnitId() : "") +
+                          (log.getAction() != null ? log.getAction() : "") +
+                          (log.getTimestamp() != null ? log.getTimestamp().toString() : "") +
+                          (log.getPreviousHash() != null ? log.getPreviousHash() : "0") +
+                          (log.getDetails() != null ? log.getDetails() : "");
+            
+            byte[] encodedhash = digest.digest(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return bytesToHex(encodedhash);
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+
+    private static String bytesToHex(byte[] hash) {
+        StringBuilder hexString = new StringBuilder(2 * hash.length);
+        for (int i = 0; i < hash.length; i++) {
+            String hex = Integer.toHexString(0xff & hash[i]);
+            if(hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(Sha256Benchmark.class.getSimpleName()).build()).run();
+    }
+}
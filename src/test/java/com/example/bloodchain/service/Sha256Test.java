@@ -0,0 +1,120 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.model.BloodTrackingLog;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sha256 must produce exactly the hashes of the String concatenation + getBytes(UTF_8)
+ * path it replaced, or hashes already stored in the audit chain stop verifying.
+ */
+class Sha256Test {
+
+    private static final int SAMPLES = 20_000;
+
+    // Fixed seed so a failure can be reproduced
+    private final Random random = new Random(20_000);
+
+    @Test
+    void auditEntryHashMatchesConcatenation() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BloodTrackingLog log = new BloodTrackingLog();
+            log.setBloodUnitId(maybeNull(randomText(20)));
+            log.setAction(maybeNull(randomText(24)));
+            log.setTimestamp(random.nextInt(10) == 0 ? null : randomDateTime());
+            log.setPreviousHash(random.nextInt(10) == 0 ? null : DigestUtils.sha256Hex(randomText(8)));
+            log.setDetails(maybeNull(randomText(random.nextInt(4) == 0 ? 1200 : 120)));
+
+            assertEquals(previousAuditHash(log), BloodTrackingService.calculateHash(log), "sample " + i);
+        }
+    }
+
+    @Test
+    void bloodUnitHashMatchesConcatenation() {
+        for (int i = 0; i < SAMPLES; i++) {
+            String bloodUnitId = maybeNull(randomText(16));
+            Integer donorId = random.nextInt(10) == 0 ? null : random.nextInt();
+            LocalDate collectionDate = random.nextInt(10) == 0 ? null : randomDateTime().toLocalDate();
+            String bloodGroup = maybeNull(randomText(3));
+            Integer volumeMl = random.nextInt(10) == 0 ? null : random.nextInt(1000) - 100;
+
+            String expected = DigestUtils.sha256Hex(bloodUnitId + donorId + collectionDate + bloodGroup + volumeMl);
+            String actual = Sha256.begin()
+                .add(String.valueOf(bloodUnitId))
+                .add(donorId)
+                .add(collectionDate)
+                .add(String.valueOf(bloodGroup))
+                .add(volumeMl)
+                .hex();
+            assertEquals(expected, actual, "sample " + i);
+        }
+    }
+
+    @Test
+    void numbersAndDatesMatchToString() {
+        long[] edges = {0, 9, 10, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE};
+        for (long value : edges) {
+            assertEquals(DigestUtils.sha256Hex(Long.toString(value)), Sha256.begin().add(value).hex());
+        }
+        LocalDateTime[] times = {
+            LocalDateTime.of(2025, 1, 2, 3, 4),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 5),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 0, 1_000_000),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 0, 1_000),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 0, 1),
+            LocalDateTime.of(-5, 1, 2, 3, 4),
+            LocalDateTime.of(12345, 12, 31, 23, 59, 59, 999_999_999)
+        };
+        for (LocalDateTime time : times) {
+            assertEquals(DigestUtils.sha256Hex(time.toString()), Sha256.begin().add(time).hex(), time.toString());
+        }
+    }
+
+    // The hashing code before Sha256, kept as the reference
+    private static String previousAuditHash(BloodTrackingLog log) {
+        String data = (log.getBloodUnitId() != null ? log.getBloodUnitId() : "") +
+                      (log.getAction() != null ? log.getAction() : "") +
+                      (log.getTimestamp() != null ? log.getTimestamp().toString() : "") +
+                      (log.getPreviousHash() != null ? log.getPreviousHash() : "0") +
+                      (log.getDetails() != null ? log.getDetails() : "");
+        return DigestUtils.sha256Hex(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String maybeNull(String text) {
+        return random.nextInt(10) == 0 ? null : text;
+    }
+
+    // ASCII, 2- and 3-byte UTF-8, surrogate pairs, and the odd unpaired surrogate
+    private String randomText(int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(8)) {
+                case 0 -> text.append((char) (0x80 + random.nextInt(0x780)));
+                case 1 -> text.append((char) (0x800 + random.nextInt(0xd000)));
+                case 2 -> text.appendCodePoint(0x10000 + random.nextInt(0x100000));
+                case 3 -> text.append((char) (0xd800 + random.nextInt(0x800)));
+                default -> text.append((char) (0x20 + random.nextInt(0x5f)));
+            }
+        }
+        return text.toString();
+    }
+
+    private LocalDateTime randomDateTime() {
+        int nano = switch (random.nextInt(4)) {
+            case 0 -> 0;
+            case 1 -> random.nextInt(1000) * 1_000_000;
+            case 2 -> random.nextInt(1_000_000) * 1000;
+            default -> random.nextInt(1_000_000_000);
+        };
+        return LocalDateTime.of(1900 + random.nextInt(300), 1 + random.nextInt(12), 1 + random.nextInt(28),
+            random.nextInt(24), random.nextInt(60), random.nextInt(4) == 0 ? 0 : random.nextInt(60), nano);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.bloodchain.service;
+
+import com.example.bloodchain.dto.CompletionData;
+import com.example.bloodchain.model.BloodComponent;
+import com.example.bloodchain.model.BloodUnit;
+import com.example.bloodchain.model.BloodUnitStatus;
+import com.example.bloodchain.model.ComponentType;
+import com.example.bloodchain.model.DonationRequest;
+import com.example.bloodchain.model.DonationRequestStatus;
+import com.example.bloodchain.model.TestStatus;
+import com.example.bloodchain.repository.BloodUnitRepository;
+import com.example.bloodchain.repository.DonationRequestRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement counts of the write paths that depend on JDBC batching: the components
+ * of a separation must go out as one insert batch, not one round trip each.
+ *
+ * Counts the statements Hibernate prepares on the test thread (a batch is one
+ * statement). Session factory statistics would also count the scheduled jobs
+ * running in the same context. Audit and inventory counter writes use JdbcTemplate
+ * and are not included. Runs against MySQL in a container; skipped without Docker.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.bloodchain.service.StatementCountTest$Counter",
+    "spring.jpa.show-sql=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class StatementCountTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+        .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Autowired
+    private DonationCompletionService completionService;
+
+    @Autowired
+    private BloodComponentService componentService;
+
+    @Autowired
+    private DonationRequestRepository donationRequestRepository;
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @BeforeEach
+    void warmUp() {
+        // The first completion leases ID blocks in their own transactions; measured calls draw from them
+        completionService.completeDonation(approvedRequest().getRequestId(), completionData());
+    }
+
+    @Test
+    void separateComponentsInsertsComponentsInOneBatch() {
+        BloodUnit unit = bloodUnitRepository.save(testedUnit());
+
+        Counter.start();
+        List<BloodComponent> components = componentService.separateComponents(unit.getId(), "test");
+        List<String> statements = Counter.stop();
+
+        assertEquals(4, components.size());
+        assertEquals(1, count(statements, "insert into blood_components"), statements::toString);
+        // Unit read, component insert batch, unit status update
+        assertTrue(statements.size() <= 3, statements::toString);
+    }
+
+    @Test
+    void completeDonationBatchesItsWrites() {
+        DonationRequest request = approvedRequest();
+
+        Counter.start();
+        completionService.completeDonation(request.getRequestId(), completionData());
+        List<String> statements = Counter.stop();
+
+        assertEquals(1, count(statements, "insert into blood_units"), statements::toString);
+        assertEquals(1, count(statements, "insert into blood_components"), statements::toString);
+        // Request and donor user reads, unit and component inserts, request and unit updates
+        assertTrue(statements.size() <= 6, statements::toString);
+    }
+
+    private DonationRequest approvedRequest() {
+        DonationRequest request = new DonationRequest();
+        request.setDonorId(1);
+        request.setDonorEmail("donor-" + UUID.randomUUID() + "@example.com");
+        request.setBloodGroup("O+");
+        request.setBloodBankId(1);
+        request.setDonationType(ComponentType.WHOLE_BLOOD);
+        request.setStatus(DonationRequestStatus.APPROVED);
+        return donationRequestRepository.save(request);
+    }
+
+    private static CompletionData completionData() {
+        return new CompletionData(1, "Test Blood Bank", 450);
+    }
+
+    private static BloodUnit testedUnit() {
+        BloodUnit unit = new BloodUnit();
+        unit.setBloodUnitId("TEST-" + UUID.randomUUID());
+        unit.setDonorId(1);
+        unit.setBloodBankId(1);
+        unit.setBloodGroup("A+");
+        unit.setDonationType(ComponentType.WHOLE_BLOOD);
+        unit.setCollectionDate(LocalDate.now());
+        unit.setExpiryDate(LocalDate.now().plusDays(42));
+        unit.setStatus(BloodUnitStatus.TESTED);
+        unit.setTestStatus(TestStatus.PASSED);
+        unit.setVolumeMl(450);
+        return unit;
+    }
+
+    private static long count(List<String> statements, String prefix) {
+        return statements.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    /**
+     * Records the SQL Hibernate prepares on the current thread while started.
+     */
+    public static class Counter implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> recorded = RECORDED.get();
+            RECORDED.remove();
+            return recorded;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> recorded = RECORDED.get();
+            if (recorded != null) {
+                recorded.add(sql.trim().toLowerCase());
+            }
+            return sql;
+        }
+    }
+}